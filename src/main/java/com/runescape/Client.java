@@ -21,9 +21,15 @@ import com.runescape.cache.graphics.widget.Bank.BankTabShow;
 import com.runescape.cache.graphics.widget.OSRSCreationMenu;
 import com.runescape.cache.graphics.widget.SettingsWidget;
 import com.runescape.cache.graphics.widget.Widget;
+import com.runescape.cache.graphics.widget.WidgetRenderCache;
+import com.runescape.collection.CacheManager;
 import com.runescape.collection.Deque;
 import com.runescape.collection.Linkable;
 import com.runescape.draw.AbstractRasterProvider;
+import com.runescape.draw.CanvasPresenter;
+import com.runescape.draw.FrameLayers;
+import com.runescape.draw.FramePresenter;
+import com.runescape.draw.MinimapRenderer;
 import com.runescape.draw.ProducingGraphicsBuffer;
 import com.runescape.draw.Rasterizer2D;
 import com.runescape.draw.Rasterizer3D;
@@ -39,6 +45,7 @@ import com.runescape.entity.Renderable;
 import com.runescape.entity.*;
 import com.runescape.entity.model.IdentityKit;
 import com.runescape.entity.model.Model;
+import com.runescape.entity.model.PoseCache;
 import com.runescape.io.Buffer;
 import com.runescape.io.PacketConstants;
 import com.runescape.io.PacketSender;
@@ -468,7 +475,6 @@ public class Client extends GameEngine implements RSClient {
 
     private int ignoreCount;
     private long loadingStartTime;
-    private int[][] anIntArrayArray825;
     private int[] friendsNodeIDs;
     private Deque[][][] groundItems;
     private int[] anIntArray828;
@@ -512,7 +518,6 @@ public class Client extends GameEngine implements RSClient {
     private int cameraRotation;
     private int friendsCount;
     private int friendServerStatus;
-    private int[][] anIntArrayArray901;
     public byte[] aByteArray912;
     private int anInt913;
     private int crossX;
@@ -674,6 +679,32 @@ public class Client extends GameEngine implements RSClient {
     private int splitPrivateChat;
     private IndexedImage mapBack;
     private String[] menuActionText;
+    /**
+     * The option, colour tag, target and details a scene menu entry's text is made from. The
+     * text is left null until {@link #menuText(int)} is asked for it, as most rows are never
+     * shown. The details are a set of MENU_TEXT flags saying what to add to the target.
+     */
+    private String[] menuTextOptions;
+    private String[] menuTextColours;
+    private String[] menuTextTargets;
+    private int[] menuTextDetails;
+    private int[] menuTextLevels;
+    private long[] menuTextIds;
+    private static final int MENU_TEXT_PLAIN = 0;
+    private static final int MENU_TEXT_USE = 1;
+    private static final int MENU_TEXT_OBJECT_ID = 2;
+    private static final int MENU_TEXT_ITEM_ID = 4;
+    private static final int MENU_TEXT_NPC_ID = 8;
+    private static final int MENU_TEXT_LEVEL = 16;
+    private static final int MENU_TEXT_SKILL = 32;
+    /**
+     * The spawn tab, whose children {@link #processSpawnTab} rebuilds whenever it is drawn.
+     */
+    private static final int SPAWN_TAB_WIDGET = 31000;
+    /**
+     * The total experience text, which {@link #drawInterface} rewrites from the skills whenever it is drawn.
+     */
+    private static final int TOTAL_XP_WIDGET = 27656;
     private Sprite flameLeftSprite;
     private Sprite flameRightSprite;
     private int minimapRotation;
@@ -723,8 +754,7 @@ public class Client extends GameEngine implements RSClient {
     public GameFont gameFont;
     private int anInt1275;
     private int cameraX;
-    private int[] bigX;
-    private int[] bigY;
+    private final PathFinder pathFinder = new PathFinder();
     private int itemSelected;
     private int anInt1283;
     private int anInt1284;
@@ -749,7 +779,6 @@ public class Client extends GameEngine implements RSClient {
         currentTrackPlaying = -1;
         cButtonCPos = 0;
         server = Configuration.SERVER_ADDRESS;
-        anIntArrayArray825 = new int[104][104];
         friendsNodeIDs = new int[200];
         groundItems = new Deque[4][104][104];
         aBoolean831 = false;
@@ -774,7 +803,6 @@ public class Client extends GameEngine implements RSClient {
         mobsAwaitingUpdate = new int[maxPlayers];
         playerSynchronizationBuffers = new Buffer[maxPlayers];
         anInt897 = 1;
-        anIntArrayArray901 = new int[104][104];
         aByteArray912 = new byte[16384];
         currentLevels = new int[SkillConstants.SKILL_COUNT];
         ignoreListAsLongs = new long[100];
@@ -863,6 +891,12 @@ public class Client extends GameEngine implements RSClient {
         anInt1184 = 128;
         overlayInterfaceId = -1;
         menuActionText = new String[500];
+        menuTextOptions = new String[500];
+        menuTextColours = new String[500];
+        menuTextTargets = new String[500];
+        menuTextDetails = new int[500];
+        menuTextLevels = new int[500];
+        menuTextIds = new long[500];
         quakeAmplitudes = new int[5];
         tracks = new int[50];
         anInt1210 = 2;
@@ -883,8 +917,6 @@ public class Client extends GameEngine implements RSClient {
         secondLoginMessage = "";
         backDialogueId = -1;
         anInt1279 = 2;
-        bigX = new int[4000];
-        bigY = new int[4000];
     }
 
     public static void setBounds() {
@@ -1834,12 +1866,14 @@ public class Client extends GameEngine implements RSClient {
             newBoldFont.drawCenteredString("Click to continue", 259, 80 + yOffset, 128, -1);
         } else if (backDialogueId != -1) {
             try {
+                widgetRenderCache.beginArea(changeChatArea && isResized() ? WidgetRenderCache.UNCACHEABLE : widgetAreaStamp(1));
                 drawInterface(0, 20, Widget.interfaceCache[backDialogueId], 20 + yOffset);
             } catch (Exception ex) {
 
             }
         } else if (dialogueId != -1) {
             try {
+                widgetRenderCache.beginArea(changeChatArea && isResized() ? WidgetRenderCache.UNCACHEABLE : widgetAreaStamp(1));
                 drawInterface(0, 20, Widget.interfaceCache[dialogueId], 20 + yOffset);
             } catch (Exception ex) {
 
@@ -2152,46 +2186,37 @@ public class Client extends GameEngine implements RSClient {
     }
 
     public MapRegion currentMapRegion;
+    private RegionBuild regionBuild;
+    private RegionBuild lastRegionBuild;
 
     private void loadRegion() {
         try {
             setGameState(GameState.LOADING);
             lastKnownPlane = -1;
-            incompleteAnimables.clear();
-            projectiles.clear();
+            AnimableObject.POOL.releaseAll(incompleteAnimables);
+            Projectile.POOL.releaseAll(projectiles);
             Rasterizer3D.clearTextureCache();
-            unlinkCaches();
+            CacheManager.rebalance();
             scene.initToNull();
-            System.gc();
-            for (int i = 0; i < 4; i++)
-                collisionMaps[i].setDefault();
-            for (int l = 0; l < 4; l++) {
-                for (int k1 = 0; k1 < 104; k1++) {
-                    for (int j2 = 0; j2 < 104; j2++)
-                        tileFlags[l][k1][j2] = 0;
+            if (regionBuild == null || !regionBuild.isDone() || regionBuild.getFailure() != null
+                    || !regionBuild.matches(terrainData, currentRegionX, currentRegionY, requestMapReconstruct)) {
+                if (regionBuild != null) {
+                    if (regionBuild.isDone() && regionBuild.getFailure() != null) {
+                        getLogger().warn("background terrain decode failed, decoding again", regionBuild.getFailure());
+                    }
+                    regionBuild.supersede();
                 }
+                regionBuild = createRegionBuild();
+                regionBuild.run();
             }
-
-            currentMapRegion = new MapRegion(tileFlags, tileHeights);
+            final RegionBuild build = regionBuild;
+            currentMapRegion = build.apply(tileFlags, tileHeights, collisionMaps);
+            lastRegionBuild = build;
+            regionBuild = null;
             int k2 = terrainData.length;
             packetSender.sendEmptyPacket();
 
             if (!requestMapReconstruct) {
-                for (int i3 = 0; i3 < k2; i3++) {
-                    int i4 = (mapCoordinates[i3] >> 8) * 64 - regionBaseX;
-                    int k5 = (mapCoordinates[i3] & 0xff) * 64 - regionBaseY;
-                    byte abyte0[] = terrainData[i3];
-                    if (abyte0 != null)
-                        currentMapRegion.method180(abyte0, k5, i4, (currentRegionX - 6) * 8, (currentRegionY - 6) * 8,
-                                collisionMaps);
-                }
-                for (int j4 = 0; j4 < k2; j4++) {
-                    int l5 = (mapCoordinates[j4] >> 8) * 64 - regionBaseX;
-                    int k7 = (mapCoordinates[j4] & 0xff) * 64 - regionBaseY;
-                    byte abyte2[] = terrainData[j4];
-                    if (abyte2 == null && currentRegionY < 800)
-                        currentMapRegion.initiateVertexHeights(k7, 64, 64, l5);
-                }
                 /*
                  * anInt1097++; if (anInt1097 > 160) { anInt1097 = 0;
                  * //anticheat? outgoing.writeOpcode(238);
@@ -2199,44 +2224,14 @@ public class Client extends GameEngine implements RSClient {
                  */
                 packetSender.sendEmptyPacket();
                 for (int i6 = 0; i6 < k2; i6++) {
-                    byte abyte1[] = objectData[i6];
-                    if (abyte1 != null) {
+                    ObjectMap objects = build.getObjectMap(i6);
+                    if (objects != null) {
                         int l8 = (mapCoordinates[i6] >> 8) * 64 - regionBaseX;
                         int k9 = (mapCoordinates[i6] & 0xff) * 64 - regionBaseY;
-                        currentMapRegion.method190(l8, collisionMaps, k9, scene, abyte1);
+                        currentMapRegion.placeObjects(objects, l8, collisionMaps, k9, scene);
                     }
                 }
             } else {
-                for (int plane = 0; plane < 4; plane++) {
-                    for (int x = 0; x < 13; x++) {
-                        for (int y = 0; y < 13; y++) {
-                            int chunkBits = constructRegionData[plane][x][y];
-                            if (chunkBits != -1) {
-                                int z = chunkBits >> 24 & 3;
-                                int rotation = chunkBits >> 1 & 3;
-                                int xCoord = chunkBits >> 14 & 0x3ff;
-                                int yCoord = chunkBits >> 3 & 0x7ff;
-                                int mapRegion = (xCoord / 8 << 8) + yCoord / 8;
-                                for (int idx = 0; idx < mapCoordinates.length; idx++) {
-                                    if (mapCoordinates[idx] != mapRegion || terrainData[idx] == null)
-                                        continue;
-                                    currentMapRegion.loadMapChunk(z, rotation, collisionMaps, x * 8, (xCoord & 7) * 8,
-                                            terrainData[idx], (yCoord & 7) * 8, plane, y * 8);
-                                    break;
-                                }
-
-                            }
-                        }
-                    }
-                }
-                for (int xChunk = 0; xChunk < 13; xChunk++) {
-                    for (int yChunk = 0; yChunk < 13; yChunk++) {
-                        int tileBits = constructRegionData[0][xChunk][yChunk];
-                        if (tileBits == -1)
-                            currentMapRegion.initiateVertexHeights(yChunk * 8, 8, 8, xChunk * 8);
-                    }
-                }
-
                 packetSender.sendEmptyPacket();
                 for (int chunkZ = 0; chunkZ < 4; chunkZ++) {
                     for (int chunkX = 0; chunkX < 13; chunkX++) {
@@ -2249,11 +2244,10 @@ public class Client extends GameEngine implements RSClient {
                                 int coordY = tileBits >> 3 & 0x7ff;
                                 int mapRegion = (coordX / 8 << 8) + coordY / 8;
                                 for (int idx = 0; idx < mapCoordinates.length; idx++) {
-                                    if (mapCoordinates[idx] != mapRegion || objectData[idx] == null)
+                                    if (mapCoordinates[idx] != mapRegion || build.getObjectMap(idx) == null)
                                         continue;
-                                    currentMapRegion.readObjectMap(collisionMaps, scene, plane, chunkX * 8,
-                                            (coordY & 7) * 8, chunkZ, objectData[idx], (coordX & 7) * 8, rotation,
-                                            chunkY * 8);
+                                    currentMapRegion.placeChunkObjects(build.getObjectMap(idx), collisionMaps, scene, plane,
+                                            chunkX * 8, (coordY & 7) * 8, chunkZ, (coordX & 7) * 8, rotation, chunkY * 8);
                                     break;
                                 }
                             }
@@ -2304,7 +2298,6 @@ public class Client extends GameEngine implements RSClient {
             }
 
         }
-        System.gc();
         Rasterizer3D.initiateRequestBuffers();
         resourceProvider.clearExtras();
 
@@ -2330,9 +2323,24 @@ public class Client extends GameEngine implements RSClient {
         setGameState(GameState.LOGGED_IN);
     }
 
+    public RegionBuild getLastRegionBuild() {
+        return lastRegionBuild;
+    }
+
+    public PathFinder getPathFinder() {
+        return pathFinder;
+    }
+
+    private RegionBuild createRegionBuild() {
+        return new RegionBuild(terrainData, objectData, mapCoordinates, requestMapReconstruct ? constructRegionData : null,
+                currentRegionX, currentRegionY, tileHeights, Configuration.incrementalTerrainDecode ? lastRegionBuild : null);
+    }
+
     private void unlinkCaches() {
         ObjectDefinition.baseModels.clear();
         ObjectDefinition.models.clear();
+        LitModelCache.clear();
+        PoseCache.clear();
         NpcDefinition.modelCache.clear();
         ItemDefinition.models.clear();
         ItemDefinition.sprites.clear();
@@ -2376,6 +2384,8 @@ public class Client extends GameEngine implements RSClient {
         }
 
         rasterProvider.setRaster();
+        minimapRenderer.invalidateMap();
+        minimapRenderer.resetGroundItems(plane, groundItems[plane]);
         anInt1071 = 0;
 
         for (int x = 0; x < 104; x++) {
@@ -2424,6 +2434,7 @@ public class Client extends GameEngine implements RSClient {
 
     private void updateGroundItems(int i, int j) {
         Deque class19 = groundItems[plane][i][j];
+        minimapRenderer.setGroundItemTile(i, j, class19 != null);
         if (class19 == null) {
             scene.removeGroundItemTile(plane, i, j);
             return;
@@ -3894,6 +3905,11 @@ public class Client extends GameEngine implements RSClient {
     }
 
     private void drawTabArea() {
+        drawTabAreaContents();
+        drawTabAreaMenu();
+    }
+
+    private void drawTabAreaContents() {
         final int xOffset = !isResized() ? 516 : canvasWidth - 241;
         final int yOffset = !isResized() ? 168 : canvasHeight - 336;
 
@@ -3937,6 +3953,7 @@ public class Client extends GameEngine implements RSClient {
                 y = canvasWidth >= 1000 ? canvasHeight - 303 : canvasHeight - 340;
             }
             try {
+                widgetRenderCache.beginArea(transparentTabArea && isResized() ? WidgetRenderCache.UNCACHEABLE : widgetAreaStamp(2));
                 if (overlayInterfaceId != -1) {
                     drawInterface(0, x, Widget.interfaceCache[overlayInterfaceId], y);
                 } else if (tabInterfaceIDs[tabId] != -1) {
@@ -3946,14 +3963,107 @@ public class Client extends GameEngine implements RSClient {
 
             }
         }
+		Rasterizer3D.scanOffsets = anIntArray1182;
+	}
+
+    private void drawTabAreaMenu() {
 		if (menuOpen) {
 			drawMenu(0, 0);
 		} else {
 			drawHoverMenu(0,0);
 		}
-
-		Rasterizer3D.scanOffsets = anIntArray1182;
 	}
+
+    /**
+     * Draws the chat area, reusing the retained layer when nothing it shows has changed.
+     */
+    private void drawChatAreaLayer() {
+        if (frameLayers.isActive() && frameLayers.chatArea.restore(chatAreaSignature())) {
+            Rasterizer3D.scanOffsets = anIntArray1182;
+            return;
+        }
+        drawChatArea();
+        frameLayers.retain(frameLayers.chatArea, chatAreaSignature());
+    }
+
+    private void drawTabAreaLayer() {
+        if (frameLayers.isActive() && frameLayers.tabArea.restore(tabAreaSignature())) {
+            Rasterizer3D.scanOffsets = anIntArray1182;
+        } else {
+            drawTabAreaContents();
+            frameLayers.retain(frameLayers.tabArea, tabAreaSignature());
+        }
+        drawTabAreaMenu();
+    }
+
+    private void drawMinimapLayer() {
+        if (frameLayers.isActive() && frameLayers.minimap.restore(minimapSignature())) {
+            return;
+        }
+        drawMinimap();
+        frameLayers.retain(frameLayers.minimap, minimapSignature());
+    }
+
+    private long chatAreaSignature() {
+        long signature = backDialogueId;
+        signature = signature * 31 + inputDialogState;
+        signature = signature * 31 + (messagePromptRaised ? 1 : 0);
+        signature = signature * 31 + (showChatComponents ? 1 : 0);
+        signature = signature * 31 + anInt1089;
+        signature = signature * 31 + chatTypeView;
+        signature = signature * 31 + publicChatMode;
+        signature = signature * 31 + privateChatMode;
+        signature = signature * 31 + clanChatMode;
+        signature = signature * 31 + tradeMode;
+        signature = signature * 31 + yellMode;
+        signature = signature * 31 + splitPrivateChat;
+        signature = signature * 31 + System.identityHashCode(chatMessages[0]);
+        signature = signature * 31 + Objects.hashCode(inputString);
+        signature = signature * 31 + Objects.hashCode(promptInput);
+        signature = signature * 31 + Objects.hashCode(amountOrNameInput);
+        return signature * 31 + Objects.hashCode(clickToContinueString);
+    }
+
+    private long tabAreaSignature() {
+        long signature = tabId;
+        signature = signature * 31 + tabInterfaceIDs[tabId];
+        signature = signature * 31 + overlayInterfaceId;
+        signature = signature * 31 + flashingSidebarId;
+        signature = signature * 31 + (showTabComponents ? 1 : 0);
+        signature = signature * 31 + itemSelected;
+        return signature * 31 + spellSelected;
+    }
+
+    private long minimapSignature() {
+        long signature = localPlayer.x;
+        signature = signature * 31 + localPlayer.y;
+        signature = signature * 31 + plane;
+        signature = signature * 31 + cameraHorizontal;
+        signature = signature * 31 + minimapRotation;
+        signature = signature * 31 + minimapZoom;
+        signature = signature * 31 + minimapState;
+        signature = signature * 31 + destinationX;
+        signature = signature * 31 + destinationY;
+        signature = signature * 31 + System.identityHashCode(minimapImage);
+        for (int n = 0; n < npcCount; n++) {
+            Npc npc = npcs[npcIndices[n]];
+            if (npc != null) {
+                signature = (signature * 31 + npc.x) * 31 + npc.y;
+            }
+        }
+        for (int p = 0; p < playerCount; p++) {
+            Player player = players[playerList[p]];
+            if (player != null) {
+                signature = (signature * 31 + player.x) * 31 + player.y;
+            }
+        }
+        // Hint icons blink and low orbs pulse every tick
+        if (hintIconDrawType != 0 || runEnergy <= 25 || currentLevels[3] * 4 <= maximumLevels[3]
+                || currentLevels[5] * 4 <= maximumLevels[5]) {
+            signature = signature * 31 + tick;
+        }
+        return signature;
+    }
     private void processMobChatText() {
         for (int i = -1; i < playerCount; i++) {
             int j;
@@ -4079,7 +4189,7 @@ public class Client extends GameEngine implements RSClient {
                     && mouseY < textY + 3) {
                 textColor = 0xffff00;
             }
-            boldText.drawTextWithPotentialShadow(true, xPos + 3, textColor, menuActionText[i],
+            boldText.drawTextWithPotentialShadow(true, xPos + 3, textColor, menuText(i),
                     textY);
         }
     }
@@ -4159,11 +4269,11 @@ public class Client extends GameEngine implements RSClient {
         loggedIn = false;
         loginScreenState = 0;
         unlinkCaches();
+        lastRegionBuild = null;
         scene.initToNull();
         for (int i = 0; i < 4; i++)
             collisionMaps[i].setDefault();
         Arrays.fill(chatMessages, null);
-        System.gc();
         stopMidi();
         currentSong = -1;
         nextSong = -1;
@@ -4226,6 +4336,7 @@ public class Client extends GameEngine implements RSClient {
         if (rsAlreadyLoaded || loadingError || genericLoadingError)
             return;
         tick++;
+        CacheManager.tick();
         if (!loggedIn) {
             processLoginScreenInput();
         } else {
@@ -4975,13 +5086,23 @@ public class Client extends GameEngine implements RSClient {
             return -3;
         if (loadingMap) {
             return -4;
-        } else {
-            loadingStage = 2;
-            MapRegion.anInt131 = plane;
-            loadRegion();
-            packetSender.sendFinalizedRegionChange();
-            return 0;
         }
+        if (Configuration.backgroundTerrainDecode) {
+            if (regionBuild == null || !regionBuild.matches(terrainData, currentRegionX, currentRegionY, requestMapReconstruct)) {
+                if (regionBuild != null)
+                    regionBuild.supersede();
+                regionBuild = createRegionBuild();
+                regionBuild.start();
+            }
+            if (!regionBuild.isDone()) {
+                return -5;
+            }
+        }
+        loadingStage = 2;
+        MapRegion.anInt131 = plane;
+        loadRegion();
+        packetSender.sendFinalizedRegionChange();
+        return 0;
     }
 
     private void createProjectiles() {
@@ -4990,7 +5111,7 @@ public class Client extends GameEngine implements RSClient {
                      (Projectile) projectiles.reverseGetNext())
             if (class30_sub2_sub4_sub4.projectileZ != plane
                     || tick > class30_sub2_sub4_sub4.stopCycle)
-                class30_sub2_sub4_sub4.unlink();
+                Projectile.POOL.release(class30_sub2_sub4_sub4);
             else if (tick >= class30_sub2_sub4_sub4.startCycle) {
                 if (class30_sub2_sub4_sub4.target > 0) {
                     Npc npc = npcs[class30_sub2_sub4_sub4.target - 1];
@@ -5426,7 +5547,7 @@ public class Client extends GameEngine implements RSClient {
                 spawnedObject.delay = 0;
                 method89(spawnedObject);
             } else {
-                spawnedObject.unlink();
+                SpawnedObject.POOL.release(spawnedObject);
             }
 
     }
@@ -5437,6 +5558,8 @@ public class Client extends GameEngine implements RSClient {
     }
 
     public static AbstractRasterProvider rasterProvider;
+    public static final CanvasPresenter canvasPresenter = new CanvasPresenter();
+    public static final FramePresenter framePresenter = new FramePresenter(canvasPresenter);
 
     private void method65(int i, int j, int k, int l, Widget class9, int i1, boolean flag,
                           int j1) {
@@ -6056,7 +6179,7 @@ public class Client extends GameEngine implements RSClient {
 
 
         if (action == 337 || action == 42 || action == 792 || action == 322) {
-            String string = menuActionText[id];
+            String string = menuText(id);
             int indexOf = string.indexOf("@whi@");
             if (indexOf != -1) {
                 long usernameHash = StringUtils.encodeBase37(string.substring(indexOf + 5).trim());
@@ -6101,7 +6224,7 @@ public class Client extends GameEngine implements RSClient {
             }
         }
         if (action == 484 || action == 6) {
-            String string = menuActionText[id];
+            String string = menuText(id);
             int indexOf = string.indexOf("@whi@");
             if (indexOf != -1) {
                 string = string.substring(indexOf + 5).trim();
@@ -6739,7 +6862,7 @@ public class Client extends GameEngine implements RSClient {
         }
 
         if (action == 639) {
-            String text = menuActionText[id];
+            String text = menuText(id);
 
             int indexOf = text.indexOf("@whi@");
 
@@ -6919,14 +7042,13 @@ public class Client extends GameEngine implements RSClient {
             }
             previous = current;
             if (opcode == 2) {
-                ObjectDefinition objectDef = ObjectDefinition.lookup(uid);
-                if (objectDef.configs != null)
-                    objectDef = objectDef.method580();
-                if (objectDef == null)
+                int slot = ObjectMenuCache.lookup(uid);
+                if (slot == -1)
                     continue;
+                String name = ObjectMenuCache.name(slot);
+                String[] actions = ObjectMenuCache.actions(slot);
                 if (itemSelected == 1) {
-                    menuActionText[menuActionRow] = "Use " + selectedItemName
-                            + " with @cya@" + objectDef.name;
+                    deferMenuText(selectedItemName, "@cya@", name, MENU_TEXT_USE);
                     menuActionTypes[menuActionRow] = 62;
                     selectedMenuActions[menuActionRow] = current;
                     firstMenuAction[menuActionRow] = x;
@@ -6934,8 +7056,7 @@ public class Client extends GameEngine implements RSClient {
                     menuActionRow++;
                 } else if (spellSelected == 1) {
                     if ((spellUsableOn & 4) == 4) {
-                        menuActionText[menuActionRow] =
-                                spellTooltip + " @cya@" + objectDef.name;
+                        deferMenuText(spellTooltip, "@cya@", name, MENU_TEXT_PLAIN);
                         menuActionTypes[menuActionRow] = 956;
                         selectedMenuActions[menuActionRow] = current;
                         firstMenuAction[menuActionRow] = x;
@@ -6943,12 +7064,10 @@ public class Client extends GameEngine implements RSClient {
                         menuActionRow++;
                     }
                 } else {
-                    if (objectDef.actions != null) {
+                    if (actions != null) {
                         for (int type = 4; type >= 0; type--)
-                            if (objectDef.actions[type] != null) {
-                                menuActionText[menuActionRow] =
-                                        objectDef.actions[type] + " @cya@"
-                                                + objectDef.name;
+                            if (actions[type] != null) {
+                                deferMenuText(actions[type], "@cya@", name, MENU_TEXT_PLAIN);
                                 if (type == 0)
                                     menuActionTypes[menuActionRow] = 502;
                                 if (type == 1)
@@ -6966,15 +7085,8 @@ public class Client extends GameEngine implements RSClient {
                             }
 
                     }
-                    if ((myPrivilege >= 2 && myPrivilege <= 4)) {
-                        menuActionText[menuActionRow] = "Examine @cya@" + objectDef.name
-                                + " @gre@(@whi@" + uid + "@gre@) (@whi@"
-                                + (x + regionBaseX) + "," + (y + regionBaseY)
-                                + "@gre@)";
-                    } else {
-                        menuActionText[menuActionRow] =
-                                "Examine @cya@" + objectDef.name;
-                    }
+                    deferMenuText("Examine", "@cya@", name,
+                            myPrivilege >= 2 && myPrivilege <= 4 ? MENU_TEXT_OBJECT_ID : MENU_TEXT_PLAIN);
                     menuActionTypes[menuActionRow] = 1226;
                     selectedMenuActions[menuActionRow] = current;
                     firstMenuAction[menuActionRow] = x;
@@ -7044,8 +7156,7 @@ public class Client extends GameEngine implements RSClient {
                             (Item) class19.getNext()) {
                         ItemDefinition itemDef = ItemDefinition.lookup(item.ID);
                         if (itemSelected == 1) {
-                            menuActionText[menuActionRow] = "Use " + selectedItemName
-                                    + " with @lre@" + itemDef.name;
+                            deferMenuText(selectedItemName, "@lre@", itemDef.name, MENU_TEXT_USE);
                             menuActionTypes[menuActionRow] = 511;
                             selectedMenuActions[menuActionRow] = item.ID;
                             firstMenuAction[menuActionRow] = x;
@@ -7053,8 +7164,7 @@ public class Client extends GameEngine implements RSClient {
                             menuActionRow++;
                         } else if (spellSelected == 1) {
                             if ((spellUsableOn & 1) == 1) {
-                                menuActionText[menuActionRow] =
-                                        spellTooltip + " @lre@" + itemDef.name;
+                                deferMenuText(spellTooltip, "@lre@", itemDef.name, MENU_TEXT_PLAIN);
                                 menuActionTypes[menuActionRow] = 94;
                                 selectedMenuActions[menuActionRow] = item.ID;
                                 firstMenuAction[menuActionRow] = x;
@@ -7065,10 +7175,7 @@ public class Client extends GameEngine implements RSClient {
                             for (int j3 = 4; j3 >= 0; j3--)
                                 if (itemDef.options != null
                                         && itemDef.options[j3] != null) {
-                                    menuActionText[menuActionRow] =
-                                            itemDef.options[j3]
-                                                    + " @lre@"
-                                                    + itemDef.name;
+                                    deferMenuText(itemDef.options[j3], "@lre@", itemDef.name, MENU_TEXT_PLAIN);
                                     if (j3 == 0)
                                         menuActionTypes[menuActionRow] = 652;
                                     if (j3 == 1)
@@ -7084,8 +7191,7 @@ public class Client extends GameEngine implements RSClient {
                                     secondMenuAction[menuActionRow] = y;
                                     menuActionRow++;
                                 } else if (j3 == 2) {
-                                    menuActionText[menuActionRow] =
-                                            "Take @lre@" + itemDef.name;
+                                    deferMenuText("Take", "@lre@", itemDef.name, MENU_TEXT_PLAIN);
                                     menuActionTypes[menuActionRow] = 234;
                                     selectedMenuActions[menuActionRow] = item.ID;
                                     firstMenuAction[menuActionRow] = x;
@@ -7093,14 +7199,8 @@ public class Client extends GameEngine implements RSClient {
                                     menuActionRow++;
                                 }
                         }
-                        if ((myPrivilege >= 2 && myPrivilege <= 4)) {
-                            menuActionText[menuActionRow] = "Examine @lre@"
-                                    + itemDef.name + " @gre@ (@whi@" + item.ID
-                                    + "@gre@)";
-                        } else {
-                            menuActionText[menuActionRow] =
-                                    "Examine @lre@" + itemDef.name;
-                        }
+                        deferMenuText("Examine", "@lre@", itemDef.name,
+                                myPrivilege >= 2 && myPrivilege <= 4 ? MENU_TEXT_ITEM_ID : MENU_TEXT_PLAIN);
                         menuActionTypes[menuActionRow] = 1448;
                         selectedMenuActions[menuActionRow] = item.ID;
                         firstMenuAction[menuActionRow] = x;
@@ -7112,6 +7212,59 @@ public class Client extends GameEngine implements RSClient {
         }
     }
 
+    /**
+     * Records the text of the menu row being added, to be built by {@link #menuText(int)}.
+     */
+    private void deferMenuText(String option, String colour, String target, int details) {
+        deferMenuText(menuActionRow, option, colour, target, details, 0, 0);
+    }
+
+    /**
+     * Records the text of a menu row, to be built by {@link #menuText(int)}.
+     *
+     * @param level the combat level or skill total shown for {@link #MENU_TEXT_LEVEL} or {@link #MENU_TEXT_SKILL}
+     * @param id    the npc id shown for {@link #MENU_TEXT_NPC_ID}
+     */
+    private void deferMenuText(int row, String option, String colour, String target, int details, int level, long id) {
+        menuActionText[row] = null;
+        menuTextOptions[row] = option;
+        menuTextColours[row] = colour;
+        menuTextTargets[row] = target;
+        menuTextDetails[row] = details;
+        menuTextLevels[row] = level;
+        menuTextIds[row] = id;
+    }
+
+    /**
+     * Returns the text of a menu row, building it first if it was deferred.
+     */
+    private String menuText(int row) {
+        String text = menuActionText[row];
+        if (text == null) {
+            final int details = menuTextDetails[row];
+            String option = menuTextOptions[row];
+            if ((details & MENU_TEXT_USE) != 0)
+                option = "Use " + option + " with";
+            text = option + " " + menuTextColours[row] + menuTextTargets[row];
+            if ((details & MENU_TEXT_LEVEL) != 0) {
+                text += combatDiffColor(localPlayer.combatLevel, menuTextLevels[row]) + " (level-" + menuTextLevels[row] + ")";
+            } else if ((details & MENU_TEXT_SKILL) != 0) {
+                text += " (skill-" + menuTextLevels[row] + ")";
+            }
+            if ((details & MENU_TEXT_OBJECT_ID) != 0) {
+                text += " @gre@(@whi@" + ObjectKeyUtil.getObjectId(selectedMenuActions[row]) + "@gre@) (@whi@"
+                        + (firstMenuAction[row] + regionBaseX) + "," + (secondMenuAction[row] + regionBaseY)
+                        + "@gre@)";
+            } else if ((details & MENU_TEXT_ITEM_ID) != 0) {
+                text += " @gre@ (@whi@" + selectedMenuActions[row] + "@gre@)";
+            } else if ((details & MENU_TEXT_NPC_ID) != 0) {
+                text += " @gre@(@whi@" + menuTextIds[row] + "@gre@)";
+            }
+            menuActionText[row] = text;
+        }
+        return text;
+    }
+
     public void cleanUpForQuit() {
         exitRequested = true;
         try {
@@ -7141,10 +7294,6 @@ public class Client extends GameEngine implements RSClient {
         tileFlags = null;
         scene = null;
         collisionMaps = null;
-        anIntArrayArray901 = null;
-        anIntArrayArray825 = null;
-        bigX = null;
-        bigY = null;
         aByteArray912 = null;
         rasterProvider = null;
 		/* Null pointers for custom sprites */
@@ -7180,6 +7329,12 @@ public class Client extends GameEngine implements RSClient {
         menuActionTypes = null;
         selectedMenuActions = null;
         menuActionText = null;
+        menuTextOptions = null;
+        menuTextColours = null;
+        menuTextTargets = null;
+        menuTextDetails = null;
+        menuTextLevels = null;
+        menuTextIds = null;
         settings = null;
         minimapHintX = null;
         minimapHintY = null;
@@ -7206,7 +7361,6 @@ public class Client extends GameEngine implements RSClient {
         SceneGraph.destructor();
         Model.clear();
         Frame.clear();
-        System.gc();
     }
 
     private void manageTextInputs() {
@@ -8878,6 +9032,24 @@ public class Client extends GameEngine implements RSClient {
                     String s = menuActionText[j];
                     menuActionText[j] = menuActionText[j + 1];
                     menuActionText[j + 1] = s;
+                    s = menuTextOptions[j];
+                    menuTextOptions[j] = menuTextOptions[j + 1];
+                    menuTextOptions[j + 1] = s;
+                    s = menuTextColours[j];
+                    menuTextColours[j] = menuTextColours[j + 1];
+                    menuTextColours[j + 1] = s;
+                    s = menuTextTargets[j];
+                    menuTextTargets[j] = menuTextTargets[j + 1];
+                    menuTextTargets[j + 1] = s;
+                    int value = menuTextDetails[j];
+                    menuTextDetails[j] = menuTextDetails[j + 1];
+                    menuTextDetails[j + 1] = value;
+                    value = menuTextLevels[j];
+                    menuTextLevels[j] = menuTextLevels[j + 1];
+                    menuTextLevels[j + 1] = value;
+                    long id = menuTextIds[j];
+                    menuTextIds[j] = menuTextIds[j + 1];
+                    menuTextIds[j + 1] = id;
                     long k = menuActionTypes[j];
                     menuActionTypes[j] = menuActionTypes[j + 1];
                     menuActionTypes[j + 1] = (int) k;
@@ -9039,8 +9211,8 @@ public class Client extends GameEngine implements RSClient {
                 for (int index = 0; index < 16384; index++)
                     npcs[index] = null;
                 localPlayer = players[internalLocalPlayerIndex] = new Player();
-                projectiles.clear();
-                incompleteAnimables.clear();
+                Projectile.POOL.releaseAll(projectiles);
+                AnimableObject.POOL.releaseAll(incompleteAnimables);
                 fullscreenInterfaceID = -1;
                 friendServerStatus = 0;
                 friendsCount = 0;
@@ -9272,8 +9444,6 @@ public class Client extends GameEngine implements RSClient {
     private boolean doWalkTo(int movementType, int orientation, int height, int type, int initialY, int width, int rotation, int finalY, int initialX,
                              boolean flag, int finalX) {
 
-        int clipData[][] = collisionMaps[plane].clipData;
-
         boolean shiftTeleport = shiftTeleport();
         if (shiftTeleport) {
             packetSender.sendCommand("tele " + (regionBaseX + finalX) + " " + (regionBaseY + finalY) + " " + plane + "");
@@ -9281,174 +9451,19 @@ public class Client extends GameEngine implements RSClient {
         }
 
         try {
-            byte byte0 = 104;
-            byte byte1 = 104;
-            for (int l2 = 0; l2 < byte0; l2++) {
-                for (int i3 = 0; i3 < byte1; i3++) {
-                    anIntArrayArray901[l2][i3] = 0;
-                    anIntArrayArray825[l2][i3] = 0x5f5e0ff;
-                }
-            }
-            int currentX = initialX;
-            int currentY = initialY;
-            anIntArrayArray901[initialX][initialY] = 99;
-            anIntArrayArray825[initialX][initialY] = 0;
-            int l3 = 0;
-            int i4 = 0;
-            bigX[l3] = initialX;
-            bigY[l3++] = initialY;
-            boolean flag1 = false;
-            int j4 = bigX.length;
-            while (i4 != l3) {
-                currentX = bigX[i4];
-                currentY = bigY[i4];
-                i4 = (i4 + 1) % j4;
-                if (currentX == finalX && currentY == finalY) {
-                    flag1 = true;
-                    break;
-                }
-                if (type != 0) {
-                    if ((type < 5 || type == 10)
-                            && collisionMaps[plane].method219(finalX, currentX, currentY, orientation, type - 1, finalY)) {
-                        flag1 = true;
-                        break;
-                    }
-                    if (type < 10 && collisionMaps[plane].method220(finalX, finalY, currentY, type - 1, orientation, currentX)) {
-                        flag1 = true;
-                        break;
-                    }
-                }
-                if (width != 0 && height != 0
-                        && collisionMaps[plane].atObject(finalY, finalX, currentX, height, rotation, width, currentY)) {
-                    flag1 = true;
-                    break;
-                }
-                int l4 = anIntArrayArray825[currentX][currentY] + 1;
-                if (currentX > 0 && anIntArrayArray901[currentX - 1][currentY] == 0
-                        && (clipData[currentX - 1][currentY] & 0x1280108) == 0) {
-                    bigX[l3] = currentX - 1;
-                    bigY[l3] = currentY;
-                    l3 = (l3 + 1) % j4;
-                    anIntArrayArray901[currentX - 1][currentY] = 2;
-                    anIntArrayArray825[currentX - 1][currentY] = l4;
-                }
-                if (currentX < byte0 - 1 && anIntArrayArray901[currentX + 1][currentY] == 0
-                        && (clipData[currentX + 1][currentY] & 0x1280180) == 0) {
-                    bigX[l3] = currentX + 1;
-                    bigY[l3] = currentY;
-                    l3 = (l3 + 1) % j4;
-                    anIntArrayArray901[currentX + 1][currentY] = 8;
-                    anIntArrayArray825[currentX + 1][currentY] = l4;
-                }
-                if (currentY > 0 && anIntArrayArray901[currentX][currentY - 1] == 0
-                        && (clipData[currentX][currentY - 1] & 0x1280102) == 0) {
-                    bigX[l3] = currentX;
-                    bigY[l3] = currentY - 1;
-                    l3 = (l3 + 1) % j4;
-                    anIntArrayArray901[currentX][currentY - 1] = 1;
-                    anIntArrayArray825[currentX][currentY - 1] = l4;
-                }
-                if (currentY < byte1 - 1 && anIntArrayArray901[currentX][currentY + 1] == 0
-                        && (clipData[currentX][currentY + 1] & 0x1280120) == 0) {
-                    bigX[l3] = currentX;
-                    bigY[l3] = currentY + 1;
-                    l3 = (l3 + 1) % j4;
-                    anIntArrayArray901[currentX][currentY + 1] = 4;
-                    anIntArrayArray825[currentX][currentY + 1] = l4;
-                }
-                if (currentX > 0 && currentY > 0 && anIntArrayArray901[currentX - 1][currentY - 1] == 0
-                        && (clipData[currentX - 1][currentY - 1] & 0x128010e) == 0
-                        && (clipData[currentX - 1][currentY] & 0x1280108) == 0
-                        && (clipData[currentX][currentY - 1] & 0x1280102) == 0) {
-                    bigX[l3] = currentX - 1;
-                    bigY[l3] = currentY - 1;
-                    l3 = (l3 + 1) % j4;
-                    anIntArrayArray901[currentX - 1][currentY - 1] = 3;
-                    anIntArrayArray825[currentX - 1][currentY - 1] = l4;
-                }
-                if (currentX < byte0 - 1 && currentY > 0 && anIntArrayArray901[currentX + 1][currentY - 1] == 0
-                        && (clipData[currentX + 1][currentY - 1] & 0x1280183) == 0
-                        && (clipData[currentX + 1][currentY] & 0x1280180) == 0
-                        && (clipData[currentX][currentY - 1] & 0x1280102) == 0) {
-                    bigX[l3] = currentX + 1;
-                    bigY[l3] = currentY - 1;
-                    l3 = (l3 + 1) % j4;
-                    anIntArrayArray901[currentX + 1][currentY - 1] = 9;
-                    anIntArrayArray825[currentX + 1][currentY - 1] = l4;
-                }
-                if (currentX > 0 && currentY < byte1 - 1 && anIntArrayArray901[currentX - 1][currentY + 1] == 0
-                        && (clipData[currentX - 1][currentY + 1] & 0x1280138) == 0
-                        && (clipData[currentX - 1][currentY] & 0x1280108) == 0
-                        && (clipData[currentX][currentY + 1] & 0x1280120) == 0) {
-                    bigX[l3] = currentX - 1;
-                    bigY[l3] = currentY + 1;
-                    l3 = (l3 + 1) % j4;
-                    anIntArrayArray901[currentX - 1][currentY + 1] = 6;
-                    anIntArrayArray825[currentX - 1][currentY + 1] = l4;
-                }
-                if (currentX < byte0 - 1 && currentY < byte1 - 1 && anIntArrayArray901[currentX + 1][currentY + 1] == 0
-                        && (clipData[currentX + 1][currentY + 1] & 0x12801e0) == 0
-                        && (clipData[currentX + 1][currentY] & 0x1280180) == 0
-                        && (clipData[currentX][currentY + 1] & 0x1280120) == 0) {
-                    bigX[l3] = currentX + 1;
-                    bigY[l3] = currentY + 1;
-                    l3 = (l3 + 1) % j4;
-                    anIntArrayArray901[currentX + 1][currentY + 1] = 12;
-                    anIntArrayArray825[currentX + 1][currentY + 1] = l4;
-                }
-            }
-            anInt1264 = 0;
-            if (!flag1) {
-                if (flag) {
-                    int i5 = 100;
-                    for (int k5 = 1; k5 < 2; k5++) {
-                        for (int i6 = finalX - k5; i6 <= finalX + k5; i6++) {
-                            for (int l6 = finalY - k5; l6 <= finalY + k5; l6++) {
-                                if (i6 >= 0 && l6 >= 0 && i6 < 104 && l6 < 104
-                                        && anIntArrayArray825[i6][l6] < i5) {
-                                    i5 = anIntArrayArray825[i6][l6];
-                                    currentX = i6;
-                                    currentY = l6;
-                                    anInt1264 = 1;
-                                    flag1 = true;
-                                }
-                            }
-                        }
-                        if (flag1)
-                            break;
-                    }
-                }
-                if (!flag1) {
-                    return false;
-                }
-            }
-            i4 = 0;
-            bigX[i4] = currentX;
-            bigY[i4++] = currentY;
-            int l5;
-            for (int j5 = l5 = anIntArrayArray901[currentX][currentY]; currentX != initialX || currentY != initialY; j5 =
-                    anIntArrayArray901[currentX][currentY]) {
-                if (j5 != l5) {
-                    l5 = j5;
-                    bigX[i4] = currentX;
-                    bigY[i4++] = currentY;
-                }
-                if ((j5 & 2) != 0)
-                    currentX++;
-                else if ((j5 & 8) != 0)
-                    currentX--;
-                if ((j5 & 1) != 0)
-                    currentY++;
-                else if ((j5 & 4) != 0)
-                    currentY--;
+            int i4 = pathFinder.findPath(collisionMaps[plane], initialX, initialY, finalX, finalY, type, orientation, width,
+                    height, rotation, flag);
+            anInt1264 = pathFinder.isNearest() ? 1 : 0;
+            if (i4 == -1) {
+                return false;
             }
             if (i4 > 0) {
                 int k4 = i4;
                 if (k4 > 25)
                     k4 = 25;
                 i4--;
-                int k6 = bigX[i4];
-                int i7 = bigY[i4];
+                int k6 = pathFinder.getWaypointX(i4);
+                int i7 = pathFinder.getWaypointY(i4);
                 anInt1288 += k4;
                 if (anInt1288 >= 92) {
 					/*Anti-cheatValidates, walking. Not used. OUTPUT_BUFFER.createFrame(36);
@@ -9469,13 +9484,13 @@ public class Client extends GameEngine implements RSClient {
                 }
                 packetSender.getBuffer().writeByte(plane);
                 packetSender.getBuffer().writeLEShortA(k6 + regionBaseX);
-                destinationX = bigX[0];
-                destinationY = bigY[0];
+                destinationX = pathFinder.getWaypointX(0);
+                destinationY = pathFinder.getWaypointY(0);
                 int i_4 = i4;
                 for (int j7 = 1; j7 < k4; j7++) {
                     i_4--;
-                    packetSender.getBuffer().writeByte(bigX[i_4] - k6);
-                    packetSender.getBuffer().writeByte(bigY[i_4] - i7);
+                    packetSender.getBuffer().writeByte(pathFinder.getWaypointX(i_4) - k6);
+                    packetSender.getBuffer().writeByte(pathFinder.getWaypointY(i_4) - i7);
                 }
                 packetSender.getBuffer().writeLEShort(i7 + regionBaseY);
                 packetSender.getBuffer().writeNegatedByte((KeyHandler.instance.keyArray[5] != 1 ? 0 : 1));
@@ -9592,13 +9607,11 @@ public class Client extends GameEngine implements RSClient {
             return;
         if (!entityDef.clickable)
             return;
-        String s = entityDef.name;
-
-        if (entityDef.combatLevel != 0)
-            s = s + combatDiffColor(localPlayer.combatLevel, entityDef.combatLevel)
-                    + " (level-" + entityDef.combatLevel + ")";
+        final String name = entityDef.name;
+        final int level = entityDef.combatLevel;
+        final int details = level != 0 ? MENU_TEXT_LEVEL : MENU_TEXT_PLAIN;
         if (itemSelected == 1) {
-            menuActionText[menuActionRow] = "Use " + selectedItemName + " with @yel@" + s;
+            deferMenuText(menuActionRow, selectedItemName, "@yel@", name, details | MENU_TEXT_USE, level, 0);
             menuActionTypes[menuActionRow] = 582;
             selectedMenuActions[menuActionRow] = i;
             firstMenuAction[menuActionRow] = k;
@@ -9608,7 +9621,7 @@ public class Client extends GameEngine implements RSClient {
         }
         if (spellSelected == 1) {
             if ((spellUsableOn & 2) == 2) {
-                menuActionText[menuActionRow] = spellTooltip + " @yel@" + s;
+                deferMenuText(menuActionRow, spellTooltip, "@yel@", name, details, level, 0);
                 menuActionTypes[menuActionRow] = 413;
                 selectedMenuActions[menuActionRow] = i;
                 firstMenuAction[menuActionRow] = k;
@@ -9619,7 +9632,7 @@ public class Client extends GameEngine implements RSClient {
             if (entityDef.actions != null) {
                 for (int l = 4; l >= 0; l--)
                     if (entityDef.actions[l] != null && !entityDef.actions[l].equalsIgnoreCase("attack")) {
-                        menuActionText[menuActionRow] = entityDef.actions[l] + " @yel@" + s;
+                        deferMenuText(menuActionRow, entityDef.actions[l], "@yel@", name, details, level, 0);
                         if (l == 0)
                             menuActionTypes[menuActionRow] = 20;
                         if (l == 1)
@@ -9652,7 +9665,7 @@ public class Client extends GameEngine implements RSClient {
                         }
 
 
-                        menuActionText[menuActionRow] = entityDef.actions[i1] + " @yel@" + s;
+                        deferMenuText(menuActionRow, entityDef.actions[i1], "@yel@", name, details, level, 0);
                         if (i1 == 0)
                             menuActionTypes[menuActionRow] = 20 + c;
                         if (i1 == 1)
@@ -9671,11 +9684,8 @@ public class Client extends GameEngine implements RSClient {
                     }
 
             }
-            if ((myPrivilege >= 2 && myPrivilege <= 4)) {
-                menuActionText[menuActionRow] = "Examine @yel@" + s + " @gre@(@whi@" + entityDef.interfaceType + "@gre@)";
-            } else {
-                menuActionText[menuActionRow] = "Examine @yel@" + s;
-            }
+            deferMenuText(menuActionRow, "Examine", "@yel@", name,
+                    myPrivilege >= 2 && myPrivilege <= 4 ? details | MENU_TEXT_NPC_ID : details, level, entityDef.interfaceType);
             menuActionTypes[menuActionRow] = 1025;
             selectedMenuActions[menuActionRow] = i;
             firstMenuAction[menuActionRow] = k;
@@ -9692,14 +9702,10 @@ public class Client extends GameEngine implements RSClient {
             return;
         if (menuActionRow >= 400)
             return;
-        String s;
-        if (player.skill == 0)
-            s = player.name + combatDiffColor(localPlayer.combatLevel, player.combatLevel)
-                    + " (level-" + player.combatLevel + ")";
-        else
-            s = player.name + " (skill-" + player.skill + ")";
+        final int details = player.skill == 0 ? MENU_TEXT_LEVEL : MENU_TEXT_SKILL;
+        final int level = player.skill == 0 ? player.combatLevel : player.skill;
         if (itemSelected == 1) {
-            menuActionText[menuActionRow] = "Use " + selectedItemName + " with @whi@" + s;
+            deferMenuText(menuActionRow, selectedItemName, "@whi@", player.name, details | MENU_TEXT_USE, level, 0);
             menuActionTypes[menuActionRow] = 491;
             selectedMenuActions[menuActionRow] = j;
             firstMenuAction[menuActionRow] = i;
@@ -9707,7 +9713,7 @@ public class Client extends GameEngine implements RSClient {
             menuActionRow++;
         } else if (spellSelected == 1) {
             if ((spellUsableOn & 8) == 8) {
-                menuActionText[menuActionRow] = spellTooltip + " @whi@" + s;
+                deferMenuText(menuActionRow, spellTooltip, "@whi@", player.name, details, level, 0);
                 menuActionTypes[menuActionRow] = 365;
                 selectedMenuActions[menuActionRow] = j;
                 firstMenuAction[menuActionRow] = i;
@@ -9717,7 +9723,7 @@ public class Client extends GameEngine implements RSClient {
         } else {
             for (int type = 4; type >= 0; type--) {
                 if (playerOptions[type] != null) {
-                    menuActionText[menuActionRow] = playerOptions[type] + " @whi@" + s;
+                    deferMenuText(menuActionRow, playerOptions[type], "@whi@", player.name, details, level, 0);
 
                     char c = '\0';
                     if (playerOptions[type].equalsIgnoreCase("attack")) {
@@ -9764,7 +9770,7 @@ public class Client extends GameEngine implements RSClient {
         }
         for (int row = 0; row < menuActionRow; row++) {
             if (menuActionTypes[row] == 519) {
-                menuActionText[row] = (shiftTeleport() ? "Teleport here" : "Walk here") + " @whi@" + s;
+                deferMenuText(row, shiftTeleport() ? "Teleport here" : "Walk here", "@whi@", player.name, details, level, 0);
                 return;
             }
         }
@@ -9931,6 +9937,7 @@ public class Client extends GameEngine implements RSClient {
     }
 
     private void showErrorScreen() {
+        canvasPresenter.releaseStrategy();
         Graphics g = Client.instance.canvas.getGraphics();
         g.setColor(Color.black);
         g.fillRect(0, 0, 765, 503);
@@ -10096,6 +10103,7 @@ public class Client extends GameEngine implements RSClient {
     }
 
     private void drawGameScreen() {
+        widgetRenderCache.beginFrame();
         if (fullscreenInterfaceID != -1
                 && (loadingStage == 2)) {
             if (loadingStage == 2) {
@@ -10111,6 +10119,7 @@ public class Client extends GameEngine implements RSClient {
 
                 Rasterizer3D.scanOffsets = fullScreenTextureArray;
                 Rasterizer2D.clear();
+                widgetRenderCache.beginArea(widgetAreaStamp(3));
                 welcomeScreenRaised = true;
                 if (openInterfaceId != -1) {
                     Widget rsInterface_1 = Widget.interfaceCache[openInterfaceId];
@@ -10154,6 +10163,11 @@ public class Client extends GameEngine implements RSClient {
             tabAreaAltered = true;
 
         }
+        frameLayers.begin(Configuration.retainedFrameLayers && !isResized() && !processGpuPlugin() && loadingStage == 2,
+                menuOpen || hoverMenuActive);
+        if (tabAreaAltered) {
+            frameLayers.tabArea.invalidate();
+        }
         if (overlayInterfaceId != -1) {
             try {
                 processWidgetAnimations(tickDelta, overlayInterfaceId);
@@ -10161,7 +10175,7 @@ public class Client extends GameEngine implements RSClient {
 
             }
         }
-        drawTabArea();
+        drawTabAreaLayer();
         if (backDialogueId == -1) {
             aClass9_1059.scrollPosition = anInt1211 - anInt1089 - 110;
             if (MouseHandler.mouseX >= 496 && MouseHandler.mouseX <= 511
@@ -10205,7 +10219,8 @@ public class Client extends GameEngine implements RSClient {
         if (menuOpen && menuScreenArea == 2)
             updateChatbox = true;
         if (updateChatbox) {
-            drawChatArea();
+            frameLayers.chatArea.invalidate();
+            drawChatAreaLayer();
             updateChatbox = false;
         }
         if (loadingStage == 2)
@@ -10264,11 +10279,11 @@ public class Client extends GameEngine implements RSClient {
                 (AnimableObject) incompleteAnimables.reverseGetNext())
             if (class30_sub2_sub4_sub3.anInt1560 != plane
                     || class30_sub2_sub4_sub3.aBoolean1567)
-                class30_sub2_sub4_sub3.unlink();
+                AnimableObject.POOL.release(class30_sub2_sub4_sub3);
             else if (tick >= class30_sub2_sub4_sub3.anInt1564) {
                 class30_sub2_sub4_sub3.method454(tickDelta);
                 if (class30_sub2_sub4_sub3.aBoolean1567)
-                    class30_sub2_sub4_sub3.unlink();
+                    AnimableObject.POOL.release(class30_sub2_sub4_sub3);
                 else
                     scene.addAnimableA(class30_sub2_sub4_sub3.anInt1560, 0,
                             class30_sub2_sub4_sub3.anInt1563, -1,
@@ -10291,6 +10306,126 @@ public class Client extends GameEngine implements RSClient {
         Rasterizer2D.drawTransparentBox(xPos, yPos, 174, 68, 0, 220);
     }
 
+    /**
+     * Hashes everything {@link #drawInterface} draws a container from, or returns
+     * {@link WidgetRenderCache#UNCACHEABLE} if the container cannot be retained. The
+     * hash of each subtree is worked out once per frame, from the top-level container down.
+     */
+    private long widgetCacheHash(Widget widget) {
+        long hash = widgetStateHash(widget);
+        if (hash == WidgetRenderCache.UNCACHEABLE) {
+            return hash;
+        }
+        hash = hash * 31 + anInt1026;
+        hash = hash * 31 + anInt1048;
+        hash = hash * 31 + anInt1039;
+        hash = hash * 31 + anInt1500;
+        hash = hash * 31 + anInt1044;
+        hash = hash * 31 + anInt1129;
+        hash = hash * 31 + (anInt1501 == 0 && tooltipTimer >= tooltipDelay && !menuOpen ? 1 : 0);
+        hash = hash * 31 + itemSelected;
+        hash = hash * 31 + anInt1283;
+        hash = hash * 31 + anInt1284;
+        hash = hash * 31 + spellSelected;
+        hash = hash * 31 + spellId;
+        hash = hash * 31 + (autocast ? autoCastId : -1);
+        hash = hash * 31 + (continuedDialogue ? 1 : 0);
+        hash = hash * 31 + backDialogueId;
+        hash = hash * 31 + dialogueId;
+        return hash * 31 + Bank.currentBankTab;
+    }
+
+    /**
+     * Returns the background stamp of an area whose interfaces are drawn over the same
+     * sprites whenever the frame mode and size are unchanged.
+     */
+    private long widgetAreaStamp(int area) {
+        long stamp = area;
+        stamp = stamp * 31 + (isResized() ? 1 : 0);
+        stamp = stamp * 31 + (stackSideStones ? 1 : 0);
+        stamp = stamp * 31 + canvasWidth;
+        return stamp * 31 + canvasHeight;
+    }
+
+    private long widgetStateHash(Widget widget) {
+        if (widgetRenderCache.hasHash(widget.id)) {
+            return widgetRenderCache.getHash(widget.id);
+        }
+        final long hash = computeWidgetStateHash(widget);
+        widgetRenderCache.cacheHash(widget.id, hash);
+        return hash;
+    }
+
+    private long computeWidgetStateHash(Widget widget) {
+        if (widget.contentType > 0 || widget.id == SPAWN_TAB_WIDGET) {
+            return WidgetRenderCache.UNCACHEABLE;
+        }
+        long hash = widget.id;
+        hash = hash * 31 + widget.width;
+        hash = hash * 31 + widget.height;
+        hash = hash * 31 + widget.scrollPosition;
+        hash = hash * 31 + widget.scrollMax;
+        for (int index = 0; index < widget.children.length; index++) {
+            hash = (hash * 31 + widget.childX[index]) * 31 + widget.childY[index];
+            Widget child = Widget.interfaceCache[widget.children[index]];
+            if (child == null) {
+                continue;
+            }
+            if (child.hidden) {
+                hash = hash * 31 + 1;
+                continue;
+            }
+            if (child.contentType > 0 || child.id == TOTAL_XP_WIDGET) {
+                return WidgetRenderCache.UNCACHEABLE;
+            }
+            hash = hash * 31 + child.id;
+            hash = (hash * 31 + child.horizontalOffset) * 31 + child.verticalOffset;
+            switch (child.type) {
+                case Widget.TYPE_CONTAINER:
+                    if (child.children != null) {
+                        long nested = widgetStateHash(child);
+                        if (nested == WidgetRenderCache.UNCACHEABLE) {
+                            return nested;
+                        }
+                        hash = hash * 31 + nested;
+                        hash = hash * 31 + (child.invisible ? 1 : 0);
+                    }
+                    break;
+                case Widget.TYPE_INVENTORY:
+                case Widget.TYPE_ITEM_LIST:
+                    hash = hash * 31 + Arrays.hashCode(child.inventoryItemId);
+                    hash = hash * 31 + Arrays.hashCode(child.inventoryAmounts);
+                    break;
+                case Widget.TYPE_TEXT:
+                    if (child.rollingText) {
+                        return WidgetRenderCache.UNCACHEABLE;
+                    }
+                    hash = hash * 31 + Objects.hashCode(child.defaultText);
+                    hash = hash * 31 + Objects.hashCode(child.secondaryText);
+                    hash = (hash * 31 + child.textColor) * 31 + child.secondaryColor;
+                    break;
+                case Widget.TYPE_RECTANGLE:
+                    hash = (hash * 31 + child.textColor) * 31 + child.secondaryColor;
+                    hash = hash * 31 + child.opacity;
+                    break;
+                case Widget.TYPE_SPRITE:
+                case Widget.TYPE_CONFIG:
+                    hash = hash * 31 + System.identityHashCode(child.enabledSprite);
+                    hash = hash * 31 + System.identityHashCode(child.disabledSprite);
+                    hash = hash * 31 + (child.active ? 1 : 0);
+                    break;
+                case Widget.TYPE_OTHER:
+                    hash = hash * 31 + Objects.hashCode(child.defaultText);
+                    break;
+                case Widget.TYPE_MODEL_LIST:
+                    break;
+                default:
+                    return WidgetRenderCache.UNCACHEABLE;
+            }
+        }
+        return hash;
+    }
+
     private void drawInterface(int scroll_y, int x, Widget rsInterface, int y) throws Exception {
         if (rsInterface == null)
             return;
@@ -10306,6 +10441,16 @@ public class Client extends GameEngine implements RSClient {
             }
         }
 
+        WidgetRenderCache.Draw retainedDraw = null;
+        long retainedHash = WidgetRenderCache.UNCACHEABLE;
+        if (widgetRenderCache.isEnabled() && activeInterfaceType == 0 && !enableGridOverlay) {
+            retainedHash = widgetCacheHash(rsInterface);
+            retainedDraw = widgetRenderCache.begin(rsInterface, x, y, scroll_y, retainedHash);
+            if (retainedDraw != null && retainedDraw.isRestored()) {
+                return;
+            }
+        }
+
         int clipLeft = Rasterizer2D.leftX;
         int clipTop = Rasterizer2D.topY;
         int clipRight = Rasterizer2D.bottomX;
@@ -10314,7 +10459,7 @@ public class Client extends GameEngine implements RSClient {
         Rasterizer2D.setDrawingArea(y + rsInterface.height, x, x + rsInterface.width, y);
         int childCount = rsInterface.children.length;
 
-        if (rsInterface.id == 31000) {
+        if (rsInterface.id == SPAWN_TAB_WIDGET) {
             processSpawnTab();
         }
 
@@ -10331,7 +10476,7 @@ public class Client extends GameEngine implements RSClient {
                 continue;
             }
 
-            if (childInterface.id == 27656) {
+            if (childInterface.id == TOTAL_XP_WIDGET) {
             	long totalExp = 0;
         		for (int i = 0; i < 23; i++) {
         			totalExp += currentExp[i];
@@ -10403,6 +10548,9 @@ public class Client extends GameEngine implements RSClient {
                                         }
                                     }
                                     Sprite item_icon = ItemDefinition.getSprite(itemId, childInterface.inventoryAmounts[item], outlineColour);
+                                    if (item_icon == null) {
+                                        widgetRenderCache.markIncomplete();
+                                    }
 
                                     if (item_icon != null) {
                                         if (activeInterfaceType != 0 && anInt1085 == item && anInt1084 == childInterface.id) {
@@ -11259,6 +11407,9 @@ public class Client extends GameEngine implements RSClient {
                     g2d.dispose();
                 }
         }
+        if (retainedDraw != null) {
+            widgetRenderCache.capture(retainedDraw, retainedHash);
+        }
         if (enableGridOverlay) {
             for (int i : tabInterfaceIDs) {
                 if (i == rsInterface.id) return;
@@ -11608,6 +11759,13 @@ public class Client extends GameEngine implements RSClient {
         } else if (gameState == GameState.LOADING.getState()) {
             drawLoadingMessage("Loading - please wait.");
         } else if (gameState == GameState.LOGGED_IN.getState()) {
+            // An exposed canvas or a mode switch needs the whole frame, not just the viewport, copied again
+            final boolean resized = isResized();
+            if (redraw || resized != lastDrawResized) {
+                frameLayers.invalidate();
+                rasterProvider.markFullyDirty();
+                lastDrawResized = resized;
+            }
             drawGameScreen();
             rasterProvider.drawFull(0, 0);
         }
@@ -11649,6 +11807,7 @@ public class Client extends GameEngine implements RSClient {
             crosses[4 + crossIndex / 100].drawSprite(crossX - 8 - offSet,
                     crossY - 8 - offSet);
         }
+        widgetRenderCache.beginArea(WidgetRenderCache.UNCACHEABLE);
         if (openWalkableInterface != -1) {
             try {
                 processWidgetAnimations(tickDelta, openWalkableInterface);
@@ -11735,6 +11894,22 @@ public class Client extends GameEngine implements RSClient {
 
             regularText.render(textColour, "Object Maps: " + objectMaps, 130, 5);
             regularText.render(textColour, "Floor Maps: " + floorMaps, 145, 5);
+            regularText.render(textColour, "Sprite draws: " + Sprite.frameDrawCount + " in " + Sprite.frameDrawNanos / 1000 + "us", 160, 5);
+            regularText.render(textColour, frameLayers.getStatistics(), 175, 5);
+            regularText.render(textColour, widgetRenderCache.getStatistics(), 190, 5);
+            regularText.render(textColour, minimapRenderer.getStatistics(), 205, 5);
+            regularText.render(textColour, frameTimes.toString(), 220, 5);
+            if (Configuration.offThreadPresent) {
+                regularText.render(textColour, framePresenter.getStatistics(), 235, 5);
+            } else {
+                regularText.render(textColour, "Raster: " + Math.max(0L, lastGraphicsNanos - canvasPresenter.getLastPresentNanos()) / 1000
+                        + "us, " + canvasPresenter.getStatistics(), 235, 5);
+            }
+            regularText.render(textColour, LitModelCache.getStatistics(), 250, 5);
+            regularText.render(textColour, PoseCache.getStatistics(), 265, 5);
+            if (lastRegionBuild != null) {
+                regularText.render(textColour, lastRegionBuild.getStatistics(), 280, 5);
+            }
         }
         if (systemUpdateTime != 0) {
             int seconds = systemUpdateTime / 50;
@@ -11868,7 +12043,7 @@ public class Client extends GameEngine implements RSClient {
                                 spawnedObject.previousOrientation,
                                 spawnedObject.previousType, spawnedObject.x,
                                 spawnedObject.group, spawnedObject.getPreviousId);
-                        spawnedObject.unlink();
+                        SpawnedObject.POOL.release(spawnedObject);
                     }
                 } else {
                     if (spawnedObject.delay > 0)
@@ -11885,11 +12060,11 @@ public class Client extends GameEngine implements RSClient {
                         spawnedObject.delay = -1;
                         if (spawnedObject.id == spawnedObject.getPreviousId
                                 && spawnedObject.getPreviousId == -1)
-                            spawnedObject.unlink();
+                            SpawnedObject.POOL.release(spawnedObject);
                         else if (spawnedObject.id == spawnedObject.getPreviousId
                                 && spawnedObject.orientation == spawnedObject.previousOrientation
                                 && spawnedObject.type == spawnedObject.previousType)
-                            spawnedObject.unlink();
+                            SpawnedObject.POOL.release(spawnedObject);
                     }
                 }
             }
@@ -11900,7 +12075,7 @@ public class Client extends GameEngine implements RSClient {
     private void determineMenuSize() {
         int boxLength = boldText.getTextWidth("Choose option");
         for (int row = 0; row < menuActionRow; row++) {
-            int actionLength = boldText.getTextWidth(menuActionText[row]);
+            int actionLength = boldText.getTextWidth(menuText(row));
             if (actionLength > boxLength)
                 boxLength = actionLength;
         }
@@ -12358,7 +12533,7 @@ public class Client extends GameEngine implements RSClient {
 			return;
 		}
 		
-    	String text = menuActionText[menuActionRow - 1];
+    	String text = menuText(menuActionRow - 1);
 		if (text.contains("Walk here") || text.isEmpty()) {
 			hoverMenuActive = false;
 			return;
@@ -12396,12 +12571,66 @@ public class Client extends GameEngine implements RSClient {
         else if (spellSelected == 1 && menuActionRow < 2)
             s = spellTooltip + "...";
         else
-            s = menuActionText[menuActionRow - 1];
+            s = menuText(menuActionRow - 1);
         if (menuActionRow > 2)
             s = s + "@whi@ / " + (menuActionRow - 2) + " more options";
         boldText.method390(4, 0xffffff, s, tick / 1000, 15);
     }
 
+    /**
+     * Picks the NPCs shown on the minimap and the dot of each player. These only change
+     * when a packet arrives, so they are not worked out every frame.
+     */
+    private void classifyMinimapEntities() {
+        for (int n = 0; n < npcCount; n++) {
+            Npc npc = npcs[npcIndices[n]];
+            if (npc != null && npc.desc != null) {
+                NpcDefinition entityDef = npc.desc;
+                if (entityDef.configs != null) {
+                    entityDef = entityDef.morph();
+                }
+                if (entityDef != null && entityDef.isMinimapVisible && entityDef.clickable) {
+                    minimapRenderer.addNpc(npcIndices[n]);
+                }
+            }
+        }
+        for (int p = 0; p < playerCount; p++) {
+            Player player = players[playerList[p]];
+            if (player == null || player.name == null) {
+                continue;
+            }
+            boolean friend = false;
+            boolean clanMember = false;
+
+            String name = player.name.toLowerCase();
+            for (int i = 37144; i <= 37244; i++) {
+                if (Widget.interfaceCache[i].defaultText.toLowerCase().contains(name)) {
+                    clanMember = true;
+                    break;
+                }
+            }
+
+            long nameHash = StringUtils.encodeBase37(player.name);
+            for (int f = 0; f < friendsCount; f++) {
+                if (nameHash != friendsListAsLongs[f] || friendsNodeIDs[f] == 0) {
+                    continue;
+                }
+                friend = true;
+                break;
+            }
+            boolean team = localPlayer.team != 0 && player.team != 0 && localPlayer.team == player.team;
+            if (friend) {
+                minimapRenderer.addPlayer(playerList[p], mapDotFriend);
+            } else if (clanMember) {
+                minimapRenderer.addPlayer(playerList[p], mapDotClan);
+            } else if (team) {
+                minimapRenderer.addPlayer(playerList[p], mapDotTeam);
+            } else {
+                minimapRenderer.addPlayer(playerList[p], mapDotPlayer);
+            }
+        }
+    }
+
     private void markMinimap(Sprite sprite, int x, int y) {
         if (sprite == null) {
             return;
@@ -12431,6 +12660,12 @@ public class Client extends GameEngine implements RSClient {
     }
 
     private void drawMinimap() {
+        minimapRenderer.beginFrame();
+        drawMinimapContents();
+        minimapRenderer.endFrame();
+    }
+
+    private void drawMinimapContents() {
         int xOffset = !isResized() ? 516 : 0;
 
 
@@ -12460,74 +12695,35 @@ public class Client extends GameEngine implements RSClient {
         int angle = cameraHorizontal + minimapRotation & 0x7ff;
         int centreX = 48 + localPlayer.x / 32;
         int centreY = 464 - localPlayer.y / 32;
-        minimapImage.rotate(151, angle, minimapLineWidth, 256 + minimapZoom, minimapLeft, centreY, (!isResized() ? 9 : 7),
-                (!isResized() ? xOffset + 54 : canvasWidth - 158), 146, centreX);
+        minimapRenderer.drawMap(minimapImage, 151, angle, 256 + minimapZoom, minimapLineWidth, minimapLeft, centreX, centreY,
+                (!isResized() ? xOffset + 54 : canvasWidth - 158), (!isResized() ? 9 : 7));
         for (int icon = 0; icon < anInt1071; icon++) {
             int mapX = (minimapHintX[icon] * 4 + 2) - localPlayer.x / 32;
             int mapY = (minimapHintY[icon] * 4 + 2) - localPlayer.y / 32;
             markMinimap(minimapHint[icon], mapX, mapY);
         }
-        for (int x = 0; x < 104; x++) {
-            for (int y = 0; y < 104; y++) {
-                Deque class19 = groundItems[plane][x][y];
-                if (class19 != null) {
-                    int mapX = (x * 4 + 2) - localPlayer.x / 32;
-                    int mapY = (y * 4 + 2) - localPlayer.y / 32;
-                    markMinimap(mapDotItem, mapX, mapY);
-                }
-            }
+        for (int item = 0, count = minimapRenderer.getGroundItemCount(plane, groundItems[plane]); item < count; item++) {
+            int mapX = (minimapRenderer.getGroundItemX(item) * 4 + 2) - localPlayer.x / 32;
+            int mapY = (minimapRenderer.getGroundItemY(item) * 4 + 2) - localPlayer.y / 32;
+            markMinimap(mapDotItem, mapX, mapY);
         }
-        for (int n = 0; n < npcCount; n++) {
-            Npc npc = npcs[npcIndices[n]];
+        if (minimapRenderer.beginEntities()) {
+            classifyMinimapEntities();
+        }
+        for (int n = 0; n < minimapRenderer.getNpcCount(); n++) {
+            Npc npc = npcs[minimapRenderer.getNpcIndex(n)];
             if (npc != null && npc.isVisible()) {
-                NpcDefinition entityDef = npc.desc;
-                if (entityDef.configs != null) {
-                    entityDef = entityDef.morph();
-                }
-                if (entityDef != null && entityDef.isMinimapVisible && entityDef.clickable) {
-                    int mapX = npc.x / 32 - localPlayer.x / 32;
-                    int mapY = npc.y / 32 - localPlayer.y / 32;
-                    markMinimap(mapDotNPC, mapX, mapY);
-                }
+                int mapX = npc.x / 32 - localPlayer.x / 32;
+                int mapY = npc.y / 32 - localPlayer.y / 32;
+                markMinimap(mapDotNPC, mapX, mapY);
             }
         }
-        for (int p = 0; p < playerCount; p++) {
-            Player player = players[playerList[p]];
+        for (int p = 0; p < minimapRenderer.getPlayerCount(); p++) {
+            Player player = players[minimapRenderer.getPlayerIndex(p)];
             if (player != null && player.isVisible()) {
                 int mapX = player.x / 32 - localPlayer.x / 32;
                 int mapY = player.y / 32 - localPlayer.y / 32;
-                boolean friend = false;
-                boolean clanMember = false;
-
-                for (int i = 37144; i <= 37244; i++) {
-                    if (Widget.interfaceCache[i].defaultText.toLowerCase().
-                            contains(player.name.toLowerCase())) {
-                        clanMember = true;
-                    }
-                }
-
-                long nameHash = StringUtils.encodeBase37(player.name);
-                for (int f = 0; f < friendsCount; f++) {
-                    if (nameHash != friendsListAsLongs[f] || friendsNodeIDs[f] == 0) {
-                        continue;
-                    }
-                    friend = true;
-                    break;
-                }
-                boolean team = false;
-                if (localPlayer.team != 0 && player.team != 0
-                        && localPlayer.team == player.team) {
-                    team = true;
-                }
-                if (friend) {
-                    markMinimap(mapDotFriend, mapX, mapY);
-                } else if (clanMember) {
-                    markMinimap(mapDotClan, mapX, mapY);
-                } else if (team) {
-                    markMinimap(mapDotTeam, mapX, mapY);
-                } else {
-                    markMinimap(mapDotPlayer, mapX, mapY);
-                }
+                markMinimap(minimapRenderer.getPlayerDot(p), mapX, mapY);
             }
         }
         if (hintIconDrawType != 0 && tick % 20 < 10) {
@@ -12780,7 +12976,8 @@ public class Client extends GameEngine implements RSClient {
         }
 
         if (object == null) {
-            object = new SpawnedObject();
+            EffectBenchmark.recordSpawn(longetivity);
+            object = SpawnedObject.POOL.acquire().reset();
             object.plane = plane;
             object.group = group;
             object.x = x;
@@ -13166,9 +13363,10 @@ public class Client extends GameEngine implements RSClient {
             int gfxHeight = stream.readUnsignedByte();
             int gfxDelay = stream.readUShort();
             if (xLoc >= 0 && yLoc >= 0 && xLoc < 104 && yLoc < 104) {
+                EffectBenchmark.recordGraphic(gfxId, gfxDelay);
                 xLoc = xLoc * 128 + 64;
                 yLoc = yLoc * 128 + 64;
-                AnimableObject loneGfx = new AnimableObject(plane, tick,
+                AnimableObject loneGfx = AnimableObject.POOL.acquire().init(plane, tick,
                         gfxDelay, gfxId, getCenterHeight(plane, yLoc, xLoc) - gfxHeight, yLoc, xLoc);
                 incompleteAnimables.insertHead(loneGfx);
             }
@@ -13224,7 +13422,8 @@ public class Client extends GameEngine implements RSClient {
                 y1 = y1 * 128 + 64;
                 x2 = x2 * 128 + 64;
                 y2 = y2 * 128 + 64;
-                Projectile projectile = new Projectile(initialSlope, endHeight, startDelay + tick, speed + tick, frontOffset, plane, getCenterHeight(plane, y1, x1) - startHeight, y1, x1, target, gfxMoving);
+                EffectBenchmark.recordProjectile(gfxMoving, startDelay, speed);
+                Projectile projectile = Projectile.POOL.acquire().init(initialSlope, endHeight, startDelay + tick, speed + tick, frontOffset, plane, getCenterHeight(plane, y1, x1) - startHeight, y1, x1, target, gfxMoving);
                 projectile.calculateIncrements(startDelay + tick, y2, getCenterHeight(plane, y2, x2) - endHeight, x2);
                 projectiles.insertHead(projectile);
             }
@@ -13678,6 +13877,12 @@ public class Client extends GameEngine implements RSClient {
             secondLastOpcode = lastOpcode;
             lastOpcode = opcode;
 
+            minimapRenderer.invalidateEntities();
+            if (opcode != PacketConstants.PLAYER_UPDATING && opcode != PacketConstants.NPC_UPDATING) {
+                frameLayers.invalidate();
+                widgetRenderCache.invalidate();
+            }
+
 			if (opcode == PacketConstants.SET_POISON_TYPE) {
 				poisonType = incoming.readUnsignedByte();
 				opcode = -1;
@@ -14169,6 +14374,7 @@ public class Client extends GameEngine implements RSClient {
                             }
                     }
                 }
+                minimapRenderer.resetGroundItems(plane, groundItems[plane]);
                 for (SpawnedObject object = (SpawnedObject) spawns
                         .reverseGetFirst(); object != null; object = (SpawnedObject) spawns.reverseGetNext()) {
                     object.x -= dx;
@@ -14308,6 +14514,7 @@ public class Client extends GameEngine implements RSClient {
                                     0;
                         }
                     }
+                    collisionMaps[plane].invalidateRegions();
                 }
                 opcode = -1;
                 return true;
@@ -15157,6 +15364,7 @@ public class Client extends GameEngine implements RSClient {
         updateEntities();
         drawHeadIcon();
         AnimatedTextures.render(k2);
+        Sprite.finishFrameStatistics();
         draw3dScreen();
         console.drawConsole();
         console.drawConsoleArea();
@@ -15176,9 +15384,9 @@ public class Client extends GameEngine implements RSClient {
             leftFrame.method346(0, 4);
             topFrame.method346(0, 0);
         }
-        drawChatArea();
-        drawMinimap();
-        drawTabArea();
+        drawChatAreaLayer();
+        drawMinimapLayer();
+        drawTabAreaLayer();
 
 
         if (Client.processGpuPlugin()) {
@@ -15195,6 +15403,10 @@ public class Client extends GameEngine implements RSClient {
 
     public Sprite leftFrame;
     public Sprite topFrame;
+    private final FrameLayers frameLayers = new FrameLayers();
+    private boolean lastDrawResized;
+    private final WidgetRenderCache widgetRenderCache = new WidgetRenderCache();
+    private final MinimapRenderer minimapRenderer = new MinimapRenderer();
 
     private void tabToReplyPm() {
         String name = null;
@@ -16286,14 +16498,18 @@ public class Client extends GameEngine implements RSClient {
         return null;
     }
 
+    /**
+     * The menu is not exposed as {@link MenuEntry} objects, as its action types are not
+     * RuneLite's; plugins read it through {@link #getMenuOptions()} and the other per row getters.
+     */
     @Override
     public MenuEntry[] getMenuEntries() {
-        return null;
+        return new MenuEntry[0];
     }
 
     @Override
     public int getMenuOptionCount() {
-        return 0;
+        return menuActionRow;
     }
 
 
@@ -16309,37 +16525,60 @@ public class Client extends GameEngine implements RSClient {
 
     @Override
     public String[] getMenuOptions() {
-        return new String[0];
+        final String[] options = new String[menuActionRow];
+        for (int row = 0; row < menuActionRow; row++) {
+            final String text = menuText(row);
+            final int split = menuTargetStart(text);
+            options[row] = split < 0 ? text : text.substring(0, split);
+        }
+        return options;
     }
 
     @Override
     public String[] getMenuTargets() {
-        return new String[0];
+        final String[] targets = new String[menuActionRow];
+        for (int row = 0; row < menuActionRow; row++) {
+            final String text = menuText(row);
+            final int split = menuTargetStart(text);
+            targets[row] = split < 0 ? "" : text.substring(split + 1);
+        }
+        return targets;
+    }
+
+    /**
+     * Returns where the target of a menu row's text starts, at the space before its colour, or -1 if it has none.
+     */
+    private static int menuTargetStart(String text) {
+        return text.indexOf(" @");
     }
 
     @Override
     public int[] getMenuIdentifiers() {
-        return new int[0];
+        final int[] identifiers = new int[menuActionRow];
+        for (int row = 0; row < menuActionRow; row++) {
+            identifiers[row] = (int) selectedMenuActions[row];
+        }
+        return identifiers;
     }
 
     @Override
     public int[] getMenuOpcodes() {
-        return new int[0];
+        return Arrays.copyOf(menuActionTypes, menuActionRow);
     }
 
     @Override
     public int[] getMenuArguments1() {
-        return new int[0];
+        return Arrays.copyOf(firstMenuAction, menuActionRow);
     }
 
     @Override
     public int[] getMenuArguments2() {
-        return new int[0];
+        return Arrays.copyOf(secondMenuAction, menuActionRow);
     }
 
     @Override
     public boolean[] getMenuForceLeftClick() {
-        return new boolean[0];
+        return new boolean[menuActionRow];
     }
 
     @Override
@@ -18003,7 +18242,7 @@ public class Client extends GameEngine implements RSClient {
 
     @Override
     public boolean[][][][] getVisibilityMaps() {
-        return scene.visibilityMap;
+        return SceneGraph.visibilityMap == null ? null : SceneGraph.visibilityMap.toArray();
     }
 
     @Override
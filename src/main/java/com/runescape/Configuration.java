@@ -153,6 +153,75 @@ public final class Configuration {
      * Enables buff overlay
      */
     public static boolean enableBuffOverlay = true;
+    /**
+     * Stores computed scene visibility maps on disk so known window sizes load instantly
+     */
+    public static boolean visibilityMapDiskCache = true;
+    /**
+     * Blends transparent boxes and sprites a whole row at a time instead of per pixel
+     */
+    public static boolean fastBlending = true;
+    /**
+     * Draws sprite pack sprites from run-length encoded spans so empty areas are skipped
+     */
+    public static boolean spriteRunLengthEncoding = true;
+    /**
+     * Keeps the fixed mode chat area, tab area and minimap between frames and only redraws them when they change
+     */
+    public static boolean retainedFrameLayers = true;
+    /**
+     * Reuses the rendered pixels of interface containers whose state has not changed
+     */
+    public static boolean widgetRenderCache = true;
+    /**
+     * Reuses the rotated minimap while the camera angle, zoom and position are unchanged
+     */
+    public static boolean minimapRotationCache = true;
+    /**
+     * Paces unlocked frame rates without a target to the refresh rate of the display
+     */
+    public static boolean syncFrameRateToDisplay = false;
+    /**
+     * Presents finished frames from a separate thread; only the blit moves off the client thread
+     */
+    public static boolean offThreadPresent = false;
+    /**
+     * Presents frames through a page flipped buffer strategy, uploading only the regions that changed
+     */
+    public static boolean acceleratedPresentation = true;
+    /**
+     * Reuses the skinned vertex positions of player and npc models for animation frames they have already been posed in
+     */
+    public static boolean poseCache = true;
+    /**
+     * The memory in megabytes shared between the model and sprite caches
+     */
+    public static int cacheBudgetMegabytes = 64;
+    /**
+     * Decodes the terrain of a new region on a background thread; objects and the scene are still built on the game thread
+     */
+    public static boolean backgroundTerrainDecode = true;
+    /**
+     * Shifts the decoded terrain of the previous region into a new one and only decodes the map squares it did not
+     * cover; objects, their collision and the lighting are still built again for the whole region
+     */
+    public static boolean incrementalTerrainDecode = true;
+    /**
+     * The threads map squares are decoded and terrain is lit on when building a region, or 0 for one per processor
+     */
+    public static int regionDecodeThreads = 0;
+    /**
+     * Reuses released projectiles, graphics and object spawn requests instead of allocating new ones
+     */
+    public static boolean pooledEffects = true;
+    /**
+     * Tracks where pooled nodes were acquired, to report nodes that are dropped without being released
+     */
+    public static boolean debugNodePools = false;
+    /**
+     * Records walk targets and combat effects as they happen, for the console benchmarks to replay
+     */
+    public static boolean recordBenchmarkInputs = false;
 
     private Configuration() {
 
@@ -1,6 +1,7 @@
 package com.runescape.cache.anim;
 
 import com.runescape.cache.FileArchive;
+import com.runescape.collection.CacheManager;
 import com.runescape.collection.ReferenceCache;
 import com.runescape.entity.model.Model;
 import com.runescape.io.Buffer;
@@ -8,7 +9,7 @@ import com.runescape.io.Buffer;
 public final class Graphic {
 
     public static Graphic cache[];
-    public static ReferenceCache models = new ReferenceCache(30);
+    public static ReferenceCache models = CacheManager.register("Graphic models", new ReferenceCache(60, 2 * 1024 * 1024));
     private int[] recolorToFind;
     private int[] recolorToReplace;
     public Animation animationSequence;
@@ -2,6 +2,7 @@ package com.runescape.cache.def;
 
 import com.runescape.cache.FileArchive;
 import com.runescape.cache.graphics.sprite.Sprite;
+import com.runescape.collection.CacheManager;
 import com.runescape.collection.ReferenceCache;
 import com.runescape.draw.Rasterizer2D;
 import com.runescape.draw.Rasterizer3D;
@@ -15,8 +16,8 @@ import java.util.HashMap;
 
 public final class ItemDefinition implements RSItemComposition {
 
-    public static ReferenceCache sprites = new ReferenceCache(100);
-    public static ReferenceCache models = new ReferenceCache(50);
+    public static ReferenceCache sprites = CacheManager.register("Item sprites", new ReferenceCache(100, 1024 * 1024));
+    public static ReferenceCache models = CacheManager.register("Item models", new ReferenceCache(50, 2 * 1024 * 1024));
     public static boolean isMembers = true;
     public static int totalItems;
     public static ItemDefinition[] cache;
@@ -204,7 +205,7 @@ public final class ItemDefinition implements RSItemComposition {
             Sprite sprite = (Sprite) sprites.get(itemId);
             if (sprite != null && sprite.maxHeight != stackSize && sprite.maxHeight != -1) {
 
-                sprite.unlink();
+                sprites.remove(itemId);
                 sprite = null;
             }
             if (sprite != null)
@@ -0,0 +1,126 @@
+package com.runescape.cache.def;
+
+import com.runescape.entity.model.Model;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Lit object models shared by everything that builds an identical one.
+ *
+ * A model is keyed by what goes into building and lighting it: the source model ids,
+ * orientation, animation frame, recolours, retextures, scale, translation and lighting
+ * parameters. Object definitions that agree on all of these, such as the many variants
+ * of a tree or wall, get the same lit instance instead of lighting their own.
+ */
+public final class LitModelCache {
+
+    private static final int CAPACITY = 400;
+
+    private static final Map<Key, Model> models = new LinkedHashMap<Key, Model>(CAPACITY, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Model> eldest) {
+            if (size() > CAPACITY) {
+                cachedBytes -= eldest.getValue().estimateBytes();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private static long lookups;
+    private static long hits;
+    private static long lightingNanos;
+    private static long cachedBytes;
+
+    private LitModelCache() {
+
+    }
+
+    static Model get(Key key) {
+        lookups++;
+        Model model = models.get(key);
+        if (model != null) {
+            hits++;
+        }
+        return model;
+    }
+
+    static void put(Key key, Model model, long nanos) {
+        lightingNanos += nanos;
+        Model previous = models.put(key, model);
+        if (previous != null) {
+            cachedBytes -= previous.estimateBytes();
+        }
+        cachedBytes += model.estimateBytes();
+    }
+
+    public static void clear() {
+        models.clear();
+        cachedBytes = 0;
+    }
+
+    /**
+     * Returns how many lit models were shared rather than built, the time spent building
+     * the rest and the memory held by the cache.
+     */
+    public static String getStatistics() {
+        return "Lit models shared: " + hits + "/" + lookups + ", lit in " + lightingNanos / 1_000_000 + "ms, cached "
+                + models.size() + " (~" + cachedBytes / 1024 + "KB)";
+    }
+
+    static final class Key {
+
+        private final int[] modelIds;
+        private final int[] recolours;
+        private final short[] retextures;
+        private final int[] parameters;
+        private final int hash;
+
+        Key(int[] modelIds, int[] recolourFind, int[] recolourReplace, short[] textureFind, short[] textureReplace,
+            int[] parameters) {
+            this.modelIds = modelIds;
+            this.recolours = concat(recolourFind, recolourReplace);
+            this.retextures = concat(textureFind, textureReplace);
+            this.parameters = parameters;
+            int hash = Arrays.hashCode(modelIds);
+            hash = hash * 31 + Arrays.hashCode(recolours);
+            hash = hash * 31 + Arrays.hashCode(retextures);
+            this.hash = hash * 31 + Arrays.hashCode(parameters);
+        }
+
+        private static int[] concat(int[] first, int[] second) {
+            if (first == null) {
+                return null;
+            }
+            int[] values = Arrays.copyOf(first, first.length + second.length);
+            System.arraycopy(second, 0, values, first.length, second.length);
+            return values;
+        }
+
+        private static short[] concat(short[] first, short[] second) {
+            if (first == null) {
+                return null;
+            }
+            short[] values = Arrays.copyOf(first, first.length + second.length);
+            System.arraycopy(second, 0, values, first.length, second.length);
+            return values;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) object;
+            return hash == other.hash && Arrays.equals(modelIds, other.modelIds) && Arrays.equals(parameters, other.parameters)
+                    && Arrays.equals(recolours, other.recolours) && Arrays.equals(retextures, other.retextures);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
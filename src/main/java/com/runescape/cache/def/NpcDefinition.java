@@ -1,11 +1,14 @@
 package com.runescape.cache.def;
 
 import com.runescape.Client;
+import com.runescape.Configuration;
 import com.runescape.cache.FileArchive;
 import com.runescape.cache.anim.Frame;
 import com.runescape.cache.config.VariableBits;
+import com.runescape.collection.CacheManager;
 import com.runescape.collection.ReferenceCache;
 import com.runescape.entity.model.Model;
+import com.runescape.entity.model.PoseCache;
 import com.runescape.io.Buffer;
 import net.runelite.api.HeadIcon;
 import net.runelite.api.IterableHashTable;
@@ -47,7 +50,7 @@ public final class NpcDefinition implements RSNPCComposition {
 	public static int[] offsets;
 	public static NpcDefinition[] cache;
 	public static Client clientInstance;
-	public static ReferenceCache modelCache = new ReferenceCache(30);
+	public static ReferenceCache modelCache = CacheManager.register("Npc models", new ReferenceCache(60, 4 * 1024 * 1024));
 	public final int anInt64;
 	public int rotate90CCWAnimIndex;
 	public int varbitId;
@@ -424,12 +427,18 @@ public final class NpcDefinition implements RSNPCComposition {
 		Model model_1 = Model.EMPTY_MODEL;
 		model_1.replace(model,
 				Frame.noAnimationInProgress(secondaryFrame) & Frame.noAnimationInProgress(primaryFrame));
-		if (secondaryFrame != -1 && primaryFrame != -1)
-			model_1.mix(interleaveOrder, primaryFrame, secondaryFrame);
-		else if (secondaryFrame != -1)
-			model_1.applyTransform(secondaryFrame);
-		if (widthScale != 128 || heightScale != 128)
-			model_1.scale(widthScale, widthScale, heightScale);
+		int scale = widthScale != 128 || heightScale != 128 ? widthScale << 16 | heightScale : 0;
+		boolean cachePose = Configuration.poseCache && secondaryFrame != -1;
+		if (!cachePose || !PoseCache.restore(model_1, model, secondaryFrame, primaryFrame, interleaveOrder, scale)) {
+			if (secondaryFrame != -1 && primaryFrame != -1)
+				model_1.mix(interleaveOrder, primaryFrame, secondaryFrame);
+			else if (secondaryFrame != -1)
+				model_1.applyTransform(secondaryFrame);
+			if (widthScale != 128 || heightScale != 128)
+				model_1.scale(widthScale, widthScale, heightScale);
+			if (cachePose)
+				PoseCache.store(model_1, model, secondaryFrame, primaryFrame, interleaveOrder, scale);
+		}
 		model_1.calc_diagonals();
 		model_1.faceGroups = null;
 		model_1.vertexGroups = null;
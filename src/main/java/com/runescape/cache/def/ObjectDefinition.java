@@ -4,6 +4,7 @@ import com.runescape.Client;
 import com.runescape.cache.FileArchive;
 import com.runescape.cache.anim.Frame;
 import com.runescape.cache.config.VariableBits;
+import com.runescape.collection.CacheManager;
 import com.runescape.collection.ReferenceCache;
 import com.runescape.entity.model.Model;
 import com.runescape.io.Buffer;
@@ -26,9 +27,9 @@ public final class ObjectDefinition implements ObjectComposition {
     public static int[] streamIndices;
     public static Client clientInstance;
     public static int cacheIndex;
-    public static ReferenceCache models = new ReferenceCache(30);
+    public static ReferenceCache models = CacheManager.register("Object models", new ReferenceCache(100, 4 * 1024 * 1024));
     public static ObjectDefinition[] cache;
-    public static ReferenceCache baseModels = new ReferenceCache(500);
+    public static ReferenceCache baseModels = CacheManager.register("Object base models", new ReferenceCache(500, 8 * 1024 * 1024));
     public static int TOTAL_OBJECTS;
     public boolean obstructsGround;
     public byte ambient;
@@ -196,6 +197,7 @@ public final class ObjectDefinition implements ObjectComposition {
         streamIndices = null;
         cache = null;
         stream = null;
+        ObjectMenuCache.clear();
     }
 
     public static void init(FileArchive archive) throws IOException {
@@ -306,7 +308,10 @@ public final class ObjectDefinition implements ObjectComposition {
         return flag1;
     }
 
-    public ObjectDefinition method580() {
+    /**
+     * Returns the value of the varbit, or else the varp, a transforming object picks its definition by.
+     */
+    public static int morphState(int varbitID, int varpID) {
         int i = -1;
         if (varbitID != -1) {
             VariableBits varBit = VariableBits.varbits[varbitID];
@@ -317,6 +322,11 @@ public final class ObjectDefinition implements ObjectComposition {
             i = clientInstance.settings[j] >> k & i1;
         } else if (varpID != -1)
             i = clientInstance.settings[varpID];
+        return i;
+    }
+
+    public ObjectDefinition method580() {
+        int i = morphState(varbitID, varpID);
         if (i < 0 || i >= configs.length || configs[i] == -1)
             return null;
         else
@@ -326,6 +336,8 @@ public final class ObjectDefinition implements ObjectComposition {
     public Model model(int j, int k, int l) {
         Model model = null;
         long l1;
+        LitModelCache.Key litKey;
+        long lightingStart;
         if (objectTypes == null) {
             if (j != 10)
                 return null;
@@ -338,6 +350,14 @@ public final class ObjectDefinition implements ObjectComposition {
                 return null;
             boolean flag1 = inverted ^ (l > 3);
             int k1 = objectModels.length;
+            int[] modelIds = new int[k1];
+            for (int i2 = 0; i2 < k1; i2++)
+                modelIds[i2] = flag1 ? objectModels[i2] + 0x10000 : objectModels[i2];
+            litKey = litModelKey(modelIds, k, l);
+            Model shared = LitModelCache.get(litKey);
+            if (shared != null)
+                return shared;
+            lightingStart = System.nanoTime();
             for (int i2 = 0; i2 < k1; i2++) {
                 int l2 = objectModels[i2];
                 if (flag1)
@@ -380,6 +400,11 @@ public final class ObjectDefinition implements ObjectComposition {
             boolean flag3 = inverted ^ (l > 3);
             if (flag3)
                 j2 += 0x10000;
+            litKey = litModelKey(new int[]{j2}, k, l);
+            Model shared = LitModelCache.get(litKey);
+            if (shared != null)
+                return shared;
+            lightingStart = System.nanoTime();
             model = (Model) baseModels.get(j2);
             if (model == null) {
                 model = Model.getModel(j2 & 0xffff);
@@ -426,9 +451,20 @@ public final class ObjectDefinition implements ObjectComposition {
         if (supportItems == 1)
             model_3.itemDropHeight = model_3.modelBaseY;
         models.put(model_3, l1);
+        LitModelCache.put(litKey, model_3, System.nanoTime() - lightingStart);
         return model_3;
     }
 
+    /**
+     * Returns the key of everything besides the source models that the lit model
+     * built by {@link #model(int, int, int)} depends on.
+     */
+    private LitModelCache.Key litModelKey(int[] modelIds, int frame, int orientation) {
+        return new LitModelCache.Key(modelIds, recolorToFind, recolorToReplace, textureFind, textureReplace, new int[]{
+                frame, orientation, scaleX, scaleY, scaleZ, translateX, translateY, translateZ,
+                ambient, contrast, mergeNormals ? 1 : 0, supportItems == 1 ? 1 : 0});
+    }
+
 
     public void decode(Buffer buffer) {
         while(true) {
@@ -0,0 +1,70 @@
+package com.runescape.cache.def;
+
+import java.util.Arrays;
+
+/**
+ * The names and actions of the objects the mouse was last over, so the menu rebuilt every
+ * frame doesn't look up and transform their definitions again while they are hovered.
+ *
+ * Object definitions are shared instances recycled by {@link ObjectDefinition#lookup(int)},
+ * so only the name and actions are kept. A transforming object is looked up again once the
+ * varbit or varp it transforms by changes.
+ */
+public final class ObjectMenuCache {
+
+    private static final int SIZE = 32;
+
+    private static final int[] ids = new int[SIZE];
+    private static final int[] varbits = new int[SIZE];
+    private static final int[] varps = new int[SIZE];
+    private static final int[] states = new int[SIZE];
+    private static final boolean[] present = new boolean[SIZE];
+    private static final String[] names = new String[SIZE];
+    private static final String[][] actions = new String[SIZE][];
+
+    static {
+        clear();
+    }
+
+    private ObjectMenuCache() {
+
+    }
+
+    /**
+     * Returns the slot holding what the menu shows for object {@code id}, or -1 when the
+     * object has no definition in its current state.
+     */
+    public static int lookup(int id) {
+        final int slot = id & SIZE - 1;
+        if (ids[slot] != id || ObjectDefinition.morphState(varbits[slot], varps[slot]) != states[slot]) {
+            ObjectDefinition definition = ObjectDefinition.lookup(id);
+            ids[slot] = id;
+            varbits[slot] = -1;
+            varps[slot] = -1;
+            if (definition.configs != null) {
+                varbits[slot] = definition.varbitID;
+                varps[slot] = definition.varpID;
+                definition = definition.method580();
+            }
+            states[slot] = ObjectDefinition.morphState(varbits[slot], varps[slot]);
+            present[slot] = definition != null;
+            names[slot] = definition == null ? null : definition.name;
+            actions[slot] = definition == null ? null : definition.actions;
+        }
+        return present[slot] ? slot : -1;
+    }
+
+    public static String name(int slot) {
+        return names[slot];
+    }
+
+    public static String[] actions(int slot) {
+        return actions[slot];
+    }
+
+    public static void clear() {
+        Arrays.fill(ids, -1);
+        Arrays.fill(names, null);
+        Arrays.fill(actions, null);
+    }
+}
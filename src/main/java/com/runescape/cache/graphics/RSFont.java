@@ -403,121 +403,7 @@ public class RSFont extends Rasterizer2D {
     }
 
     public void drawBasicString(String string, int drawX, int drawY) {
-        drawY -= baseCharacterHeight;
-        int startIndex = -1;
-        string = handleOldSyntax(string);
-        for (int currentCharacter = 0; currentCharacter < string.length(); currentCharacter++) {
-            int character = string.charAt(currentCharacter);
-            if (character > 255) {
-                character = 32;
-            }
-            if (character == 60) {
-                startIndex = currentCharacter;
-            } else {
-                if (character == 62 && startIndex != -1) {
-                    String effectString = string.substring(startIndex + 1, currentCharacter);
-                    startIndex = -1;
-                    if (effectString.equals(startEffect)) {
-                        character = 60;
-                    } else if (effectString.equals(endEffect)) {
-                        character = 62;
-                    } else if (effectString.equals(aRSString_4135)) {
-                        character = 160;
-                    } else if (effectString.equals(aRSString_4162)) {
-                        character = 173;
-                    } else if (effectString.equals(aRSString_4165)) {
-                        character = 215;
-                    } else if (effectString.equals(aRSString_4147)) {
-                        character = 128;
-                    } else if (effectString.equals(aRSString_4163)) {
-                        character = 169;
-                    } else if (effectString.equals(aRSString_4169)) {
-                        character = 174;
-                    } else {
-                        if (effectString.startsWith(startImage)) {
-                            try {
-                                int imageId = Integer.valueOf(effectString.substring(4));
-                                Sprite chatImageId = Client.spriteCache.lookup(imageId);
-                                int iconModY = chatImageId.maxHeight;
-                                /*if (transparency == 256) {
-                                    chatImageId.method346(drawX, (drawY + baseCharacterHeight - iconModY));
-                                } else {
-                                	chatImageId.drawSprite(drawX,(drawY + baseCharacterHeight - iconModY), transparency);
-                                }*/
-
-                                chatImageId.drawSprite(drawX + 2, (drawY + baseCharacterHeight - iconModY) + 1);
-                                drawX += chatImageId.maxWidth;
-                            } catch (Exception exception) {
-
-                                /* empty */
-                            }
-                        } else if (effectString.startsWith(startClanImage)) {
-                            try {
-                                int imageId = Integer.valueOf(effectString
-                                        .substring(5));
-                                Sprite icon = Client.spriteCache.lookup(imageId);
-                                int iconModY = icon.myHeight + icon.drawOffsetY
-                                        + 1;
-                                if (transparency == 256) {
-                                    icon.drawSprite(drawX, (drawY
-                                            + baseCharacterHeight - iconModY));
-                                } else {
-                                    icon.drawSprite(drawX, (drawY
-                                                    + baseCharacterHeight - iconModY),
-                                            transparency);
-                                }
-                                drawX += 11;
-                            } catch (Exception exception) {
-                                exception.printStackTrace();
-                            }
-                        } else {
-                            setTextEffects(effectString);
-                        }
-                        continue;
-                    }
-                }
-                if (startIndex == -1) {
-                    int width = characterWidths[character];
-                    int height = characterHeights[character];
-                    if (character != 32) {
-                        if (transparency == 256) {
-                            if (textShadowColor != -1) {
-                                drawCharacter(character,
-                                        drawX + characterDrawXOffsets[character] + 1,
-                                        drawY + characterDrawYOffsets[character] + 1,
-                                        width, height, textShadowColor, true);
-                            }
-                            drawCharacter(character, drawX + characterDrawXOffsets[character],
-                                    drawY + characterDrawYOffsets[character], width,
-                                    height, textColor, false);
-                        } else {
-                            if (textShadowColor != -1) {
-                                drawTransparentCharacter(character,
-                                        drawX + characterDrawXOffsets[character] + 1,
-                                        drawY + characterDrawYOffsets[character] + 1,
-                                        width, height, textShadowColor, transparency,
-                                        true);
-                            }
-                            drawTransparentCharacter(character, drawX + characterDrawXOffsets[character],
-                                    drawY + characterDrawYOffsets[character], width,
-                                    height, textColor, transparency, false);
-                        }
-                    } else if (anInt4178 > 0) {
-                        anInt4175 += anInt4178;
-                        drawX += anInt4175 >> 8;
-                        anInt4175 &= 0xff;
-                    }
-                    int lineWidth = characterScreenWidths[character];
-                    if (strikethroughColor != -1) {
-                        GameFont.drawHorizontalLine(drawX, drawY + (int) ((double) baseCharacterHeight * 0.69999999999999996D), lineWidth, strikethroughColor);
-                    }
-                    if (underlineColor != -1) {
-                        GameFont.drawHorizontalLine(drawX, drawY + baseCharacterHeight, lineWidth, underlineColor);
-                    }
-                    drawX += lineWidth;
-                }
-            }
-        }
+        drawRuns(TextRuns.lookupLegacy(string), drawX, drawY, null, null, true);
     }
 
     public void drawRAString(String string, int drawX, int drawY, int color,
@@ -530,127 +416,162 @@ public class RSFont extends Rasterizer2D {
 
     public void drawBaseStringMoveXY(String string, int drawX, int drawY, int[] xModifier,
                                      int[] yModifier) {
+        drawRuns(TextRuns.lookup(string), drawX, drawY, xModifier, yModifier, false);
+    }
+
+    /**
+     * Draws compiled text. The basic path offsets inline icons slightly and draws clan
+     * icons, while the modified path applies per-glyph offsets and draws icons with the
+     * current transparency.
+     */
+    private void drawRuns(TextRuns runs, int drawX, int drawY, int[] xModifier, int[] yModifier, boolean basic) {
         drawY -= baseCharacterHeight;
-        int startIndex = -1;
         int modifierOffset = 0;
-        for (int currentCharacter = 0; currentCharacter < string.length(); currentCharacter++) {
-            int character = string.charAt(currentCharacter);
-            if (character == 60) {
-                startIndex = currentCharacter;
-            } else {
-                if (character == 62 && startIndex != -1) {
-                    String effectString = string.substring(startIndex + 1, currentCharacter);
-                    startIndex = -1;
-                    if (effectString.equals(startEffect)) {
-                        character = 60;
-                    } else if (effectString.equals(endEffect)) {
-                        character = 62;
-                    } else if (effectString.equals(aRSString_4135)) {
-                        character = 160;
-                    } else if (effectString.equals(aRSString_4162)) {
-                        character = 173;
-                    } else if (effectString.equals(aRSString_4165)) {
-                        character = 215;
-                    } else if (effectString.equals(aRSString_4147)) {
-                        character = 128;
-                    } else if (effectString.equals(aRSString_4163)) {
-                        character = 169;
-                    } else if (effectString.equals(aRSString_4169)) {
-                        character = 174;
+        final byte[] operations = runs.operations;
+        final int[] operands = runs.operands;
+        for (int index = 0; index < runs.length; index++) {
+            final int operand = operands[index];
+            switch (operations[index]) {
+                case TextRuns.GLYPH:
+                    break;
+                case TextRuns.IMAGE:
+                    if (basic) {
+                        Sprite icon = lookupIcon(operand);
+                        if (icon != null) {
+                            icon.drawSprite(drawX + 2, (drawY + baseCharacterHeight - icon.maxHeight) + 1);
+                            drawX += icon.maxWidth;
+                        }
                     } else {
-                        if (effectString.startsWith(startImage)) {
-                            try {
-                                int xModI;
-                                if (xModifier != null) {
-                                    xModI = xModifier[modifierOffset];
-                                } else {
-                                    xModI = 0;
-                                }
-                                int yMod;
-                                if (yModifier != null) {
-                                    yMod = yModifier[modifierOffset];
-                                } else {
-                                    yMod = 0;
-                                }
-                                modifierOffset++;
-                                int iconId = Integer.valueOf(effectString.substring(4));
-                                Sprite class92 = Client.spriteCache.lookup(iconId);
-                                int iconOffsetY = class92.maxHeight;
-                                if (transparency == 256) {
-                                    class92.drawSprite(drawX + xModI,
-                                            (drawY + baseCharacterHeight - iconOffsetY + yMod));
-                                } else {
-                                    class92.drawSprite(drawX + xModI,
-                                            (drawY + baseCharacterHeight - iconOffsetY + yMod),
-                                            transparency);
-                                }
-                                drawX += class92.maxWidth;
-                            } catch (Exception exception) {
-                                /* empty */
+                        int xMod = xModifier != null ? xModifier[modifierOffset] : 0;
+                        int yMod = yModifier != null ? yModifier[modifierOffset] : 0;
+                        modifierOffset++;
+                        Sprite icon = lookupIcon(operand);
+                        if (icon != null) {
+                            if (transparency == 256) {
+                                icon.drawSprite(drawX + xMod, drawY + baseCharacterHeight - icon.maxHeight + yMod);
+                            } else {
+                                icon.drawSprite(drawX + xMod, drawY + baseCharacterHeight - icon.maxHeight + yMod, transparency);
                             }
-                        } else {
-                            setTextEffects(effectString);
+                            drawX += icon.maxWidth;
                         }
-                        continue;
                     }
-                }
-                if (startIndex == -1) {
-                    int width = characterWidths[character];
-                    int height = characterHeights[character];
-                    int xOff;
-                    if (xModifier != null) {
-                        xOff = xModifier[modifierOffset];
-                    } else {
-                        xOff = 0;
-                    }
-                    int yOff;
-                    if (yModifier != null) {
-                        yOff = yModifier[modifierOffset];
-                    } else {
-                        yOff = 0;
-                    }
-                    modifierOffset++;
-                    if (character != 32) {
-                        if (transparency == 256) {
-                            if (textShadowColor != -1) {
-                                drawCharacter(character,
-                                        (drawX + characterDrawXOffsets[character] + 1 + xOff),
-                                        (drawY + characterDrawYOffsets[character] + 1 + yOff),
-                                        width, height, textShadowColor, true);
-                            }
-                            drawCharacter(character,
-                                    drawX + characterDrawXOffsets[character] + xOff,
-                                    drawY + characterDrawYOffsets[character] + yOff,
-                                    width, height, textColor, false);
-                        } else {
-                            if (textShadowColor != -1) {
-                                drawTransparentCharacter(character,
-                                        (drawX + characterDrawXOffsets[character] + 1 + xOff),
-                                        (drawY + characterDrawYOffsets[character] + 1 + yOff),
-                                        width, height, textShadowColor,
-                                        transparency, true);
+                    continue;
+                case TextRuns.CLAN_IMAGE:
+                    if (basic) {
+                        Sprite icon = lookupIcon(operand);
+                        if (icon != null) {
+                            int iconModY = icon.myHeight + icon.drawOffsetY + 1;
+                            if (transparency == 256) {
+                                icon.drawSprite(drawX, drawY + baseCharacterHeight - iconModY);
+                            } else {
+                                icon.drawSprite(drawX, drawY + baseCharacterHeight - iconModY, transparency);
                             }
-                            drawTransparentCharacter(character,
-                                    drawX + characterDrawXOffsets[character] + xOff,
-                                    drawY + characterDrawYOffsets[character] + yOff,
-                                    width, height, textColor, transparency,
-                                    false);
+                            drawX += 11;
                         }
-                    } else if (anInt4178 > 0) {
-                        anInt4175 += anInt4178;
-                        drawX += anInt4175 >> 8;
-                        anInt4175 &= 0xff;
                     }
-                    int i_109_ = characterScreenWidths[character];
-                    if (strikethroughColor != -1) {
-                        GameFont.drawHorizontalLine(drawX, drawY + (int) ((double) baseCharacterHeight * 0.7), i_109_, strikethroughColor);
+                    continue;
+                default:
+                    applyEffect(operations[index], operand);
+                    continue;
+            }
+            final int character = operand;
+            int xOff = 0;
+            int yOff = 0;
+            if (!basic) {
+                xOff = xModifier != null ? xModifier[modifierOffset] : 0;
+                yOff = yModifier != null ? yModifier[modifierOffset] : 0;
+                modifierOffset++;
+            }
+            int width = characterWidths[character];
+            int height = characterHeights[character];
+            if (character != 32) {
+                if (transparency == 256) {
+                    if (textShadowColor != -1) {
+                        drawCharacter(character,
+                                drawX + characterDrawXOffsets[character] + 1 + xOff,
+                                drawY + characterDrawYOffsets[character] + 1 + yOff,
+                                width, height, textShadowColor, true);
                     }
-                    if (underlineColor != -1) {
-                        GameFont.drawHorizontalLine(drawX, drawY + baseCharacterHeight, i_109_, underlineColor);
+                    drawCharacter(character, drawX + characterDrawXOffsets[character] + xOff,
+                            drawY + characterDrawYOffsets[character] + yOff, width,
+                            height, textColor, false);
+                } else {
+                    if (textShadowColor != -1) {
+                        drawTransparentCharacter(character,
+                                drawX + characterDrawXOffsets[character] + 1 + xOff,
+                                drawY + characterDrawYOffsets[character] + 1 + yOff,
+                                width, height, textShadowColor, transparency,
+                                true);
                     }
-                    drawX += i_109_;
+                    drawTransparentCharacter(character, drawX + characterDrawXOffsets[character] + xOff,
+                            drawY + characterDrawYOffsets[character] + yOff, width,
+                            height, textColor, transparency, false);
                 }
+            } else if (anInt4178 > 0) {
+                anInt4175 += anInt4178;
+                drawX += anInt4175 >> 8;
+                anInt4175 &= 0xff;
             }
+            int lineWidth = characterScreenWidths[character];
+            if (strikethroughColor != -1) {
+                GameFont.drawHorizontalLine(drawX, drawY + (int) ((double) baseCharacterHeight * 0.7), lineWidth, strikethroughColor);
+            }
+            if (underlineColor != -1) {
+                GameFont.drawHorizontalLine(drawX, drawY + baseCharacterHeight, lineWidth, underlineColor);
+            }
+            drawX += lineWidth;
+        }
+    }
+
+    /**
+     * Applies a compiled effect tag, as {@link #setTextEffects(String)} would.
+     */
+    private void applyEffect(int operation, int operand) {
+        switch (operation) {
+            case TextRuns.COLOUR:
+                textColor = operand;
+                break;
+            case TextRuns.END_COLOUR:
+                textColor = defaultColor;
+                break;
+            case TextRuns.TRANSPARENCY:
+                transparency = operand;
+                break;
+            case TextRuns.END_TRANSPARENCY:
+                transparency = defaultTransparency;
+                break;
+            case TextRuns.STRIKETHROUGH:
+                strikethroughColor = operand;
+                break;
+            case TextRuns.END_STRIKETHROUGH:
+                strikethroughColor = -1;
+                break;
+            case TextRuns.UNDERLINE:
+                underlineColor = operand;
+                break;
+            case TextRuns.END_UNDERLINE:
+                underlineColor = -1;
+                break;
+            case TextRuns.SHADOW:
+                textShadowColor = operand;
+                break;
+            case TextRuns.END_SHADOW:
+                textShadowColor = defaultShadow;
+                break;
+            case TextRuns.LINE_BREAK:
+                setDefaultTextEffectValues(defaultColor, defaultShadow, defaultTransparency);
+                break;
+        }
+    }
+
+    private static Sprite lookupIcon(int id) {
+        if (id == TextRuns.INVALID_IMAGE) {
+            return null;
+        }
+        try {
+            return Client.spriteCache.lookup(id);
+        } catch (Exception exception) {
+            return null;
         }
     }
 
@@ -711,49 +632,19 @@ public class RSFont extends Rasterizer2D {
         if (string == null) {
             return 0;
         }
-        int startIndex = -1;
+        return getTextWidth(TextRuns.lookup(string));
+    }
+
+    private int getTextWidth(TextRuns runs) {
         int finalWidth = 0;
-        for (int currentCharacter = 0; currentCharacter < string.length(); currentCharacter++) {
-            int character = string.charAt(currentCharacter);
-            if (character > 255) {
-                character = 32;
-            }
-            if (character == 60) {
-                startIndex = currentCharacter;
-            } else {
-                if (character == 62 && startIndex != -1) {
-                    String effectString = string.substring(startIndex + 1, currentCharacter);
-                    startIndex = -1;
-                    if (effectString.equals(startEffect)) {
-                        character = 60;
-                    } else if (effectString.equals(endEffect)) {
-                        character = 62;
-                    } else if (effectString.equals(aRSString_4135)) {
-                        character = 160;
-                    } else if (effectString.equals(aRSString_4162)) {
-                        character = 173;
-                    } else if (effectString.equals(aRSString_4165)) {
-                        character = 215;
-                    } else if (effectString.equals(aRSString_4147)) {
-                        character = 128;
-                    } else if (effectString.equals(aRSString_4163)) {
-                        character = 169;
-                    } else if (effectString.equals(aRSString_4169)) {
-                        character = 174;
-                    } else {
-                        if (effectString.startsWith(startImage)) {
-                            try {//<img=
-                                int iconId = Integer.valueOf(effectString.substring(4));
-                                finalWidth += Client.spriteCache.lookup(iconId).maxWidth;
-                            } catch (Exception exception) {
-                                /* empty */
-                            }
-                        }
-                        continue;
-                    }
-                }
-                if (startIndex == -1) {
-                    finalWidth += characterScreenWidths[character];
+        for (int index = 0; index < runs.length; index++) {
+            final int operation = runs.operations[index];
+            if (operation == TextRuns.GLYPH) {
+                finalWidth += characterScreenWidths[runs.operands[index]];
+            } else if (operation == TextRuns.IMAGE) {
+                Sprite icon = lookupIcon(runs.operands[index]);
+                if (icon != null) {
+                    finalWidth += icon.maxWidth;
                 }
             }
         }
@@ -778,16 +669,16 @@ public class RSFont extends Rasterizer2D {
     public void drawCenteredString(String string, int drawX, int drawY, int color, int shadow) {
         if (string != null) {
             setColorAndShadow(color, shadow);
-            string = handleOldSyntax(string);
-            drawBasicString(string, drawX - getTextWidth(string) / 2, drawY);
+            TextRuns runs = TextRuns.lookupLegacy(string);
+            drawRuns(runs, drawX - getTextWidth(runs) / 2, drawY, null, null, true);
         }
     }
 
     public void drawRightAlignedString(String string, int drawX, int drawY, int color, int shadow) {
         if (string != null) {
             setColorAndShadow(color, shadow);
-            string = handleOldSyntax(string);
-            drawBasicString(string, drawX - getTextWidth(string), drawY);
+            TextRuns runs = TextRuns.lookupLegacy(string);
+            drawRuns(runs, drawX - getTextWidth(runs), drawY, null, null, true);
         }
     }
 
@@ -0,0 +1,199 @@
+package com.runescape.cache.graphics;
+
+import java.awt.Color;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A string of {@link RSFont} markup compiled into a flat list of operations: glyphs,
+ * inline icons and the effect changes made by tags. Tags are parsed once, so
+ * measuring and drawing a compiled string neither rescans nor allocates.
+ *
+ * Compiled strings are kept in bounded caches keyed by the source string. Glyph
+ * indices do not depend on the font, so one compilation serves every font.
+ */
+final class TextRuns {
+
+    static final int GLYPH = 0;
+    static final int IMAGE = 1;
+    static final int CLAN_IMAGE = 2;
+    static final int COLOUR = 3;
+    static final int END_COLOUR = 4;
+    static final int TRANSPARENCY = 5;
+    static final int END_TRANSPARENCY = 6;
+    static final int STRIKETHROUGH = 7;
+    static final int END_STRIKETHROUGH = 8;
+    static final int UNDERLINE = 9;
+    static final int END_UNDERLINE = 10;
+    static final int SHADOW = 11;
+    static final int END_SHADOW = 12;
+    static final int LINE_BREAK = 13;
+
+    /**
+     * The operand of an {@link #IMAGE} whose id could not be parsed.
+     */
+    static final int INVALID_IMAGE = Integer.MIN_VALUE;
+
+    private static final int CACHE_SIZE = 2048;
+
+    private static final Map<String, TextRuns> runs = createCache();
+    private static final Map<String, TextRuns> legacyRuns = createCache();
+
+    final byte[] operations;
+    final int[] operands;
+    final int length;
+
+    private TextRuns(byte[] operations, int[] operands, int length) {
+        this.operations = operations;
+        this.operands = operands;
+        this.length = length;
+    }
+
+    /**
+     * Returns the compiled form of {@code text}.
+     */
+    static TextRuns lookup(String text) {
+        TextRuns compiled = runs.get(text);
+        if (compiled == null) {
+            compiled = compile(text);
+            runs.put(text, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * Returns the compiled form of {@code text} after its {@code @col@} codes are
+     * converted with {@link RSFont#handleOldSyntax(String)}.
+     */
+    static TextRuns lookupLegacy(String text) {
+        TextRuns compiled = legacyRuns.get(text);
+        if (compiled == null) {
+            compiled = text.indexOf('@') == -1 ? lookup(text) : compile(RSFont.handleOldSyntax(text));
+            legacyRuns.put(text, compiled);
+        }
+        return compiled;
+    }
+
+    static TextRuns compile(String text) {
+        final int capacity = text.length();
+        byte[] operations = new byte[capacity];
+        int[] operands = new int[capacity];
+        int length = 0;
+        int startIndex = -1;
+        for (int index = 0; index < text.length(); index++) {
+            int character = text.charAt(index);
+            if (character > 255) {
+                character = 32;
+            }
+            if (character == 60) {
+                startIndex = index;
+                continue;
+            }
+            if (character == 62 && startIndex != -1) {
+                String tag = text.substring(startIndex + 1, index);
+                startIndex = -1;
+                int escaped = escape(tag);
+                if (escaped == -1) {
+                    long operation = parseTag(tag);
+                    if (operation != -1) {
+                        operations[length] = (byte) (operation >>> 32);
+                        operands[length++] = (int) operation;
+                    }
+                    continue;
+                }
+                character = escaped;
+            }
+            if (startIndex == -1) {
+                operations[length] = GLYPH;
+                operands[length++] = character;
+            }
+        }
+        return new TextRuns(operations, operands, length);
+    }
+
+    private static int escape(String tag) {
+        if (tag.equals(RSFont.startEffect)) {
+            return 60;
+        } else if (tag.equals(RSFont.endEffect)) {
+            return 62;
+        } else if (tag.equals(RSFont.aRSString_4135)) {
+            return 160;
+        } else if (tag.equals(RSFont.aRSString_4162)) {
+            return 173;
+        } else if (tag.equals(RSFont.aRSString_4165)) {
+            return 215;
+        } else if (tag.equals(RSFont.aRSString_4147)) {
+            return 128;
+        } else if (tag.equals(RSFont.aRSString_4163)) {
+            return 169;
+        } else if (tag.equals(RSFont.aRSString_4169)) {
+            return 174;
+        }
+        return -1;
+    }
+
+    /**
+     * Parses an effect tag the way {@link RSFont#setTextEffects(String)} applies it.
+     *
+     * @return the operation in the high word and its operand in the low word, or
+     * {@code -1} if the tag has no effect
+     */
+    private static long parseTag(String tag) {
+        try {
+            if (tag.startsWith(RSFont.startImage)) {
+                try {
+                    return operation(IMAGE, Integer.parseInt(tag.substring(4)));
+                } catch (NumberFormatException ex) {
+                    return operation(IMAGE, INVALID_IMAGE);
+                }
+            } else if (tag.startsWith(RSFont.startClanImage)) {
+                return operation(CLAN_IMAGE, Integer.parseInt(tag.substring(5)));
+            } else if (tag.startsWith(RSFont.startColor)) {
+                String colour = tag.substring(4);
+                return operation(COLOUR, colour.length() < 6 ? Color.decode(colour).getRGB() : Integer.parseInt(colour, 16));
+            } else if (tag.equals(RSFont.endColor)) {
+                return operation(END_COLOUR, 0);
+            } else if (tag.startsWith(RSFont.startTransparency)) {
+                return operation(TRANSPARENCY, Integer.parseInt(tag.substring(6)));
+            } else if (tag.equals(RSFont.endTransparency)) {
+                return operation(END_TRANSPARENCY, 0);
+            } else if (tag.startsWith(RSFont.startStrikethrough)) {
+                return operation(STRIKETHROUGH, Integer.parseInt(tag.substring(4)));
+            } else if (tag.equals(RSFont.defaultStrikethrough)) {
+                return operation(STRIKETHROUGH, 8388608);
+            } else if (tag.equals(RSFont.endStrikethrough)) {
+                return operation(END_STRIKETHROUGH, 0);
+            } else if (tag.startsWith(RSFont.startUnderline)) {
+                return operation(UNDERLINE, Integer.parseInt(tag.substring(2)));
+            } else if (tag.equals(RSFont.startDefaultUnderline)) {
+                return operation(UNDERLINE, 0);
+            } else if (tag.equals(RSFont.endUnderline)) {
+                return operation(END_UNDERLINE, 0);
+            } else if (tag.startsWith(RSFont.startShadow)) {
+                return operation(SHADOW, Integer.parseInt(tag.substring(5)));
+            } else if (tag.equals(RSFont.startDefaultShadow)) {
+                return operation(SHADOW, 0);
+            } else if (tag.equals(RSFont.endShadow)) {
+                return operation(END_SHADOW, 0);
+            } else if (tag.equals(RSFont.lineBreak)) {
+                return operation(LINE_BREAK, 0);
+            }
+        } catch (RuntimeException ex) {
+            /* malformed tags are ignored */
+        }
+        return -1;
+    }
+
+    private static long operation(int operation, int operand) {
+        return (long) operation << 32 | operand & 0xffffffffL;
+    }
+
+    private static Map<String, TextRuns> createCache() {
+        return new LinkedHashMap<String, TextRuns>(CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TextRuns> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        };
+    }
+}
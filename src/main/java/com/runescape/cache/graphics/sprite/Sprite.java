@@ -15,8 +15,10 @@ import java.awt.image.RGBImageFilter;
 import javax.swing.ImageIcon;
 
 import com.runescape.Client;
+import com.runescape.Configuration;
 import com.runescape.cache.FileArchive;
 import com.runescape.cache.graphics.IndexedImage;
+import com.runescape.draw.PixelBlender;
 import com.runescape.draw.Rasterizer2D;
 import com.runescape.engine.impl.MouseHandler;
 import com.runescape.io.Buffer;
@@ -37,6 +39,16 @@ public final class Sprite extends Rasterizer2D implements RSSpritePixels {
     private int drawOffsetX;
     private int identifier;
     private String name;
+    private boolean runLengthEncoded;
+    private SpriteRuns runs;
+
+    /**
+     * Sprite draw statistics for the previous frame, shown with the client data overlay.
+     */
+    public static int frameDrawCount;
+    public static long frameDrawNanos;
+    private static int drawCount;
+    private static long drawNanos;
 
     public Sprite(int width, int height, int offsetX, int offsetY, int[] pixels) {
         this.myWidth = width;
@@ -353,9 +365,47 @@ public final class Sprite extends Rasterizer2D implements RSSpritePixels {
         for (int index = 0; index < myPixels.length; index++)
             if (((myPixels[index] >> 16) & 255) == transRed && ((myPixels[index] >> 8) & 255) == transGreen && (myPixels[index] & 255) == transBlue)
                 myPixels[index] = 0;
+        runs = null;
+    }
+
+    /**
+     * Allows this sprite to be drawn from run-length encoded spans, built on its first draw.
+     * Only for sprites whose pixels are not written to outside of this class once loaded.
+     */
+    public void enableRunLengthEncoding() {
+        runLengthEncoded = true;
+    }
+
+    private SpriteRuns runs() {
+        if (!runLengthEncoded || !Configuration.spriteRunLengthEncoding) {
+            return null;
+        }
+        SpriteRuns current = runs;
+        if (current == null || current.pixels != myPixels || current.width != myWidth || current.height != myHeight) {
+            runs = current = SpriteRuns.encode(myPixels, myWidth, myHeight);
+        }
+        return current;
+    }
+
+    /**
+     * Moves the sprite draw statistics gathered since the last call into {@link #frameDrawCount}
+     * and {@link #frameDrawNanos}.
+     */
+    public static void finishFrameStatistics() {
+        frameDrawCount = drawCount;
+        frameDrawNanos = drawNanos;
+        drawCount = 0;
+        drawNanos = 0;
+    }
+
+    private static void recordDraw(long start) {
+        drawCount++;
+        drawNanos += System.nanoTime() - start;
     }
 
     public void init() {
+        runLengthEncoded = false;
+        runs = null;
         Rasterizer2D.initDrawingArea(myHeight, myWidth, myPixels);
     }
 
@@ -387,7 +437,7 @@ public final class Sprite extends Rasterizer2D implements RSSpritePixels {
                 myPixels[i1] = (k1 << 16) + (l1 << 8) + i2;
             }
         }
-
+        runs = null;
     }
 
     public void method345() {
@@ -708,6 +758,15 @@ public final class Sprite extends Rasterizer2D implements RSSpritePixels {
     }
 
     private void method349(int ai[], int ai1[], int j, int k, int l, int i1, int j1, int k1) {
+        long start = Configuration.clientData ? System.nanoTime() : 0L;
+        SpriteRuns runs = ai1 == myPixels ? runs() : null;
+        if (runs != null) {
+            runs.draw(ai, k, l + j1, j % myWidth, j / myWidth, l, i1, !Client.processGpuPlugin());
+            if (start != 0L) {
+                recordDraw(start);
+            }
+            return;
+        }
         int i;// was parameter
         int l1 = -(l >> 2);
         l = -(l & 3);
@@ -750,9 +809,21 @@ public final class Sprite extends Rasterizer2D implements RSSpritePixels {
             k += j1;
             j += k1;
         }
+        if (start != 0L) {
+            recordDraw(start);
+        }
     }
 
     private void method351(int i, int j, int ai[], int ai1[], int l, int i1, int j1, int k1, int l1) {
+        long start = Configuration.clientData ? System.nanoTime() : 0L;
+        SpriteRuns runs = ai1 == myPixels ? runs() : null;
+        if (runs != null && !runs.hasMaskPixels) {
+            runs.blend(ai, l1, j + j1, i % myWidth, i / myWidth, j, i1, k1, PixelBlender.enabled());
+            if (start != 0L) {
+                recordDraw(start);
+            }
+            return;
+        }
         int k;// was parameter
         int j2 = 256 - k1;
         for (int k2 = -i1; k2 < 0; k2++) {
@@ -769,6 +840,9 @@ public final class Sprite extends Rasterizer2D implements RSSpritePixels {
             l1 += j1;
             i += l;
         }
+        if (start != 0L) {
+            recordDraw(start);
+        }
     }
 
     public void rotate(int i, int j, int ai[], int k, int ai1[], int i1, int j1, int k1, int l1, int i2) {
@@ -953,6 +1027,18 @@ public final class Sprite extends Rasterizer2D implements RSSpritePixels {
         if (this == EMPTY_SPRITE) {
             return;
         }
+        long start = Configuration.clientData ? System.nanoTime() : 0L;
+        if (PixelBlender.enabled()) {
+            for (int height = 0; height < spriteHeight; height++) {
+                PixelBlender.blendArgb(spritePixels, i, renderAreaPixels, pixel, spriteWidth, alphaValue);
+                pixel += spriteWidth + j1;
+                i += spriteWidth + l;
+            }
+            if (start != 0L) {
+                recordDraw(start);
+            }
+            return;
+        }
         int pixelColor;
         int alphaLevel;
         int alpha = alphaValue;
@@ -981,6 +1067,9 @@ public final class Sprite extends Rasterizer2D implements RSSpritePixels {
             pixel += j1;
             i += l;
         }
+        if (start != 0L) {
+            recordDraw(start);
+        }
     }
 
     private void method355(int ai[], int i, byte abyte0[], int j, int ai1[], int k, int l, int i1, int j1, int k1) {
@@ -1041,8 +1130,7 @@ public final class Sprite extends Rasterizer2D implements RSSpritePixels {
                 }
 
         }
-
-
+        runs = null;
     }
 
     public void outline(int color) {
@@ -1083,6 +1171,7 @@ public final class Sprite extends Rasterizer2D implements RSSpritePixels {
                 }
             }
         }
+        runs = null;
     }
 
     public void cutL(int neww) {
@@ -1104,6 +1193,7 @@ public final class Sprite extends Rasterizer2D implements RSSpritePixels {
                 }
 
         }
+        runs = null;
     }
 
     public Image convertToImage() {
@@ -1248,6 +1338,11 @@ public final class Sprite extends Rasterizer2D implements RSSpritePixels {
         return myPixels;
     }
 
+    @Override
+    public int estimateBytes() {
+        return myPixels == null ? 64 : myPixels.length * 4 + 64;
+    }
+
     @Override
     public void setRaster() {
         init();
@@ -91,6 +91,7 @@ public final class SpriteCache implements Closeable {
                 final int[] pixels = ((DataBufferInt) bimage.getRaster().getDataBuffer()).getData();
 
                 final Sprite sprite = new Sprite(bimage.getWidth(), bimage.getHeight(), offsetX, offsetY, pixels);
+                sprite.enableRunLengthEncoding();
 
                 // cache so we don't have to perform I/O calls again
                 cache[id] = sprite;
@@ -0,0 +1,130 @@
+package com.runescape.cache.graphics.sprite;
+
+import com.runescape.draw.PixelBlender;
+import com.runescape.draw.Rasterizer2D;
+
+import java.util.Arrays;
+
+/**
+ * A run-length encoded view of a sprite's visible pixels.
+ *
+ * Each scanline stores the spans of pixels that are neither {@code 0} nor {@code -1},
+ * so drawing skips empty areas outright and copies visible spans in bulk.
+ */
+final class SpriteRuns {
+
+    final int[] pixels;
+    final int width;
+    final int height;
+
+    /**
+     * Whether the sprite contains {@code -1} pixels, which only some draw paths treat as transparent.
+     */
+    final boolean hasMaskPixels;
+
+    private final int[] rowOffsets;
+    private final int[] starts;
+    private final int[] ends;
+
+    private SpriteRuns(int[] pixels, int width, int height, boolean hasMaskPixels, int[] rowOffsets, int[] starts, int[] ends) {
+        this.pixels = pixels;
+        this.width = width;
+        this.height = height;
+        this.hasMaskPixels = hasMaskPixels;
+        this.rowOffsets = rowOffsets;
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    static SpriteRuns encode(int[] pixels, int width, int height) {
+        int[] rowOffsets = new int[height + 1];
+        int[] starts = new int[16];
+        int[] ends = new int[16];
+        int count = 0;
+        boolean hasMaskPixels = false;
+        for (int y = 0; y < height; y++) {
+            rowOffsets[y] = count;
+            int offset = y * width;
+            int x = 0;
+            while (x < width) {
+                int pixel = pixels[offset + x];
+                if (pixel == 0 || pixel == -1) {
+                    hasMaskPixels |= pixel == -1;
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < width && pixels[offset + x] != 0 && pixels[offset + x] != -1) {
+                    x++;
+                }
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count << 1);
+                    ends = Arrays.copyOf(ends, count << 1);
+                }
+                starts[count] = start;
+                ends[count] = x;
+                count++;
+            }
+        }
+        rowOffsets[height] = count;
+        return new SpriteRuns(pixels, width, height, hasMaskPixels,
+                rowOffsets, Arrays.copyOf(starts, count), Arrays.copyOf(ends, count));
+    }
+
+    /**
+     * Draws the visible spans of the {@code clipWidth} x {@code clipHeight} region starting at
+     * ({@code sourceX}, {@code sourceY}) to {@code destination}, starting at {@code destinationIndex}.
+     */
+    void draw(int[] destination, int destinationIndex, int destinationWidth, int sourceX, int sourceY, int clipWidth, int clipHeight, boolean copy) {
+        final int sourceEnd = sourceX + clipWidth;
+        for (int row = 0; row < clipHeight; row++) {
+            final int y = sourceY + row;
+            final int sourceRow = y * width;
+            final int destinationRow = destinationIndex + row * destinationWidth - sourceX;
+            for (int run = rowOffsets[y], last = rowOffsets[y + 1]; run < last; run++) {
+                final int start = Math.max(starts[run], sourceX);
+                final int end = Math.min(ends[run], sourceEnd);
+                if (start >= end) {
+                    continue;
+                }
+                if (copy) {
+                    System.arraycopy(pixels, sourceRow + start, destination, destinationRow + start, end - start);
+                } else {
+                    for (int x = start; x < end; x++) {
+                        Rasterizer2D.drawAlpha(destination, destinationRow + x, pixels[sourceRow + x], 255);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Blends the visible spans of the clipped region over {@code destination} with a constant opacity.
+     */
+    void blend(int[] destination, int destinationIndex, int destinationWidth, int sourceX, int sourceY, int clipWidth, int clipHeight, int opacity, boolean fast) {
+        final int transparency = 256 - opacity;
+        final int sourceEnd = sourceX + clipWidth;
+        for (int row = 0; row < clipHeight; row++) {
+            final int y = sourceY + row;
+            final int sourceRow = y * width;
+            final int destinationRow = destinationIndex + row * destinationWidth - sourceX;
+            for (int run = rowOffsets[y], last = rowOffsets[y + 1]; run < last; run++) {
+                final int start = Math.max(starts[run], sourceX);
+                final int end = Math.min(ends[run], sourceEnd);
+                if (start >= end) {
+                    continue;
+                }
+                if (fast) {
+                    PixelBlender.blend(pixels, sourceRow + start, destination, destinationRow + start, end - start, opacity);
+                    continue;
+                }
+                for (int x = start; x < end; x++) {
+                    final int colour = pixels[sourceRow + x];
+                    final int background = destination[destinationRow + x];
+                    Rasterizer2D.drawAlpha(destination, destinationRow + x, ((colour & 0xff00ff) * opacity + (background & 0xff00ff) * transparency & 0xff00ff00)
+                            + ((colour & 0xff00) * opacity + (background & 0xff00) * transparency & 0xff0000) >> 8, colour, opacity);
+                }
+            }
+        }
+    }
+}
@@ -12,6 +12,7 @@ import com.runescape.cache.graphics.GameFont;
 import com.runescape.cache.graphics.RSFont;
 import com.runescape.cache.graphics.Slider;
 import com.runescape.cache.graphics.sprite.Sprite;
+import com.runescape.collection.CacheManager;
 import com.runescape.collection.ReferenceCache;
 import com.runescape.draw.teleports.TeleportButton;
 import com.runescape.entity.model.Model;
@@ -56,7 +57,7 @@ public class Widget {
 	public static final int BEGIN_READING_PRAYER_INTERFACE = 6;// Amount of total custom prayers we've added
 	public static final int CUSTOM_PRAYER_HOVERS = 3; // Amount of custom prayer hovers we've added
 	public static final int PRAYER_INTERFACE_CHILDREN = 80 + BEGIN_READING_PRAYER_INTERFACE + CUSTOM_PRAYER_HOVERS;
-	private static final ReferenceCache models = new ReferenceCache(30);
+	private static final ReferenceCache models = CacheManager.register("Widget models", new ReferenceCache(30, 2 * 1024 * 1024));
 	private static final int LUNAR_RUNE_SPRITES_START = 232;
 	private static final int LUNAR_OFF_SPRITES_START = 246;
 	private static final int LUNAR_ON_SPRITES_START = 285;
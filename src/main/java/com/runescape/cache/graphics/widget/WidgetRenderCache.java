@@ -0,0 +1,283 @@
+package com.runescape.cache.graphics.widget;
+
+import com.runescape.Client;
+import com.runescape.Configuration;
+import com.runescape.draw.Rasterizer2D;
+import com.runescape.engine.impl.KeyHandler;
+import com.runescape.engine.impl.MouseHandler;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Retains the rendered pixels of widget containers between frames.
+ *
+ * A container is reused while the state hash of its subtree, the background stamp
+ * beneath it and the interface state version all match those it was drawn with. The
+ * version moves on every incoming packet other than entity updates and on any click or
+ * key press, which covers the values scripts read.
+ *
+ * The background stamp stands in for the pixels beneath a container. Each area of the
+ * frame starts from a stamp describing what was drawn there before its interfaces, and
+ * every container drawn folds its key into it, so a nested container's background is its
+ * parent's draw stamp. Areas drawn over the 3D scene have no stable stamp and are never
+ * retained. Containers whose stamp keeps changing anyway are left alone for a while.
+ */
+public final class WidgetRenderCache {
+
+    /**
+     * Returned by a state hash when part of the subtree animates or changes other state when drawn.
+     */
+    public static final long UNCACHEABLE = Long.MIN_VALUE;
+
+    private static final int MAX_PIXELS = 2_000_000;
+    private static final int VOLATILE_MISSES = 4;
+    private static final int VOLATILE_BACKOFF_FRAMES = 100;
+
+    private final Map<Integer, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private int totalPixels;
+    private int version;
+    private int frame;
+    private long lastPressed;
+    private int lastKeyIdleCycles;
+    private int incompleteDraws;
+    private long background = UNCACHEABLE;
+
+    private long[] hashes = new long[0];
+    private int[] hashFrames = new int[0];
+
+    private int frameRestored;
+    private int frameDrawn;
+    private int lastFrameRestored;
+    private int lastFrameDrawn;
+
+    public boolean isEnabled() {
+        return Configuration.widgetRenderCache && !Client.processGpuPlugin();
+    }
+
+    /**
+     * Starts a new frame, moving the version on if there was input since the last one.
+     */
+    public void beginFrame() {
+        if (MouseHandler.lastPressed != lastPressed || MouseHandler.currentButton != 0
+                || KeyHandler.idleCycles < lastKeyIdleCycles || KeyHandler.idleCycles < 2) {
+            version++;
+        }
+        lastPressed = MouseHandler.lastPressed;
+        lastKeyIdleCycles = KeyHandler.idleCycles;
+        lastFrameRestored = frameRestored;
+        lastFrameDrawn = frameDrawn;
+        frameRestored = 0;
+        frameDrawn = 0;
+        frame++;
+        background = UNCACHEABLE;
+    }
+
+    /**
+     * Starts drawing the interfaces of an area of the frame.
+     *
+     * @param background a stamp of what was drawn in the area beneath its interfaces, or
+     * {@link #UNCACHEABLE} if that changes every frame
+     */
+    public void beginArea(long background) {
+        this.background = background;
+    }
+
+    /**
+     * Whether {@link #cacheHash} was called for widget {@code id} this frame.
+     */
+    public boolean hasHash(int id) {
+        return id < hashFrames.length && hashFrames[id] == frame;
+    }
+
+    /**
+     * Returns the state hash cached for widget {@code id} this frame.
+     */
+    public long getHash(int id) {
+        return hashes[id];
+    }
+
+    /**
+     * Caches the state hash of widget {@code id} until the next frame.
+     */
+    public void cacheHash(int id, long hash) {
+        if (id >= hashFrames.length) {
+            final int size = Math.max(id + 1, hashFrames.length * 2);
+            hashes = Arrays.copyOf(hashes, size);
+            hashFrames = Arrays.copyOf(hashFrames, size);
+        }
+        hashes[id] = hash;
+        hashFrames[id] = frame;
+    }
+
+    /**
+     * Moves the version on, invalidating every retained container.
+     */
+    public void invalidate() {
+        version++;
+    }
+
+    /**
+     * Records that a draw was missing data still being loaded, so the containers
+     * being drawn must not be retained.
+     */
+    public void markIncomplete() {
+        incompleteDraws++;
+    }
+
+    /**
+     * Prepares to draw {@code widget} at ({@code x}, {@code y}), copying back its
+     * retained pixels if they are still valid.
+     *
+     * @return the draw to complete with {@link #capture}, or {@code null} if the widget
+     * was restored or is not retained
+     */
+    public Draw begin(Widget widget, int x, int y, int scroll, long stateHash) {
+        final long background = this.background;
+        if (stateHash == UNCACHEABLE || background == UNCACHEABLE) {
+            this.background = UNCACHEABLE;
+            frameDrawn++;
+            return null;
+        }
+        final int left = Math.max(x, 0);
+        final int top = Math.max(y, 0);
+        final int right = Math.min(x + widget.width, Rasterizer2D.width);
+        final int bottom = Math.min(y + widget.height, Rasterizer2D.height);
+        if (left >= right || top >= bottom) {
+            return null;
+        }
+        Entry entry = entries.get(widget.id);
+        if (entry != null && frame < entry.skipUntil) {
+            this.background = UNCACHEABLE;
+            frameDrawn++;
+            return null;
+        }
+        final long key = stateHash * 31 + version;
+        this.background = background * 31 + key;
+        if (entry != null && entry.matches(left, top, right, bottom, scroll, key, background)) {
+            final int width = right - left;
+            for (int row = 0; row < bottom - top; row++) {
+                System.arraycopy(entry.pixels, row * width, Rasterizer2D.pixels, (top + row) * Rasterizer2D.width + left, width);
+            }
+            entry.misses = 0;
+            this.background = entry.after;
+            frameRestored++;
+            return Draw.RESTORED;
+        }
+        frameDrawn++;
+        if (entry != null && entry.background != background && ++entry.misses >= VOLATILE_MISSES) {
+            entry.misses = 0;
+            entry.skipUntil = frame + VOLATILE_BACKOFF_FRAMES;
+            this.background = UNCACHEABLE;
+            return null;
+        }
+        return new Draw(widget.id, left, top, right, bottom, scroll, background, incompleteDraws);
+    }
+
+    /**
+     * Retains the pixels of a container that has just been drawn.
+     */
+    public void capture(Draw draw, long stateHash) {
+        if (draw == null || draw == Draw.RESTORED || stateHash == UNCACHEABLE || incompleteDraws != draw.incompleteDraws) {
+            return;
+        }
+        final int width = draw.right - draw.left;
+        final int height = draw.bottom - draw.top;
+        Entry entry = entries.get(draw.id);
+        if (entry == null || entry.pixels.length < width * height) {
+            if (entry != null) {
+                totalPixels -= entry.pixels.length;
+            }
+            int misses = entry != null ? entry.misses : 0;
+            entry = new Entry(new int[width * height]);
+            entry.misses = misses;
+            totalPixels += entry.pixels.length;
+            entries.put(draw.id, entry);
+            evict();
+        }
+        for (int row = 0; row < height; row++) {
+            System.arraycopy(Rasterizer2D.pixels, (draw.top + row) * Rasterizer2D.width + draw.left, entry.pixels, row * width, width);
+        }
+        entry.left = draw.left;
+        entry.top = draw.top;
+        entry.right = draw.right;
+        entry.bottom = draw.bottom;
+        entry.scroll = draw.scroll;
+        entry.key = stateHash * 31 + version;
+        entry.background = draw.background;
+        entry.after = background;
+        entry.raster = Rasterizer2D.pixels;
+    }
+
+    /**
+     * Returns the share of containers reused last frame.
+     */
+    public String getStatistics() {
+        final int total = lastFrameRestored + lastFrameDrawn;
+        return "Widgets reused: " + lastFrameRestored + "/" + total + " (" + (total > 0 ? lastFrameRestored * 100 / total : 0) + "%)";
+    }
+
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (totalPixels > MAX_PIXELS && iterator.hasNext()) {
+            totalPixels -= iterator.next().pixels.length;
+            iterator.remove();
+        }
+    }
+
+    public static final class Draw {
+
+        private static final Draw RESTORED = new Draw(-1, 0, 0, 0, 0, 0, 0, 0);
+
+        private final int id;
+        private final int left;
+        private final int top;
+        private final int right;
+        private final int bottom;
+        private final int scroll;
+        private final long background;
+        private final int incompleteDraws;
+
+        private Draw(int id, int left, int top, int right, int bottom, int scroll, long background, int incompleteDraws) {
+            this.id = id;
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+            this.scroll = scroll;
+            this.background = background;
+            this.incompleteDraws = incompleteDraws;
+        }
+
+        public boolean isRestored() {
+            return this == RESTORED;
+        }
+    }
+
+    private static final class Entry {
+
+        private final int[] pixels;
+        private int[] raster;
+        private int left;
+        private int top;
+        private int right;
+        private int bottom;
+        private int scroll;
+        private long key;
+        private long background;
+        private long after;
+        private int misses;
+        private int skipUntil;
+
+        private Entry(int[] pixels) {
+            this.pixels = pixels;
+        }
+
+        private boolean matches(int left, int top, int right, int bottom, int scroll, long key, long background) {
+            return raster == Rasterizer2D.pixels && this.left == left && this.top == top && this.right == right
+                    && this.bottom == bottom && this.scroll == scroll && this.key == key && this.background == background;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.runescape.collection;
+
+import com.runescape.Configuration;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shares one memory budget between the client's reference caches.
+ *
+ * Every cache keeps a quarter of the budget it was declared with, and the rest of the
+ * {@link Configuration#cacheBudgetMegabytes configured budget} is split by how much each
+ * cache has recently been worth: the bytes it served from hits, decayed by half on every
+ * rebalance. When the heap is still nearly full after a collection, every cache gives up
+ * half of what it holds, though never its declared quarter, instead of everything being
+ * flushed at once. The budgets grow back at the first rebalance after the pressure clears.
+ */
+public final class CacheManager {
+
+    private static final long REBALANCE_INTERVAL_NANOS = 10_000_000_000L;
+    private static final double HEAP_PRESSURE = 0.85;
+
+    private static final List<Entry> entries = new ArrayList<>();
+    private static long lastRebalance = System.nanoTime();
+    private static int pressureEvictions;
+
+    private CacheManager() {
+
+    }
+
+    /**
+     * Puts {@code cache} under the shared budget, keeping its current budget as the
+     * declared share it starts out with.
+     */
+    public static ReferenceCache register(String name, ReferenceCache cache) {
+        entries.add(new Entry(name, cache));
+        return cache;
+    }
+
+    /**
+     * Rebalances the caches if it has been a while since they last were.
+     */
+    public static void tick() {
+        if (System.nanoTime() - lastRebalance >= REBALANCE_INTERVAL_NANOS) {
+            rebalance();
+        }
+    }
+
+    /**
+     * Assigns every cache its share of the budget, evicting from caches that now hold more
+     * than their share.
+     */
+    public static void rebalance() {
+        lastRebalance = System.nanoTime();
+        if (isUnderPressure()) {
+            pressureEvictions++;
+            for (Entry entry : entries) {
+                entry.cache.setBudget(Math.max(entry.minimum(), entry.cache.getWeight() / 2));
+            }
+            return;
+        }
+        final long total = Configuration.cacheBudgetMegabytes * 1024L * 1024L;
+        long reserved = 0;
+        double value = 0;
+        for (Entry entry : entries) {
+            entry.sample();
+            reserved += entry.minimum();
+            value += entry.value;
+        }
+        final long shared = Math.max(0L, total - reserved);
+        for (Entry entry : entries) {
+            final double fraction = value > 0 ? entry.value / value : 1.0 / entries.size();
+            entry.cache.setBudget(entry.minimum() + (long) (shared * fraction));
+        }
+    }
+
+    /**
+     * Whether the heap was nearly full right after the last collection. The heap in use
+     * at any other time includes garbage not yet collected, so says little about pressure.
+     */
+    private static boolean isUnderPressure() {
+        final long live = liveHeap();
+        return live >= 0 && live > Runtime.getRuntime().maxMemory() * HEAP_PRESSURE;
+    }
+
+    /**
+     * Returns the heap in use after each pool was last collected, or -1 if no pool says.
+     */
+    private static long liveHeap() {
+        long live = -1;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP) {
+                continue;
+            }
+            final MemoryUsage usage = pool.getCollectionUsage();
+            if (usage != null) {
+                live = Math.max(live, 0) + usage.getUsed();
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Describes the heap, the budget and every cache's occupancy and hit rate, one line each.
+     */
+    public static List<String> describe() {
+        final Runtime runtime = Runtime.getRuntime();
+        final List<String> lines = new ArrayList<>();
+        lines.add("Heap " + (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024) + "/" + runtime.maxMemory() / (1024 * 1024)
+                + "MB, " + Math.max(0L, liveHeap()) / (1024 * 1024) + "MB after GC, cache budget " + Configuration.cacheBudgetMegabytes + "MB, pressure evictions " + pressureEvictions);
+        for (Entry entry : entries) {
+            final ReferenceCache cache = entry.cache;
+            final long lookups = cache.getHits() + cache.getMisses();
+            lines.add(entry.name + ": " + cache.size() + "/" + cache.getCapacity() + ", " + cache.getWeight() / 1024 + "/"
+                    + cache.getBudget() / 1024 + "KB, hit " + (lookups == 0 ? 0 : cache.getHits() * 100 / lookups)
+                    + "%, evicted " + cache.getEvictions());
+        }
+        return lines;
+    }
+
+    private static final class Entry {
+
+        private final String name;
+        private final ReferenceCache cache;
+        private final long declared;
+        private long lastHits;
+        private double value;
+
+        private Entry(String name, ReferenceCache cache) {
+            this.name = name;
+            this.cache = cache;
+            this.declared = cache.getBudget();
+        }
+
+        private long minimum() {
+            return declared / 4;
+        }
+
+        private void sample() {
+            final long hits = cache.getHits() - lastHits;
+            lastHits = cache.getHits();
+            final long averageBytes = cache.size() == 0 ? 0 : cache.getWeight() / cache.size();
+            value = value / 2 + (double) hits * averageBytes;
+        }
+    }
+}
@@ -5,6 +5,13 @@ public class Cacheable extends Linkable {
     public Cacheable nextCacheable;
     public Cacheable previousCacheable;
 
+    /**
+     * Roughly the memory held by this node, used to weigh it in a {@link ReferenceCache}.
+     */
+    public int estimateBytes() {
+        return 64;
+    }
+
     public final void unlinkCacheable() {
         if (previousCacheable == null) {
         } else {
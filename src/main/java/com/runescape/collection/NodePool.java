@@ -0,0 +1,141 @@
+package com.runescape.collection;
+
+import com.runescape.Configuration;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Keeps released nodes of one kind for reuse, so the short lived nodes made for every
+ * combat effect don't have to be allocated and collected each time.
+ *
+ * At most {@code capacity} free nodes are kept; nodes released beyond that are left to the
+ * garbage collector. Nodes are only reused while {@link Configuration#pooledEffects} is on.
+ *
+ * With {@link Configuration#debugNodePools} on, the pool remembers where each node it hands
+ * out was acquired. A node that is neither linked into a deque nor released again has been
+ * dropped, and is reported by {@link #leaks()}. A node released twice is reported straight
+ * away, as it would otherwise be handed out twice.
+ */
+public final class NodePool<T extends Linkable> {
+
+    private static final List<NodePool<?>> pools = new ArrayList<>();
+
+    private final String name;
+    private final Supplier<T> factory;
+    private final Linkable[] free;
+    private int size;
+    private long created;
+    private long reused;
+    private long dropped;
+    private final Map<Linkable, Throwable> outstanding = new IdentityHashMap<>();
+
+    public NodePool(String name, int capacity, Supplier<T> factory) {
+        this(name, capacity, factory, true);
+    }
+
+    /**
+     * @param listed whether {@link #describeAll()} reports the pool, which pools made for a
+     *               benchmark are not
+     */
+    public NodePool(String name, int capacity, Supplier<T> factory, boolean listed) {
+        this.name = name;
+        this.factory = factory;
+        free = new Linkable[capacity];
+        if (listed)
+            pools.add(this);
+    }
+
+    /**
+     * Returns a node for the caller to reset, reusing a released one if there is one.
+     */
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        T node;
+        if (size > 0 && Configuration.pooledEffects) {
+            node = (T) free[--size];
+            free[size] = null;
+            reused++;
+        } else {
+            node = factory.get();
+            created++;
+        }
+        if (Configuration.debugNodePools)
+            outstanding.put(node, new Throwable("Acquired from " + name + " pool"));
+        return node;
+    }
+
+    /**
+     * Unlinks a node that is no longer used and keeps it for reuse.
+     */
+    public void release(T node) {
+        node.unlink();
+        if (Configuration.debugNodePools && outstanding.remove(node) == null) {
+            for (int index = 0; index < size; index++) {
+                if (free[index] == node) {
+                    new IllegalStateException(name + " node released twice").printStackTrace();
+                    return;
+                }
+            }
+        }
+        if (size < free.length && Configuration.pooledEffects) {
+            free[size++] = node;
+        } else {
+            dropped++;
+        }
+    }
+
+    /**
+     * Releases every node of {@code deque}, leaving it empty.
+     */
+    @SuppressWarnings("unchecked")
+    public void releaseAll(Deque deque) {
+        for (Linkable node = deque.popHead(); node != null; node = deque.popHead()) {
+            release((T) node);
+        }
+    }
+
+    /**
+     * Returns where the nodes that were dropped without being released were acquired.
+     */
+    public List<Throwable> leaks() {
+        final List<Throwable> leaks = new ArrayList<>();
+        for (Map.Entry<Linkable, Throwable> entry : outstanding.entrySet()) {
+            if (entry.getKey().next == null)
+                leaks.add(entry.getValue());
+        }
+        return leaks;
+    }
+
+    /**
+     * Forgets the nodes handed out so far, so only later ones are checked for leaks.
+     */
+    public void forgetOutstanding() {
+        outstanding.clear();
+    }
+
+    public String describe() {
+        return name + ": " + created + " created, " + reused + " reused, " + dropped + " dropped, " + size + "/"
+                + free.length + " free" + (Configuration.debugNodePools ? ", " + leaks().size() + " leaked" : "");
+    }
+
+    /**
+     * Describes every pool, with the first lines of where each leaked node was acquired.
+     */
+    public static List<String> describeAll() {
+        final List<String> lines = new ArrayList<>();
+        for (NodePool<?> pool : pools) {
+            lines.add(pool.describe());
+            if (!Configuration.debugNodePools)
+                continue;
+            for (Throwable leak : pool.leaks()) {
+                final StackTraceElement[] trace = leak.getStackTrace();
+                lines.add("  leaked from " + (trace.length > 1 ? trace[1] : "?"));
+            }
+        }
+        return lines;
+    }
+}
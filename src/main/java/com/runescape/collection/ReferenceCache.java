@@ -1,42 +1,60 @@
 package com.runescape.collection;
 
+import java.util.Arrays;
+
 /**
- * A least-recently used cache of references, backed by a {@link HashTable} and a {@link Queue}.
+ * A least-recently used cache of references keyed by {@code long}.
+ *
+ * References are held in an open addressing table with linear probing, and a {@link Queue}
+ * keeps them in the order they were last used. The cache is bounded both by a number of
+ * entries and by the memory its entries are estimated to hold, so a handful of large models
+ * cannot take up as much as hundreds of small ones.
  */
 public final class ReferenceCache {
 
+    private static final int INITIAL_SLOTS = 64;
+
     /**
-     * The empty cacheable.
-     */
-    private final Cacheable empty;
-    /**
-     * The capacity of this cache.
+     * The maximum number of references held by this cache.
      */
     private final int capacity;
     /**
-     * The HashTable backing this cache.
+     * The maximum estimated bytes held by this cache.
      */
-    private final HashTable table;
+    private long budget;
     /**
      * The queue of references, used for LRU behaviour.
      */
-    private final Queue references;
+    private final Queue references = new Queue();
+
+    private long[] keys = new long[INITIAL_SLOTS];
+    private Cacheable[] values = new Cacheable[INITIAL_SLOTS];
+    private int[] weights = new int[INITIAL_SLOTS];
+    private int size;
+    private long weight;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
     /**
-     * The amount of unused slots in this cache.
+     * Creates the ReferenceCache.
+     *
+     * @param capacity The capacity of this cache.
      */
-    private int spaceLeft;
+    public ReferenceCache(int capacity) {
+        this(capacity, Long.MAX_VALUE);
+    }
 
     /**
      * Creates the ReferenceCache.
      *
      * @param capacity The capacity of this cache.
+     * @param budget   The estimated bytes this cache may hold before evicting.
      */
-    public ReferenceCache(int i) {
-        empty = new Cacheable();
-        references = new Queue();
-        capacity = i;
-        spaceLeft = i;
-        table = new HashTable();
+    public ReferenceCache(int capacity, long budget) {
+        this.capacity = capacity;
+        this.budget = budget;
     }
 
     /**
@@ -46,49 +64,200 @@ public final class ReferenceCache {
      * @return The Cacheable.
      */
     public Cacheable get(long key) {
-        Cacheable cacheable = (Cacheable) table.get(key);
-        if (cacheable != null) {
-            references.insertHead(cacheable);
+        final int slot = find(key);
+        if (slot < 0) {
+            misses++;
+            return null;
         }
+        hits++;
+        final Cacheable cacheable = values[slot];
+        references.insertHead(cacheable);
         return cacheable;
     }
 
     public void put(Cacheable node, long key) {
-        try {
-            if (spaceLeft == 0) {
-                Cacheable front = references.popTail();
-                front.unlink();
-                front.unlinkCacheable();
-                if (front == empty) {
-                    front = references.popTail();
-                    front.unlink();
-                    front.unlinkCacheable();
-                }
-            } else {
-                spaceLeft--;
+        remove(key);
+        if ((size + 1) * 2 > values.length) {
+            resize(values.length * 2);
+        }
+        int slot = slot(key);
+        while (values[slot] != null) {
+            slot = slot + 1 & values.length - 1;
+        }
+        final int bytes = node.estimateBytes();
+        keys[slot] = key;
+        values[slot] = node;
+        weights[slot] = bytes;
+        size++;
+        weight += bytes;
+        node.key = key;
+        references.insertHead(node);
+        while ((size > capacity || weight > budget) && size > 1) {
+            final Cacheable eldest = references.popTail();
+            if (eldest == null) {
+                break;
             }
-            table.put(node, key);
-            references.insertHead(node);
-            return;
-        } catch (RuntimeException runtimeexception) {
-            System.out.println("47547, " + node + ", " + key + ", " + (byte) 2 + ", " + runtimeexception.toString());
+            if (eldest == node) {
+                references.insertHead(node);
+                break;
+            }
+            removeSlot(indexOf(eldest));
+            evictions++;
+        }
+    }
+
+    /**
+     * Removes the {@link Cacheable} with the specified key.
+     *
+     * @param key The key.
+     * @return The removed Cacheable, or {@code null} if there was none.
+     */
+    public Cacheable remove(long key) {
+        final int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        final Cacheable cacheable = values[slot];
+        cacheable.unlinkCacheable();
+        removeSlot(slot);
+        return cacheable;
+    }
+
+    /**
+     * Changes the estimated bytes this cache may hold, evicting the least recently used
+     * references until it fits.
+     */
+    public void setBudget(long budget) {
+        this.budget = budget;
+        while (weight > budget && size > 0) {
+            final Cacheable eldest = references.popTail();
+            if (eldest == null) {
+                break;
+            }
+            removeSlot(indexOf(eldest));
+            evictions++;
         }
-        throw new RuntimeException();
     }
 
     /**
      * Clears the contents of this ReferenceCache.
      */
     public void clear() {
-        do {
-            Cacheable front = references.popTail();
-            if (front != null) {
-                front.unlink();
-                front.unlinkCacheable();
-            } else {
-                spaceLeft = capacity;
-                return;
+        while (references.popTail() != null) {
+        }
+        Arrays.fill(values, null);
+        size = 0;
+        weight = 0;
+    }
+
+    private int slot(long key) {
+        final long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ hash >>> 32) & values.length - 1;
+    }
+
+    private int find(long key) {
+        for (int slot = slot(key); values[slot] != null; slot = slot + 1 & values.length - 1) {
+            if (keys[slot] == key) {
+                return slot;
             }
-        } while (true);
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the slot of a node about to be evicted, falling back to a scan should its key
+     * have been changed since it was put.
+     */
+    private int indexOf(Cacheable node) {
+        final int slot = find(node.key);
+        if (slot >= 0 && values[slot] == node) {
+            return slot;
+        }
+        for (int index = 0; index < values.length; index++) {
+            if (values[index] == node) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Empties a slot and shifts back any entries that probed past it, so lookups never stop
+     * at a gap short of their key.
+     */
+    private void removeSlot(int slot) {
+        if (slot < 0) {
+            return;
+        }
+        size--;
+        weight -= weights[slot];
+        final int mask = values.length - 1;
+        int gap = slot;
+        for (int next = gap + 1 & mask; values[next] != null; next = next + 1 & mask) {
+            final int home = slot(keys[next]);
+            if ((next - home & mask) >= (next - gap & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                weights[gap] = weights[next];
+                gap = next;
+            }
+        }
+        values[gap] = null;
+    }
+
+    private void resize(int slots) {
+        final long[] oldKeys = keys;
+        final Cacheable[] oldValues = values;
+        final int[] oldWeights = weights;
+        keys = new long[slots];
+        values = new Cacheable[slots];
+        weights = new int[slots];
+        for (int index = 0; index < oldValues.length; index++) {
+            if (oldValues[index] == null) {
+                continue;
+            }
+            int slot = slot(oldKeys[index]);
+            while (values[slot] != null) {
+                slot = slot + 1 & slots - 1;
+            }
+            keys[slot] = oldKeys[index];
+            values[slot] = oldValues[index];
+            weights[slot] = oldWeights[index];
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+
+    public long getWeight() {
+        return weight;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the hit rate, evictions and estimated memory of this cache.
+     */
+    public String getStatistics() {
+        return "hits " + hits + "/" + (hits + misses) + ", evicted " + evictions + ", held " + size + " (~" + weight / 1024 + "KB)";
     }
 }
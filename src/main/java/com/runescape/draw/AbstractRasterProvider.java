@@ -2,10 +2,17 @@ package com.runescape.draw;
 
 import net.runelite.rs.api.RSAbstractRasterProvider;
 
+import java.awt.Rectangle;
+
 public abstract class AbstractRasterProvider implements RSAbstractRasterProvider {
     public int[] pixels;
     public int width;
     public int height;
+    private boolean fullyDirty = true;
+    private int dirtyMinX = Integer.MAX_VALUE;
+    private int dirtyMinY = Integer.MAX_VALUE;
+    private int dirtyMaxX;
+    private int dirtyMaxY;
     public abstract void drawFull(int var1, int var2);
     public abstract void draw(int var1, int var2, int var3, int var4);
 
@@ -13,4 +20,38 @@ public abstract class AbstractRasterProvider implements RSAbstractRasterProvider
         Rasterizer2D.initDrawingArea(this.height, this.width,this.pixels); // L: 11
     }
 
+    /**
+     * Records that a region of the buffer changed and has to be presented.
+     */
+    public final void markDirty(int x, int y, int width, int height) {
+        dirtyMinX = Math.min(dirtyMinX, x);
+        dirtyMinY = Math.min(dirtyMinY, y);
+        dirtyMaxX = Math.max(dirtyMaxX, x + width);
+        dirtyMaxY = Math.max(dirtyMaxY, y + height);
+    }
+
+    /**
+     * Records that the whole buffer has to be presented.
+     */
+    public final void markFullyDirty() {
+        fullyDirty = true;
+    }
+
+    /**
+     * Returns the bounds of the regions changed since the last call, or {@code null}
+     * if the whole buffer has to be presented. Frames that mark nothing are presented in full.
+     */
+    public final Rectangle takeDirtyBounds() {
+        Rectangle bounds = null;
+        if (!fullyDirty && dirtyMinX < dirtyMaxX && dirtyMinY < dirtyMaxY) {
+            bounds = new Rectangle(dirtyMinX, dirtyMinY, dirtyMaxX - dirtyMinX, dirtyMaxY - dirtyMinY);
+        }
+        fullyDirty = false;
+        dirtyMinX = Integer.MAX_VALUE;
+        dirtyMinY = Integer.MAX_VALUE;
+        dirtyMaxX = 0;
+        dirtyMaxY = 0;
+        return bounds;
+    }
+
 }
@@ -0,0 +1,117 @@
+package com.runescape.draw;
+
+import com.runescape.Configuration;
+import com.runescape.cache.graphics.sprite.Sprite;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Times the transparent UI composites of a fixed and a resizable frame with the
+ * scalar and the row blending paths, and checks both produce the same pixels.
+ *
+ * Run from the developer console with {@code blendbench}.
+ */
+public final class BlendBenchmark {
+
+    private static final int WARMUP_FRAMES = 200;
+    private static final int FRAMES = 500;
+
+    private BlendBenchmark() {
+
+    }
+
+    public static List<String> run() {
+        List<String> results = new ArrayList<>();
+        int[] savedPixels = Rasterizer2D.pixels;
+        int savedWidth = Rasterizer2D.width;
+        int savedHeight = Rasterizer2D.height;
+        int savedLeftX = Rasterizer2D.leftX;
+        int savedTopY = Rasterizer2D.topY;
+        int savedBottomX = Rasterizer2D.bottomX;
+        int savedBottomY = Rasterizer2D.bottomY;
+        boolean savedFastBlending = Configuration.fastBlending;
+        try {
+            results.add(measure("Fixed", 765, 503, false));
+            results.add(measure("Resizable", 1280, 720, true));
+        } finally {
+            Configuration.fastBlending = savedFastBlending;
+            Rasterizer2D.initDrawingArea(savedHeight, savedWidth, savedPixels);
+            Rasterizer2D.setDrawingArea(savedBottomY, savedLeftX, savedBottomX, savedTopY);
+        }
+        return results;
+    }
+
+    private static String measure(String name, int width, int height, boolean resizable) {
+        int[] scalar = new int[width * height];
+        int[] fast = new int[width * height];
+        Sprite orb = createSprite(57, 34);
+        Sprite icon = createSprite(32, 32);
+
+        Configuration.fastBlending = false;
+        long scalarTime = time(scalar, width, height, resizable, orb, icon);
+        Configuration.fastBlending = true;
+        long fastTime = time(fast, width, height, resizable, orb, icon);
+
+        boolean identical = Arrays.equals(scalar, fast);
+        return name + " " + width + "x" + height + ": scalar " + scalarTime / 1000 + "us, row "
+                + fastTime / 1000 + "us per frame, identical=" + identical;
+    }
+
+    private static long time(int[] pixels, int width, int height, boolean resizable, Sprite orb, Sprite icon) {
+        Arrays.fill(pixels, 0x3a3226);
+        Rasterizer2D.initDrawingArea(height, width, pixels);
+        for (int frame = 0; frame < WARMUP_FRAMES; frame++) {
+            compose(width, height, resizable, orb, icon);
+        }
+        Arrays.fill(pixels, 0x3a3226);
+        long start = System.nanoTime();
+        for (int frame = 0; frame < FRAMES; frame++) {
+            compose(width, height, resizable, orb, icon);
+        }
+        return (System.nanoTime() - start) / FRAMES;
+    }
+
+    /**
+     * Approximates the transparent layers drawn over the game frame each cycle:
+     * the chat backdrop, tab area, tooltips, orbs and hover highlights.
+     */
+    private static void compose(int width, int height, boolean resizable, Sprite orb, Sprite icon) {
+        int chatY = height - 165;
+        Rasterizer2D.drawTransparentGradientBox(7, chatY + 7, 510, 130, 0x00000000, 0x5A000000, 20);
+        Rasterizer2D.drawTransparentBox(7, chatY + 7, 506, 130, 0x4D5041, 80);
+        for (int line = 0; line < 8; line++) {
+            Rasterizer2D.drawTransparentHorizontalLine(7, chatY + 20 + line * 14, 506, 0x807660, 60);
+        }
+        if (resizable) {
+            Rasterizer2D.drawTransparentBox(width - 217, height - 304, 195, 270, 0x3E3529, 80);
+        } else {
+            Rasterizer2D.drawTransparentBox(553, 205, 190, 261, 0x3E3529, 256);
+        }
+        Rasterizer2D.drawTransparentBox(10, 10, 174, 68, 0, 220);
+        for (int index = 0; index < 4; index++) {
+            orb.drawAdvancedSprite(width - 210 + (index & 1) * 60, 40 + index * 35);
+        }
+        for (int index = 0; index < 14; index++) {
+            icon.drawAdvancedSprite(width - 240 + (index % 7) * 33, height - 36 - (index / 7) * 300, 200);
+        }
+    }
+
+    private static Sprite createSprite(int width, int height) {
+        Sprite sprite = new Sprite(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int dx = x - width / 2;
+                int dy = y - height / 2;
+                int distance = dx * dx + dy * dy;
+                int radius = width * width / 4;
+                if (distance < radius) {
+                    int alpha = 255 - distance * 255 / radius;
+                    sprite.myPixels[x + y * width] = alpha << 24 | (x * 7 & 0xff) << 16 | (y * 5 & 0xff) << 8 | 0x40;
+                }
+            }
+        }
+        return sprite;
+    }
+}
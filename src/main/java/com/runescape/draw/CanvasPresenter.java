@@ -0,0 +1,183 @@
+package com.runescape.draw;
+
+import com.runescape.Client;
+
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferStrategy;
+import java.awt.image.VolatileImage;
+
+/**
+ * Presents frames through an accelerated surface instead of blitting the pixel buffer
+ * straight to the canvas.
+ *
+ * Each frame only the dirty region is uploaded to a cached {@link VolatileImage}, which
+ * is then drawn to the back buffer of a page flipping {@link BufferStrategy}. Canvases
+ * that cannot have a buffer strategy get the volatile image drawn to them directly. If
+ * anything fails the presenter disables itself and callers fall back to a plain blit.
+ *
+ * The client has a single presenter, which owns the buffer strategy. Frames presented
+ * from the client thread and from the {@link FramePresenter} thread both go through it,
+ * one at a time.
+ */
+public final class CanvasPresenter {
+
+    private Component canvas;
+    private VolatileImage surface;
+    private BufferStrategy strategy;
+    private boolean disabled;
+    private volatile long lastPresentNanos;
+    private volatile long lastUploadedPixels;
+
+    /**
+     * Presents the top left {@code width} x {@code height} of {@code source} to {@code canvas}.
+     *
+     * @param dirty the region changed since the previous frame, or {@code null} to upload the whole frame
+     * @param stretched the size to scale the frame to, or {@code null} to draw it unscaled
+     * @return {@code false} if the frame was not presented and the caller has to blit it itself
+     */
+    public synchronized boolean present(Component canvas, Image source, int width, int height, Rectangle dirty,
+                           Dimension stretched, boolean fastScaling) {
+        if (disabled) {
+            return false;
+        }
+        final long start = System.nanoTime();
+        try {
+            final GraphicsConfiguration configuration = canvas.getGraphicsConfiguration();
+            if (configuration == null || !canvas.isDisplayable()) {
+                // The frame is blitted elsewhere, so the next one has to be uploaded in full
+                this.canvas = null;
+                return false;
+            }
+            boolean full = dirty == null || canvas != this.canvas;
+            if (canvas != this.canvas) {
+                this.canvas = canvas;
+                strategy = null;
+            }
+            final int status = surface == null ? VolatileImage.IMAGE_INCOMPATIBLE : surface.validate(configuration);
+            if (status == VolatileImage.IMAGE_RESTORED) {
+                full = true;
+            }
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE || surface.getWidth() != width || surface.getHeight() != height) {
+                if (surface != null) {
+                    surface.flush();
+                }
+                surface = configuration.createCompatibleVolatileImage(width, height);
+                surface.validate(configuration);
+                full = true;
+            }
+            for (int attempt = 0; attempt < 2; attempt++) {
+                upload(source, width, height, full ? null : dirty);
+                if (!surface.contentsLost()) {
+                    break;
+                }
+                surface.validate(configuration);
+                full = true;
+            }
+            if (canvas instanceof Canvas && strategy == null) {
+                final Canvas awtCanvas = (Canvas) canvas;
+                if (awtCanvas.getBufferStrategy() == null) {
+                    awtCanvas.createBufferStrategy(2);
+                }
+                strategy = awtCanvas.getBufferStrategy();
+            }
+            if (strategy != null) {
+                do {
+                    do {
+                        final Graphics graphics = strategy.getDrawGraphics();
+                        blit(graphics, canvas, width, height, stretched, fastScaling);
+                        graphics.dispose();
+                    } while (strategy.contentsRestored());
+                    strategy.show();
+                } while (strategy.contentsLost());
+            } else {
+                final Graphics graphics = canvas.getGraphics();
+                if (graphics == null) {
+                    return false;
+                }
+                if (stretched == null && dirty != null && !full) {
+                    graphics.clipRect(dirty.x, dirty.y, dirty.width, dirty.height);
+                }
+                blit(graphics, canvas, width, height, stretched, fastScaling);
+                graphics.dispose();
+            }
+            return true;
+        } catch (Exception ex) {
+            Client.instance.getLogger().warn("accelerated presentation failed, falling back to a plain blit", ex);
+            disabled = true;
+            return false;
+        } finally {
+            lastPresentNanos = System.nanoTime() - start;
+        }
+    }
+
+    private void upload(Image source, int width, int height, Rectangle dirty) {
+        final Graphics2D graphics = surface.createGraphics();
+        if (dirty != null) {
+            graphics.clipRect(dirty.x, dirty.y, dirty.width, dirty.height);
+            lastUploadedPixels = (long) dirty.width * dirty.height;
+        } else {
+            lastUploadedPixels = (long) width * height;
+        }
+        graphics.drawImage(source, 0, 0, width, height, 0, 0, width, height, null);
+        graphics.dispose();
+    }
+
+    private void blit(Graphics graphics, Component canvas, int width, int height, Dimension stretched, boolean fastScaling) {
+        if (stretched == null) {
+            graphics.drawImage(surface, 0, 0, null);
+            return;
+        }
+        if (stretched.width < canvas.getWidth() || stretched.height < canvas.getHeight()) {
+            graphics.setColor(Color.BLACK);
+            graphics.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        }
+        ((Graphics2D) graphics).setRenderingHint(RenderingHints.KEY_INTERPOLATION, fastScaling
+                ? RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR : RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(surface, 0, 0, stretched.width, stretched.height, 0, 0, width, height, null);
+    }
+
+    /**
+     * Uploads the whole of the next frame, for when a frame's changes were never presented.
+     */
+    public synchronized void uploadFully() {
+        canvas = null;
+    }
+
+    /**
+     * Removes the buffer strategy from the canvas, for the screens painted straight to the
+     * canvas graphics. The next present creates it again.
+     */
+    public synchronized void releaseStrategy() {
+        if (strategy != null) {
+            strategy.dispose();
+            strategy = null;
+        }
+        canvas = null;
+    }
+
+    public boolean isDisabled() {
+        return disabled;
+    }
+
+    public long getLastPresentNanos() {
+        return lastPresentNanos;
+    }
+
+    /**
+     * Returns a summary of the last present: how long it took, what it presented to and
+     * how much of the frame it uploaded.
+     */
+    public String getStatistics() {
+        return "Present: " + lastPresentNanos / 1000 + "us via " + (disabled ? "blit" : strategy != null ? "page flip" : "volatile image")
+                + ", uploaded " + lastUploadedPixels + " px";
+    }
+}
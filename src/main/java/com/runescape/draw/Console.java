@@ -10,11 +10,18 @@ import com.runescape.Client;
 import com.runescape.Configuration;
 import com.runescape.cache.FileArchive;
 import com.runescape.cache.def.ItemDefinition;
+import com.runescape.cache.def.LitModelCache;
 import com.runescape.cache.def.NpcDefinition;
 import com.runescape.cache.def.ObjectDefinition;
 import com.runescape.cache.graphics.GameFont;
 import com.runescape.cache.graphics.RSFont;
 import com.runescape.cache.graphics.widget.Widget;
+import com.runescape.collection.CacheManager;
+import com.runescape.collection.NodePool;
+import com.runescape.engine.GameEngine;
+import com.runescape.entity.model.PoseCache;
+import com.runescape.scene.CollisionMap;
+import com.runescape.scene.EffectBenchmark;
 
 public class Console {
 
@@ -161,6 +168,51 @@ public class Console {
 		case "grid":
 			Client.enableGridOverlay = !Client.enableGridOverlay;
 			break;
+		case "frametimes":
+			printMessage(GameEngine.frameTimes.toString(), 1);
+			GameEngine.frameTimes.reset();
+			break;
+		case "caches":
+			for (String line : CacheManager.describe()) {
+				printMessage(line, 1);
+			}
+			printMessage(LitModelCache.getStatistics(), 1);
+			printMessage(PoseCache.getStatistics(), 1);
+			break;
+		case "regionbench":
+			if (Client.instance.getLastRegionBuild() == null) {
+				printMessage("No region has been built yet.", 1);
+				break;
+			}
+			for (String result : Client.instance.getLastRegionBuild().benchmark()) {
+				printMessage(result, 1);
+			}
+			break;
+		case "pathbench":
+			if (!Client.loggedIn) {
+				printMessage("Log in to benchmark paths in the current region.", 1);
+				break;
+			}
+			for (String result : Client.instance.getPathFinder()
+					.benchmark((CollisionMap) Client.instance.getCollisionMaps()[Client.instance.getPlane()])) {
+				printMessage(result, 1);
+			}
+			break;
+		case "blendbench":
+			for (String result : BlendBenchmark.run()) {
+				printMessage(result, 1);
+			}
+			break;
+		case "pools":
+			for (String line : NodePool.describeAll()) {
+				printMessage(line, 1);
+			}
+			break;
+		case "effectbench":
+			for (String result : EffectBenchmark.run()) {
+				printMessage(result, 1);
+			}
+			break;
 		default:
 			/** Server commands **/
 			if (Client.loggedIn) {
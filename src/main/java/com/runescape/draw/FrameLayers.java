@@ -0,0 +1,129 @@
+package com.runescape.draw;
+
+import com.runescape.Client;
+import com.runescape.engine.impl.KeyHandler;
+import com.runescape.engine.impl.MouseHandler;
+
+/**
+ * The retained layers of the fixed game frame: the chat area, the tab area and the
+ * minimap with its orbs.
+ *
+ * Each frame {@link #begin} drops the layers whose inputs may have changed in ways
+ * their signatures do not capture: the mouse hovering them, clicks and key presses.
+ * Incoming packets drop every layer through {@link #invalidate()}. Menus are drawn
+ * after the layers are retained, so they only force the whole frame to be presented.
+ * Regions that are drawn again are marked dirty on the raster provider so only they
+ * and the viewport have to be presented.
+ */
+public final class FrameLayers {
+
+    private static final int STATISTICS_FRAMES = 50;
+
+    public final RetainedLayer chatArea = new RetainedLayer("Chat");
+    public final RetainedLayer tabArea = new RetainedLayer("Tabs");
+    public final RetainedLayer minimap = new RetainedLayer("Minimap");
+
+    private final RetainedLayer[] layers = {chatArea, tabArea, minimap};
+
+    private boolean active;
+    private boolean presentFully = true;
+    private boolean interacting;
+    private boolean menuWasShown;
+    private int lastMouseX = -1;
+    private int lastMouseY = -1;
+    private long lastPressed;
+    private int lastKeyIdleCycles;
+    private int frames;
+    private String statistics = "";
+
+    public FrameLayers() {
+        chatArea.setBounds(0, 338, 516, 165);
+        tabArea.setBounds(516, 168, 249, 335);
+        minimap.setBounds(516, 0, 249, 168);
+    }
+
+    /**
+     * Prepares the layers for a new frame.
+     *
+     * @param enabled whether the layers may be reused this frame
+     * @param menuShown whether a right-click or hover menu is drawn over the frame
+     */
+    public void begin(boolean enabled, boolean menuShown) {
+        active = enabled;
+        if (!enabled) {
+            invalidate();
+            presentFully = true;
+            return;
+        }
+        final int mouseX = MouseHandler.mouseX;
+        final int mouseY = MouseHandler.mouseY;
+        final boolean input = MouseHandler.lastPressed != lastPressed || MouseHandler.currentButton != 0
+                || KeyHandler.idleCycles < lastKeyIdleCycles || KeyHandler.idleCycles < 2;
+        if (input || interacting) {
+            invalidate();
+        } else {
+            for (RetainedLayer layer : layers) {
+                if (layer.contains(mouseX, mouseY) || layer.contains(lastMouseX, lastMouseY)) {
+                    layer.invalidate();
+                }
+            }
+        }
+        presentFully = menuShown || menuWasShown || interacting || mouseX != lastMouseX || mouseY != lastMouseY;
+        interacting = input;
+        menuWasShown = menuShown;
+        lastMouseX = mouseX;
+        lastMouseY = mouseY;
+        lastPressed = MouseHandler.lastPressed;
+        lastKeyIdleCycles = KeyHandler.idleCycles;
+
+        if (presentFully) {
+            Client.rasterProvider.markFullyDirty();
+        } else {
+            final Client client = Client.instance;
+            Client.rasterProvider.markDirty(client.getViewportXOffset(), client.getViewportYOffset(),
+                    client.getViewportWidth(), client.getViewportHeight());
+        }
+    }
+
+    /**
+     * Whether layers may be reused this frame. When they may not, regions are simply
+     * drawn every frame.
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Retains a layer that was just drawn and marks its region dirty.
+     */
+    public void retain(RetainedLayer layer, long signature) {
+        if (!active) {
+            return;
+        }
+        layer.capture(signature);
+        if (!presentFully) {
+            Client.rasterProvider.markDirty(layer.getX(), layer.getY(), layer.getWidth(), layer.getHeight());
+        }
+    }
+
+    public void invalidate() {
+        for (RetainedLayer layer : layers) {
+            layer.invalidate();
+        }
+    }
+
+    /**
+     * Returns how often each layer was restored and drawn over the last few frames.
+     */
+    public String getStatistics() {
+        if (++frames >= STATISTICS_FRAMES) {
+            StringBuilder builder = new StringBuilder("Layers reused/drawn per " + STATISTICS_FRAMES + " frames:");
+            for (RetainedLayer layer : layers) {
+                builder.append(' ').append(layer.getName()).append(' ').append(layer.takeStatistics());
+            }
+            statistics = builder.toString();
+            frames = 0;
+        }
+        return statistics;
+    }
+}
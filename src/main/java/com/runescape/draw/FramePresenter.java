@@ -0,0 +1,194 @@
+package com.runescape.draw;
+
+import com.runescape.Client;
+import com.runescape.Configuration;
+
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * Presents finished frames to the canvas on a thread of its own.
+ *
+ * Only the blit moves off the client thread: game logic, scene drawing and interface
+ * drawing all still run there, one after the other, each frame. The client thread copies
+ * each finished frame into a snapshot, and the presenter thread scales and blits the
+ * latest snapshot while the client thread draws the next frame. Snapshots are triple
+ * buffered: the client fills one, the presenter draws another and the third
+ * holds the newest frame waiting to be presented. A frame that is replaced before it is
+ * presented is dropped, and its dirty region is carried over to the frame replacing it.
+ */
+public final class FramePresenter implements Runnable {
+
+    private final Object lock = new Object();
+    private final CanvasPresenter canvasPresenter;
+    private Snapshot back = new Snapshot();
+    private Snapshot pending = new Snapshot();
+    private Snapshot front = new Snapshot();
+    private boolean pendingReady;
+    private Thread thread;
+
+    private volatile long lastPresentNanos;
+    private int submitted;
+    private int dropped;
+    private volatile int failed;
+
+    /**
+     * @param canvasPresenter the presenter the client thread also presents through, so
+     *                        there is only ever one owner of the canvas buffer strategy
+     */
+    public FramePresenter(CanvasPresenter canvasPresenter) {
+        this.canvasPresenter = canvasPresenter;
+    }
+
+    /**
+     * Copies a finished frame and hands it to the presenter thread.
+     *
+     * @param dirty the region changed since the previous frame, or {@code null} if the whole frame changed
+     * @param stretched the size to scale the frame to, or {@code null} to draw it unscaled
+     */
+    public void submit(int[] pixels, int width, int height, Rectangle dirty, Component canvas, Dimension stretched, boolean fastScaling) {
+        start();
+        back.fill(pixels, width, height);
+        back.dirty = dirty;
+        back.canvas = canvas;
+        back.stretched = stretched;
+        back.fastScaling = fastScaling;
+        synchronized (lock) {
+            if (pendingReady) {
+                dropped++;
+                back.dirty = union(back.dirty, pending.dirty);
+            }
+            Snapshot published = back;
+            back = pending;
+            pending = published;
+            pendingReady = true;
+            submitted++;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Drops a frame that is still waiting to be presented, for when the client thread goes
+     * back to presenting its frames itself and a stale one must not follow them.
+     */
+    public void discardPending() {
+        synchronized (lock) {
+            if (pendingReady) {
+                pendingReady = false;
+                dropped++;
+                canvasPresenter.uploadFully();
+            }
+        }
+    }
+
+    private void start() {
+        if (thread == null) {
+            thread = new Thread(this, "Presenter");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            synchronized (lock) {
+                while (!pendingReady) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                }
+                Snapshot next = pending;
+                pending = front;
+                front = next;
+                pendingReady = false;
+            }
+            final long start = System.nanoTime();
+            present(front);
+            lastPresentNanos = System.nanoTime() - start;
+        }
+    }
+
+    private void present(Snapshot snapshot) {
+        if (Configuration.acceleratedPresentation && canvasPresenter.present(snapshot.canvas, snapshot.image,
+                snapshot.width, snapshot.height, snapshot.dirty, snapshot.stretched, snapshot.fastScaling)) {
+            return;
+        }
+        Graphics graphics = null;
+        try {
+            graphics = snapshot.canvas.getGraphics();
+            if (graphics == null) {
+                return;
+            }
+            if (snapshot.stretched != null) {
+                ((Graphics2D) graphics).setRenderingHint(RenderingHints.KEY_INTERPOLATION, snapshot.fastScaling
+                        ? RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR : RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.drawImage(snapshot.image, 0, 0, snapshot.stretched.width, snapshot.stretched.height,
+                        0, 0, snapshot.width, snapshot.height, null);
+            } else {
+                if (snapshot.dirty != null) {
+                    graphics.clipRect(snapshot.dirty.x, snapshot.dirty.y, snapshot.dirty.width, snapshot.dirty.height);
+                }
+                graphics.drawImage(snapshot.image, 0, 0, snapshot.width, snapshot.height,
+                        0, 0, snapshot.width, snapshot.height, null);
+            }
+        } catch (Exception ex) {
+            if (failed++ == 0) {
+                Client.instance.getLogger().warn("unable to present frame", ex);
+            }
+        } finally {
+            if (graphics != null) {
+                graphics.dispose();
+            }
+        }
+    }
+
+    private static Rectangle union(Rectangle first, Rectangle second) {
+        return first == null || second == null ? null : first.union(second);
+    }
+
+    /**
+     * Returns how long the last frame took to present, how many frames were dropped
+     * because a newer one arrived first and how many failed to present.
+     */
+    public String getStatistics() {
+        return "Present: " + lastPresentNanos / 1000 + "us, dropped " + dropped + "/" + submitted + ", failed " + failed;
+    }
+
+    private static final class Snapshot {
+
+        private BufferedImage image;
+        private int[] pixels;
+        private int width;
+        private int height;
+        private Rectangle dirty;
+        private Component canvas;
+        private Dimension stretched;
+        private boolean fastScaling;
+
+        private void fill(int[] source, int width, int height) {
+            if (image == null || image.getWidth() < width || image.getHeight() < height) {
+                image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+                pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            }
+            this.width = width;
+            this.height = height;
+            final int stride = image.getWidth();
+            if (stride == width) {
+                System.arraycopy(source, 0, pixels, 0, width * height);
+            } else {
+                for (int y = 0; y < height; y++) {
+                    System.arraycopy(source, y * width, pixels, y * stride, width);
+                }
+            }
+        }
+    }
+}
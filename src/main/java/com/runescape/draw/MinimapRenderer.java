@@ -0,0 +1,264 @@
+package com.runescape.draw;
+
+import com.runescape.Configuration;
+import com.runescape.cache.graphics.sprite.Sprite;
+import com.runescape.collection.Deque;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the state the minimap is drawn from between frames.
+ *
+ * The rotated map is kept and copied back for as long as the angle, zoom, centre and
+ * map image stay the same. Ground item tiles are tracked as items are added and
+ * removed, and the NPCs and players given dots are only reclassified after a packet
+ * could have changed them, so a frame only has to place the dots.
+ */
+public final class MinimapRenderer {
+
+    private static final int STATISTICS_FRAMES = 50;
+
+    private int[] rotated = new int[0];
+    private int[] rotatedRaster;
+    private Sprite rotatedImage;
+    private int rotatedHeight;
+    private int rotatedAngle;
+    private int rotatedZoom;
+    private int[] rotatedLineWidths;
+    private int[] rotatedLineOffsets;
+    private int rotatedCentreX;
+    private int rotatedCentreY;
+    private int rotatedDrawX;
+    private int rotatedDrawY;
+    private int rotatedWidth;
+    private boolean rotatedValid;
+
+    private final int[] groundItemTiles = new int[104 * 104];
+    private final int[] groundItemSlots = new int[104 * 104];
+    private int groundItemCount;
+    private int groundItemPlane = -1;
+
+    private int[] npcIndices = new int[64];
+    private int npcCount;
+    private int[] playerIndices = new int[64];
+    private Sprite[] playerDots = new Sprite[64];
+    private int playerCount;
+    private boolean entitiesValid;
+
+    private long frameStart;
+    private long totalNanos;
+    private int frames;
+    private int rotations;
+    private String statistics = "";
+
+    public MinimapRenderer() {
+        Arrays.fill(groundItemSlots, -1);
+    }
+
+    /**
+     * Draws {@code image} rotated into the minimap shape described by {@code lineWidths}
+     * and {@code lineOffsets}, reusing the previous rotation if nothing it depends on moved.
+     */
+    public void drawMap(Sprite image, int height, int angle, int zoom, int[] lineWidths, int[] lineOffsets,
+                        int centreX, int centreY, int drawX, int drawY) {
+        if (Configuration.minimapRotationCache && rotatedValid && rotatedImage == image
+                && rotatedRaster == Rasterizer2D.pixels && rotatedWidth == Rasterizer2D.width
+                && rotatedHeight == height && rotatedAngle == angle && rotatedZoom == zoom
+                && rotatedLineWidths == lineWidths && rotatedLineOffsets == lineOffsets
+                && rotatedCentreX == centreX && rotatedCentreY == centreY
+                && rotatedDrawX == drawX && rotatedDrawY == drawY) {
+            copyRows(height, lineWidths, lineOffsets, drawX, drawY, false);
+            return;
+        }
+        image.rotate(height, angle, lineWidths, zoom, lineOffsets, centreY, drawY, drawX, 146, centreX);
+        rotations++;
+        if (!Configuration.minimapRotationCache) {
+            return;
+        }
+        int size = 0;
+        for (int row = 0; row < height; row++) {
+            size += lineWidths[row];
+        }
+        if (rotated.length < size) {
+            rotated = new int[size];
+        }
+        rotatedValid = copyRows(height, lineWidths, lineOffsets, drawX, drawY, true);
+        rotatedHeight = height;
+        rotatedAngle = angle;
+        rotatedZoom = zoom;
+        rotatedLineWidths = lineWidths;
+        rotatedLineOffsets = lineOffsets;
+        rotatedCentreX = centreX;
+        rotatedCentreY = centreY;
+        rotatedDrawX = drawX;
+        rotatedDrawY = drawY;
+        rotatedWidth = Rasterizer2D.width;
+        rotatedImage = image;
+        rotatedRaster = Rasterizer2D.pixels;
+    }
+
+    private boolean copyRows(int height, int[] lineWidths, int[] lineOffsets, int drawX, int drawY, boolean capture) {
+        if (drawY < 0 || drawY + height > Rasterizer2D.height) {
+            return false;
+        }
+        int offset = 0;
+        for (int row = 0; row < height; row++) {
+            final int start = drawX + lineOffsets[row];
+            final int width = lineWidths[row];
+            if (start < 0 || start + width > Rasterizer2D.width) {
+                return false;
+            }
+            final int index = (drawY + row) * Rasterizer2D.width + start;
+            if (capture) {
+                System.arraycopy(Rasterizer2D.pixels, index, rotated, offset, width);
+            } else {
+                System.arraycopy(rotated, offset, Rasterizer2D.pixels, index, width);
+            }
+            offset += width;
+        }
+        return true;
+    }
+
+    /**
+     * Drops the rotated map, for when the map image has been redrawn.
+     */
+    public void invalidateMap() {
+        rotatedValid = false;
+    }
+
+    /**
+     * Records whether the tile at ({@code x}, {@code y}) on the current plane holds ground items.
+     */
+    public void setGroundItemTile(int x, int y, boolean present) {
+        if (groundItemPlane == -1 || x < 0 || y < 0 || x >= 104 || y >= 104) {
+            return;
+        }
+        final int tile = x * 104 + y;
+        final int slot = groundItemSlots[tile];
+        if (present && slot == -1) {
+            groundItemSlots[tile] = groundItemCount;
+            groundItemTiles[groundItemCount++] = tile;
+        } else if (!present && slot != -1) {
+            final int last = groundItemTiles[--groundItemCount];
+            groundItemTiles[slot] = last;
+            groundItemSlots[last] = slot;
+            groundItemSlots[tile] = -1;
+        }
+    }
+
+    /**
+     * Rescans the ground items of {@code plane}, for when the plane or region changes.
+     */
+    public void resetGroundItems(int plane, Deque[][] tiles) {
+        for (int index = 0; index < groundItemCount; index++) {
+            groundItemSlots[groundItemTiles[index]] = -1;
+        }
+        groundItemCount = 0;
+        groundItemPlane = plane;
+        for (int x = 0; x < 104; x++) {
+            for (int y = 0; y < 104; y++) {
+                if (tiles[x][y] != null) {
+                    setGroundItemTile(x, y, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of ground item tiles on {@code plane}, rescanning first if the
+     * tracked tiles belong to another plane.
+     */
+    public int getGroundItemCount(int plane, Deque[][] tiles) {
+        if (plane != groundItemPlane) {
+            resetGroundItems(plane, tiles);
+        }
+        return groundItemCount;
+    }
+
+    public int getGroundItemX(int index) {
+        return groundItemTiles[index] / 104;
+    }
+
+    public int getGroundItemY(int index) {
+        return groundItemTiles[index] % 104;
+    }
+
+    /**
+     * Marks the NPC and player dots for reclassification before they are next drawn.
+     */
+    public void invalidateEntities() {
+        entitiesValid = false;
+    }
+
+    /**
+     * Whether the NPC and player dots have to be reclassified. Returns {@code true} once
+     * per invalidation, after clearing the dots so the caller can add them again.
+     */
+    public boolean beginEntities() {
+        if (entitiesValid) {
+            return false;
+        }
+        npcCount = 0;
+        playerCount = 0;
+        entitiesValid = true;
+        return true;
+    }
+
+    public void addNpc(int index) {
+        if (npcCount == npcIndices.length) {
+            npcIndices = Arrays.copyOf(npcIndices, npcCount << 1);
+        }
+        npcIndices[npcCount++] = index;
+    }
+
+    public void addPlayer(int index, Sprite dot) {
+        if (playerCount == playerIndices.length) {
+            playerIndices = Arrays.copyOf(playerIndices, playerCount << 1);
+            playerDots = Arrays.copyOf(playerDots, playerCount << 1);
+        }
+        playerIndices[playerCount] = index;
+        playerDots[playerCount++] = dot;
+    }
+
+    public int getNpcCount() {
+        return npcCount;
+    }
+
+    public int getNpcIndex(int index) {
+        return npcIndices[index];
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    public int getPlayerIndex(int index) {
+        return playerIndices[index];
+    }
+
+    public Sprite getPlayerDot(int index) {
+        return playerDots[index];
+    }
+
+    public void beginFrame() {
+        frameStart = System.nanoTime();
+    }
+
+    public void endFrame() {
+        totalNanos += System.nanoTime() - frameStart;
+        frames++;
+    }
+
+    /**
+     * Returns the average time spent drawing the minimap over the last few frames it was drawn.
+     */
+    public String getStatistics() {
+        if (frames >= STATISTICS_FRAMES) {
+            statistics = "Minimap: " + totalNanos / frames / 1000 + "us, rotated " + rotations + "/" + frames;
+            totalNanos = 0;
+            frames = 0;
+            rotations = 0;
+        }
+        return statistics;
+    }
+}
@@ -0,0 +1,99 @@
+package com.runescape.draw;
+
+import com.runescape.Client;
+import com.runescape.Configuration;
+
+/**
+ * Row blending kernels for the software rasterizer.
+ *
+ * Red and blue are blended together in a single multiply with the green channel
+ * blended alongside, and each kernel is a plain counted loop without calls so the
+ * JIT can unroll and auto-vectorise it. Every kernel produces exactly the same pixels
+ * as the per-pixel code it replaces.
+ *
+ * The kernels only apply when the pixel buffer carries no alpha channel; with the
+ * gpu plugin active the scalar {@link Rasterizer2D#drawAlpha} path is used instead.
+ */
+public final class PixelBlender {
+
+    private PixelBlender() {
+
+    }
+
+    /**
+     * Whether the row kernels may be used for the current frame.
+     */
+    public static boolean enabled() {
+        return Configuration.fastBlending && !Client.processGpuPlugin();
+    }
+
+    /**
+     * Blends {@code rgbColour} over {@code length} pixels, equivalent to blending each
+     * channel as {@code (colour * opacity + background * (256 - opacity)) >> 8}.
+     */
+    public static void blendFill(int[] pixels, int offset, int length, int rgbColour, int opacity) {
+        final int transparency = 256 - opacity;
+        final int redBlue = (rgbColour & 0xff00ff) * opacity;
+        final int green = (rgbColour & 0xff00) * opacity;
+        final int end = offset + length;
+        for (int index = offset; index < end; index++) {
+            final int background = pixels[index];
+            pixels[index] = (redBlue + (background & 0xff00ff) * transparency >>> 8 & 0xff00ff)
+                    | (green + (background & 0xff00) * transparency >>> 8 & 0xff00);
+        }
+    }
+
+    /**
+     * Scales {@code length} background pixels by {@code transparency} and adds the
+     * pre-multiplied {@code addend}, as done per row by the gradient boxes.
+     */
+    public static void scaleAdd(int[] pixels, int offset, int length, int addend, int transparency) {
+        final int end = offset + length;
+        for (int index = offset; index < end; index++) {
+            final int background = pixels[index];
+            pixels[index] = addend + ((background & 0xff00ff) * transparency >> 8 & 0xff00ff)
+                    + ((background & 0xff00) * transparency >> 8 & 0xff00);
+        }
+    }
+
+    /**
+     * Blends a row of sprite pixels over the destination with a constant {@code opacity},
+     * as done by {@code Sprite#drawSprite1}. Every source pixel is treated as visible.
+     */
+    public static void blend(int[] source, int sourceOffset, int[] pixels, int offset, int length, int opacity) {
+        final int transparency = 256 - opacity;
+        for (int index = 0; index < length; index++) {
+            final int colour = source[sourceOffset + index];
+            final int background = pixels[offset + index];
+            pixels[offset + index] = ((colour & 0xff00ff) * opacity + (background & 0xff00ff) * transparency & 0xff00ff00)
+                    + ((colour & 0xff00) * opacity + (background & 0xff00) * transparency & 0xff0000) >> 8;
+        }
+    }
+
+    /**
+     * Blends a row of ARGB sprite pixels over the destination using each pixel's own
+     * alpha limited by {@code alpha}, as done by {@code Sprite#drawAdvancedSprite}.
+     * Zero sprite pixels are skipped.
+     */
+    public static void blendArgb(int[] source, int sourceOffset, int[] pixels, int offset, int length, int alpha) {
+        final int alphaMask = alpha - 1;
+        for (int index = 0; index < length; index++) {
+            final int colour = source[sourceOffset + index];
+            if (colour == 0) {
+                continue;
+            }
+            int sourceAlpha = colour >> 24 & alphaMask;
+            int transparency = 256 - sourceAlpha;
+            if (transparency > 256) {
+                sourceAlpha = 0;
+            }
+            if (alpha == 0) {
+                transparency = 256;
+                sourceAlpha = 0;
+            }
+            final int background = pixels[offset + index];
+            pixels[offset + index] = ((colour & 0xff00ff) * sourceAlpha + (background & 0xff00ff) * transparency & 0xff00ff00)
+                    + ((colour & 0xff00) * sourceAlpha + (background & 0xff00) * transparency & 0xff0000) >> 8;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.runescape.draw;
 
 import com.runescape.Client;
+import com.runescape.Configuration;
 import net.runelite.rs.api.RSRasterProvider;
 
 import java.awt.*;
@@ -12,6 +13,7 @@ import java.util.Hashtable;
 public class ProducingGraphicsBuffer extends AbstractRasterProvider implements RSRasterProvider {
     private Component component;
 	private Image image;
+    private final Rectangle drawBounds = new Rectangle();
 
     public ProducingGraphicsBuffer(int width, int height, Component component) {
 
@@ -63,6 +65,11 @@ public class ProducingGraphicsBuffer extends AbstractRasterProvider implements R
     }
 
     final void draw0(Graphics var1, int var2, int var3, int var4, int var5) {
+        drawBounds.setBounds(var2, var3, var4, var5);
+        if (Configuration.acceleratedPresentation && !Client.instance.isGpu()
+                && Client.canvasPresenter.present(component, image, width, height, drawBounds, null, false)) {
+            return;
+        }
         try {
             Shape var6 = var1.getClip();
             var1.clipRect(var2, var3, var4, var5);
@@ -74,6 +81,20 @@ public class ProducingGraphicsBuffer extends AbstractRasterProvider implements R
 
     }
 
+    @Override
+    public boolean present(Rectangle dirty, Dimension stretched, boolean fastScaling) {
+        if (Client.instance.isGpu()) {
+            return false;
+        }
+        if (Configuration.offThreadPresent) {
+            Client.framePresenter.submit(pixels, width, height, dirty, component, stretched, fastScaling);
+            return true;
+        }
+        Client.framePresenter.discardPending();
+        return Configuration.acceleratedPresentation
+                && Client.canvasPresenter.present(component, image, width, height, dirty, stretched, fastScaling);
+    }
+
     @Override
     public int[] getPixels() {
         return pixels;
@@ -152,11 +152,20 @@ public class Rasterizer2D extends Cacheable implements RSRasterizer2D {
         int leftOver = Rasterizer2D.width - width;
         int transparency = 256 - opacity;
         int pixelIndex = leftX + topY * Rasterizer2D.width;
+        boolean fastBlend = PixelBlender.enabled();
         for(int rowIndex = 0; rowIndex < height; rowIndex++) {
             int gradient = 0x10000 - gradientProgress >> 8;
             int inverseGradient = gradientProgress >> 8;
             int gradientColour = ((topColour & 0xff00ff) * gradient + (bottomColour & 0xff00ff) * inverseGradient & 0xff00ff00) + ((topColour & 0xff00) * gradient + (bottomColour & 0xff00) * inverseGradient & 0xff0000) >>> 8;
             int transparentPixel = ((gradientColour & 0xff00ff) * opacity >> 8 & 0xff00ff) + ((gradientColour & 0xff00) * opacity >> 8 & 0xff00);
+            if (fastBlend) {
+                if (width > 0) {
+                    PixelBlender.scaleAdd(pixels, pixelIndex, width, transparentPixel, transparency);
+                }
+                pixelIndex += Rasterizer2D.width;
+                gradientProgress += progressPerPixel;
+                continue;
+            }
             for(int columnIndex = 0; columnIndex < width; columnIndex++) {
                 int backgroundPixel = pixels[pixelIndex];
                 backgroundPixel = ((backgroundPixel & 0xff00ff) * transparency >> 8 & 0xff00ff) + ((backgroundPixel & 0xff00) * transparency >> 8 & 0xff00);
@@ -296,6 +305,13 @@ public class Rasterizer2D extends Cacheable implements RSRasterizer2D {
         int blue = (rgbColour & 0xff) * opacity;
         int leftOver = Rasterizer2D.width - width;
         int pixelIndex = leftX + topY * Rasterizer2D.width;
+        if (width > 0 && opacity >= 0 && opacity <= 256 && PixelBlender.enabled()) {
+            for(int rowIndex = 0; rowIndex < height; rowIndex++){
+                PixelBlender.blendFill(pixels, pixelIndex, width, rgbColour, opacity);
+                pixelIndex += Rasterizer2D.width;
+            }
+            return;
+        }
         for(int rowIndex = 0; rowIndex < height; rowIndex++){
             for(int columnIndex = 0; columnIndex < width; columnIndex++){
                 int otherRed = (pixels[pixelIndex] >> 16 & 0xff) * transparency;
@@ -433,12 +449,16 @@ public class Rasterizer2D extends Cacheable implements RSRasterizer2D {
         final int green = (rgbColour >> 8 & 0xff) * opacity;
         final int blue = (rgbColour & 0xff) * opacity;
         int pixelIndex = xPosition + yPosition * Rasterizer2D.width;
+        if (width > 0 && opacity >= 0 && opacity <= 256 && PixelBlender.enabled()) {
+            PixelBlender.blendFill(pixels, pixelIndex, width, rgbColour, opacity);
+            return;
+        }
         for(int i = 0; i < width; i++) {
             final int otherRed = (pixels[pixelIndex] >> 16 & 0xff) * transparency;
             final int otherGreen = (pixels[pixelIndex] >> 8 & 0xff) * transparency;
             final int otherBlue = (pixels[pixelIndex] & 0xff) * transparency;
             final int transparentColour = (red + otherRed >> 8 << 16) + (green + otherGreen >> 8 << 8) + (blue + otherBlue >> 8);
-            drawAlpha(pixels, pixelIndex, transparentColour, opacity);
+            drawAlpha(pixels, pixelIndex++, transparentColour, opacity);
         }
     }
 
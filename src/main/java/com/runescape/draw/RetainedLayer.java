@@ -0,0 +1,121 @@
+package com.runescape.draw;
+
+/**
+ * A rectangle of the game frame that is kept between frames and only re-rasterised
+ * when the state it was drawn from changes.
+ *
+ * The owner draws the region in place as usual and then calls {@link #capture(long)},
+ * passing a signature of the state the region was drawn from. On later frames
+ * {@link #restore(long)} copies the retained pixels back for as long as the signature
+ * matches and the layer has not been invalidated.
+ */
+public final class RetainedLayer {
+
+    private final String name;
+    private int x;
+    private int y;
+    private int width;
+    private int height;
+    private int[] pixels = new int[0];
+    private boolean valid;
+    private long signature;
+    private int restores;
+    private int draws;
+
+    public RetainedLayer(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Moves or resizes the layer, dropping its contents if the bounds changed.
+     */
+    public void setBounds(int x, int y, int width, int height) {
+        if (this.x == x && this.y == y && this.width == width && this.height == height) {
+            return;
+        }
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        if (pixels.length < width * height) {
+            pixels = new int[width * height];
+        }
+        valid = false;
+    }
+
+    public boolean contains(int pointX, int pointY) {
+        return pointX >= x && pointY >= y && pointX < x + width && pointY < y + height;
+    }
+
+    public void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Copies the retained pixels back to the current raster if they were drawn from
+     * the same {@code signature}.
+     *
+     * @return {@code false} if the region has to be drawn again
+     */
+    public boolean restore(long signature) {
+        if (!valid || this.signature != signature || !fits()) {
+            return false;
+        }
+        for (int row = 0; row < height; row++) {
+            System.arraycopy(pixels, row * width, Rasterizer2D.pixels, (y + row) * Rasterizer2D.width + x, width);
+        }
+        restores++;
+        return true;
+    }
+
+    /**
+     * Retains the region as just drawn to the current raster.
+     */
+    public void capture(long signature) {
+        draws++;
+        if (!fits()) {
+            valid = false;
+            return;
+        }
+        for (int row = 0; row < height; row++) {
+            System.arraycopy(Rasterizer2D.pixels, (y + row) * Rasterizer2D.width + x, pixels, row * width, width);
+        }
+        this.signature = signature;
+        valid = true;
+    }
+
+    private boolean fits() {
+        return width > 0 && height > 0 && x >= 0 && y >= 0
+                && x + width <= Rasterizer2D.width && y + height <= Rasterizer2D.height;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns {@code restores/draws} since the last call and resets both counts.
+     */
+    public String takeStatistics() {
+        String statistics = restores + "/" + draws;
+        restores = 0;
+        draws = 0;
+        return statistics;
+    }
+}
@@ -6,8 +6,9 @@ import com.runescape.engine.impl.KeyHandler;
 import com.runescape.engine.impl.MouseHandler;
 import com.runescape.engine.impl.MouseWheelHandler;
 import com.runescape.engine.task.Clock;
+import com.runescape.engine.task.FrameScheduler;
+import com.runescape.engine.task.FrameTimeHistogram;
 import com.runescape.engine.task.TaskHandler;
-import com.runescape.engine.task.TaskUtils;
 import com.runescape.engine.task.impl.MilliClock;
 import com.runescape.engine.task.impl.NanoClock;
 import com.runescape.util.Bounds;
@@ -133,7 +134,7 @@ public abstract class GameEngine extends Applet implements Runnable, WindowListe
         if (!Client.instance.isGpu()) {
             if (eventQueue != null) {
                 for (int var2 = 0; var2 < 50 && eventQueue.peekEvent() != null; ++var2) {
-                    TaskUtils.sleep(1L);
+                    FrameScheduler.waitFor(1_000_000L);
                 }
 
                 if (var1 != null) {
@@ -500,6 +501,7 @@ public abstract class GameEngine extends Applet implements Runnable, WindowListe
 
     protected final void drawInitial(int var1, String var2, boolean clear) {
         try {
+            Client.canvasPresenter.releaseStrategy();
             Graphics graphics = canvas.getGraphics();
             if (fontHelvetica == null) {
                 fontHelvetica = new Font("Helvetica", Font.BOLD, 13);
@@ -588,7 +590,7 @@ public abstract class GameEngine extends Applet implements Runnable, WindowListe
     public final void destroy() {
         if (this == gameEngine && !isKilled) {
             stopTimeMs = method2692();
-            TaskUtils.sleep(5000L);
+            FrameScheduler.waitFor(1_000_000L);
             kill();
         }
     }
@@ -616,6 +618,21 @@ public abstract class GameEngine extends Applet implements Runnable, WindowListe
     static int gameCyclesToDo;
     static Clock clock;
 
+    /**
+     * The time between the starts of consecutive frames.
+     */
+    public static final FrameTimeHistogram frameTimes = new FrameTimeHistogram();
+
+    /**
+     * Counts the frames started, so work can be remembered for the length of one.
+     */
+    public static int frameNumber;
+
+    /**
+     * How long the last frame took to draw and present.
+     */
+    public static long lastGraphicsNanos;
+
     public static Clock getClock() {
         try {
             return new NanoClock();
@@ -638,12 +655,16 @@ public abstract class GameEngine extends Applet implements Runnable, WindowListe
 
             while (0L == stopTimeMs || method2692() < stopTimeMs) {
                 gameCyclesToDo = clock.wait(cycleDurationMillis, fiveOrOne);
+                frameTimes.mark();
+                frameNumber++;
 
                 for (int cycles = 0; cycles < gameCyclesToDo; ++cycles) {
                     clientTick();
                 }
 
+                final long graphicsStart = System.nanoTime();
                 graphicsTick();
+                lastGraphicsNanos = System.nanoTime() - graphicsStart;
                 post(canvas);
             }
         } catch (Exception exception) {
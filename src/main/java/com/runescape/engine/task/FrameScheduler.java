@@ -0,0 +1,86 @@
+package com.runescape.engine.task;
+
+import java.awt.DisplayMode;
+import java.awt.GraphicsEnvironment;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Waits for frame deadlines more precisely than {@link Thread#sleep(long)}.
+ *
+ * The thread parks until shortly before the deadline and spins for the rest. The spin
+ * margin follows how late parking has woken up recently, so it stays small on systems
+ * with fine grained timers and grows on those without.
+ */
+public final class FrameScheduler {
+
+    private static final long MIN_SPIN_NANOS = 50_000L;
+    private static final long MAX_SPIN_NANOS = 2_000_000L;
+    private static final long REFRESH_CHECK_NANOS = 5_000_000_000L;
+
+    private static long spinNanos = 1_000_000L;
+    private static long displayFrameNanos;
+    private static long lastRefreshCheck = Long.MIN_VALUE;
+
+    private FrameScheduler() {
+
+    }
+
+    /**
+     * Blocks until {@link System#nanoTime()} reaches {@code deadline}. An interrupt ends the
+     * wait early and is cleared, as an interrupted {@link Thread#sleep(long)} would be.
+     */
+    public static void waitUntil(long deadline) {
+        long remaining = deadline - System.nanoTime();
+        while (remaining > spinNanos) {
+            final long wake = System.nanoTime() + remaining - spinNanos;
+            LockSupport.parkNanos(remaining - spinNanos);
+            if (Thread.interrupted()) {
+                return;
+            }
+            final long now = System.nanoTime();
+            adjustSpin(now - wake);
+            remaining = deadline - now;
+        }
+        while (System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Blocks for {@code nanos} nanoseconds.
+     */
+    public static void waitFor(long nanos) {
+        if (nanos > 0L) {
+            waitUntil(System.nanoTime() + nanos);
+        }
+    }
+
+    private static void adjustSpin(long overshoot) {
+        long spin = spinNanos - (spinNanos >> 3);
+        if (overshoot * 2 > spin) {
+            spin = overshoot * 2;
+        }
+        spinNanos = Math.max(MIN_SPIN_NANOS, Math.min(MAX_SPIN_NANOS, spin));
+    }
+
+    /**
+     * Returns the refresh interval of the default screen, or {@code 0} if it is unknown.
+     * The display mode is looked up again every few seconds in case it changed.
+     */
+    public static long getDisplayFrameNanos() {
+        final long now = System.nanoTime();
+        if (now - lastRefreshCheck >= REFRESH_CHECK_NANOS) {
+            lastRefreshCheck = now;
+            try {
+                if (!GraphicsEnvironment.isHeadless()) {
+                    int refreshRate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                            .getDisplayMode().getRefreshRate();
+                    displayFrameNanos = refreshRate == DisplayMode.REFRESH_RATE_UNKNOWN ? 0L : 1_000_000_000L / refreshRate;
+                }
+            } catch (Exception ex) {
+                displayFrameNanos = 0L;
+            }
+        }
+        return displayFrameNanos;
+    }
+}
@@ -0,0 +1,84 @@
+package com.runescape.engine.task;
+
+import java.util.Arrays;
+
+/**
+ * Counts frame times in 10 microsecond buckets so percentiles can be read without
+ * keeping every sample. Times of 200ms or more share the last bucket, but the
+ * maximum is tracked exactly.
+ */
+public final class FrameTimeHistogram {
+
+    private static final int BUCKET_NANOS = 10_000;
+    private static final int BUCKETS = 20_000;
+
+    private final int[] buckets = new int[BUCKETS];
+    private long count;
+    private long max;
+    private long last;
+
+    /**
+     * Records the time since the previous call, starting a new interval on the first call.
+     */
+    public void mark() {
+        final long now = System.nanoTime();
+        if (last != 0L) {
+            record(now - last);
+        }
+        last = now;
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0L) {
+            return;
+        }
+        buckets[(int) Math.min(nanos / BUCKET_NANOS, BUCKETS - 1)]++;
+        count++;
+        if (nanos > max) {
+            max = nanos;
+        }
+    }
+
+    /**
+     * Returns the frame time in nanoseconds that {@code percentile} percent of frames did not exceed.
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0L) {
+            return 0L;
+        }
+        final long target = (long) Math.ceil(count * percentile / 100.0);
+        long seen = 0L;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += buckets[bucket];
+            if (seen >= target) {
+                return Math.min((long) (bucket + 1) * BUCKET_NANOS, max);
+            }
+        }
+        return max;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void reset() {
+        Arrays.fill(buckets, 0);
+        count = 0L;
+        max = 0L;
+        last = 0L;
+    }
+
+    @Override
+    public String toString() {
+        return "Frame times: p50 " + format(getPercentile(50)) + " p99 " + format(getPercentile(99))
+                + " max " + format(max) + " over " + count + " frames";
+    }
+
+    private static String format(long nanos) {
+        return nanos / 1_000_000L + "." + nanos / 100_000L % 10L + "ms";
+    }
+}
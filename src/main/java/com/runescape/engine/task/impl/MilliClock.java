@@ -1,7 +1,7 @@
 package com.runescape.engine.task.impl;
 
 import com.runescape.engine.task.Clock;
-import com.runescape.engine.task.TaskUtils;
+import com.runescape.engine.task.FrameScheduler;
 import net.runelite.rs.api.RSMilliClock;
 
 public class MilliClock extends Clock implements RSMilliClock {
@@ -91,7 +91,7 @@ public class MilliClock extends Clock implements RSMilliClock {
             this.field1789 = var2;
         }
 
-        TaskUtils.sleep((long) this.field1789);
+        FrameScheduler.waitFor((long) this.field1789 * 1000000L);
 
         for (var5 = 0; this.field1791 < 256; this.field1791 += this.field1787) {
             ++var5;
@@ -1,8 +1,9 @@
 package com.runescape.engine.task.impl;
 
 import com.runescape.Client;
+import com.runescape.Configuration;
 import com.runescape.engine.task.Clock;
-import com.runescape.engine.task.TaskUtils;
+import com.runescape.engine.task.FrameScheduler;
 import net.runelite.rs.api.RSNanoClock;
 
 public class NanoClock extends Clock implements RSNanoClock {
@@ -27,24 +28,13 @@ public class NanoClock extends Clock implements RSNanoClock {
                 long cycleDuration;
                 long diff;
 
-                if (Client.instance.getUnlockedFpsTarget() > 0L) {
-                    cycleDuration = nanoTime - tmpNanoTime;
-                    diff = Client.instance.getUnlockedFpsTarget() - cycleDuration;
-                    diff /= 1000000L;
-                    if (diff > 0L) {
-                        try {
-                            if (diff % 10L == 0L) {
-                                Thread.sleep(diff - 1L);
-                                Thread.sleep(1L);
-                            } else {
-                                Thread.sleep(diff);
-                            }
-                        } catch (InterruptedException exception) {
-                            exception.printStackTrace();
-                        }
-
-                        nanoTime = System.nanoTime();
-                    }
+                long frameDuration = Client.instance.getUnlockedFpsTarget();
+                if (frameDuration <= 0L && Configuration.syncFrameRateToDisplay) {
+                    frameDuration = FrameScheduler.getDisplayFrameNanos();
+                }
+                if (frameDuration > 0L && nanoTime - tmpNanoTime < frameDuration) {
+                    FrameScheduler.waitUntil(tmpNanoTime + frameDuration);
+                    nanoTime = System.nanoTime();
                 }
 
                 tmpNanoTime = nanoTime;
@@ -73,7 +63,7 @@ public class NanoClock extends Clock implements RSNanoClock {
                 var5 = var3;
             }
 
-            TaskUtils.sleep(var5 / 1000000L);
+            FrameScheduler.waitFor(var5);
             long var7 = System.nanoTime();
 
             int var9;
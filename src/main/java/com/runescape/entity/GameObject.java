@@ -35,6 +35,7 @@ public final class GameObject implements RSGameObject {
     public int anInt527;
     public int anInt528;
     public long uid;
+    private ShapeCache shapes;
     /**
      * mask = (byte)((objectRotation << 6) + objectType);
      */
@@ -79,6 +80,19 @@ public final class GameObject implements RSGameObject {
 
     @Override
     public Shape getConvexHull() {
+        ShapeCache.begin();
+        ShapeCache.add(getX());
+        ShapeCache.add(getY());
+        ShapeCache.add(getModelOrientation());
+        // Animated objects build a new model each cycle
+        ShapeCache.add(renderable instanceof RSModel ? 0 : Client.tick);
+        final ShapeCache shapes = shapes();
+        if (shapes.hasHull())
+            return shapes.getHull();
+        return shapes.putHull(computeConvexHull());
+    }
+
+    private Shape computeConvexHull() {
         RSModel model = getModel();
         if (model == null)
         {
@@ -112,7 +126,22 @@ public final class GameObject implements RSGameObject {
 
     @Override
     public Polygon getCanvasTilePoly() {
-        return Perspective.getCanvasTilePoly(Client.instance, this.getLocalLocation());
+        ShapeCache.begin();
+        ShapeCache.add(getX());
+        ShapeCache.add(getY());
+        final ShapeCache shapes = shapes();
+        if (shapes.hasTilePoly())
+            return shapes.getTilePoly();
+        return shapes.putTilePoly(Perspective.getCanvasTilePoly(Client.instance, this.getLocalLocation()));
+    }
+
+    /**
+     * Most objects are never outlined, so their shape caches are only made when first asked for.
+     */
+    private ShapeCache shapes() {
+        if (shapes == null)
+            shapes = new ShapeCache();
+        return shapes;
     }
 
     @Override
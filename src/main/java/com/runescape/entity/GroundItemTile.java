@@ -26,6 +26,7 @@ public final class GroundItemTile implements RSItemLayer {
     public Renderable middleNode;
     public long uid;
     public int itemDropHeight;
+    private ShapeCache shapes;
 
     @Override
     public Model getModelBottom() {
@@ -103,7 +104,14 @@ public final class GroundItemTile implements RSItemLayer {
 
     @Override
     public Polygon getCanvasTilePoly() {
-        return Perspective.getCanvasTilePoly(Client.instance, this.getLocalLocation());
+        ShapeCache.begin();
+        ShapeCache.add(getX());
+        ShapeCache.add(getY());
+        if (shapes == null)
+            shapes = new ShapeCache();
+        else if (shapes.hasTilePoly())
+            return shapes.getTilePoly();
+        return shapes.putTilePoly(Perspective.getCanvasTilePoly(Client.instance, this.getLocalLocation()));
     }
 
     @Override
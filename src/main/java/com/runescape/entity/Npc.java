@@ -24,6 +24,7 @@ public final class Npc extends Mob implements RSNPC {
     public NpcDefinition desc;
     public int headIcon = -1;
     public int ownerIndex = -1;
+    private final ShapeCache shapes = new ShapeCache();
 
     public boolean showActions() {
         if (ownerIndex == -1) {
@@ -431,7 +432,12 @@ public final class Npc extends Mob implements RSNPC {
 
     @Override
     public Polygon getCanvasTilePoly() {
-        return Perspective.getCanvasTilePoly(Client.instance, this.getLocalLocation());
+        ShapeCache.begin();
+        ShapeCache.add(getX());
+        ShapeCache.add(getY());
+        if (shapes.hasTilePoly())
+            return shapes.getTilePoly();
+        return shapes.putTilePoly(Perspective.getCanvasTilePoly(Client.instance, this.getLocalLocation()));
     }
 
     @Override
@@ -456,6 +462,26 @@ public final class Npc extends Mob implements RSNPC {
 
     @Override
     public Shape getConvexHull() {
+        ShapeCache.begin();
+        ShapeCache.add(getX());
+        ShapeCache.add(getY());
+        ShapeCache.add(getOrientation());
+        ShapeCache.add(desc != null ? desc.id : -1);
+        ShapeCache.add(emoteAnimation);
+        ShapeCache.add(displayedEmoteFrames);
+        ShapeCache.add(animationDelay);
+        ShapeCache.add(movementAnimation);
+        ShapeCache.add(displayedMovementFrames);
+        ShapeCache.add(idleAnimation);
+        ShapeCache.add(graphic);
+        ShapeCache.add(currentAnimation);
+        ShapeCache.add(graphicHeight);
+        if (shapes.hasHull())
+            return shapes.getHull();
+        return shapes.putHull(computeConvexHull());
+    }
+
+    private Shape computeConvexHull() {
         RSModel model = getModel();
         if (model == null)
         {
@@ -1,14 +1,17 @@
 package com.runescape.entity;
 
 import com.runescape.Client;
+import com.runescape.Configuration;
 import com.runescape.cache.anim.Animation;
 import com.runescape.cache.anim.Frame;
 import com.runescape.cache.anim.Graphic;
 import com.runescape.cache.def.ItemDefinition;
 import com.runescape.cache.def.NpcDefinition;
+import com.runescape.collection.CacheManager;
 import com.runescape.collection.ReferenceCache;
 import com.runescape.entity.model.IdentityKit;
 import com.runescape.entity.model.Model;
+import com.runescape.entity.model.PoseCache;
 import com.runescape.io.Buffer;
 import com.runescape.util.StringUtils;
 import net.runelite.api.*;
@@ -25,7 +28,7 @@ import java.awt.image.BufferedImage;
 public final class Player extends Mob implements RSPlayer {
 
 
-    public static ReferenceCache models = new ReferenceCache(260);
+    public static ReferenceCache models = CacheManager.register("Player models", new ReferenceCache(260, 8 * 1024 * 1024));
     public final int[] appearanceColors = new int[5];
     public final int[] equipment = new int[12];
     public NpcDefinition npcDefinition;
@@ -356,10 +359,17 @@ public final class Player extends Mob implements RSPlayer {
         Model emptyModel = Model.EMPTY_MODEL;
 
         emptyModel.replace(model_1, Frame.noAnimationInProgress(currentFrame) & Frame.noAnimationInProgress(i1));
-        if (currentFrame != -1 && i1 != -1) {
-            emptyModel.mix(Animation.animations[super.emoteAnimation].interleaveOrder, i1, currentFrame);
-        } else if (currentFrame != -1) {
-            emptyModel.applyTransform(currentFrame);
+        int[] interleaveOrder = i1 != -1 ? Animation.animations[super.emoteAnimation].interleaveOrder : null;
+        boolean cachePose = Configuration.poseCache && currentFrame != -1;
+        if (!cachePose || !PoseCache.restore(emptyModel, model_1, currentFrame, i1, interleaveOrder, 0)) {
+            if (currentFrame != -1 && i1 != -1) {
+                emptyModel.mix(interleaveOrder, i1, currentFrame);
+            } else if (currentFrame != -1) {
+                emptyModel.applyTransform(currentFrame);
+            }
+            if (cachePose) {
+                PoseCache.store(emptyModel, model_1, currentFrame, i1, interleaveOrder, 0);
+            }
         }
         emptyModel.calc_diagonals();
         emptyModel.faceGroups = null;
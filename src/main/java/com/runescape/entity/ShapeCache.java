@@ -0,0 +1,93 @@
+package com.runescape.entity;
+
+import com.runescape.Client;
+import com.runescape.engine.GameEngine;
+
+import java.awt.Polygon;
+import java.awt.Shape;
+import java.util.Arrays;
+
+/**
+ * Remembers the canvas shapes of one entity, so overlays asking for them several times
+ * a frame only compute them once.
+ *
+ * A shape is keyed by the frame, the camera and whatever else the entity draws it from,
+ * such as its position and animation frame. Callers start a key with {@link #begin()},
+ * add their own state with {@link #add(int)} and then look the shape up; a shape is only
+ * returned while every part of its key is unchanged. Shapes are shared between callers,
+ * which must not modify them. Keys are built in static state, so shapes may only be asked
+ * for on the client thread.
+ */
+public final class ShapeCache {
+
+    private static final int[] key = new int[32];
+    private static int keySize;
+
+    private int[] hullKey;
+    private Shape hull;
+    private int[] tileKey;
+    private Polygon tile;
+
+    /**
+     * Starts a key with the frame and the camera state shapes are projected with.
+     */
+    public static void begin() {
+        final Client client = Client.instance;
+        keySize = 0;
+        add(GameEngine.frameNumber);
+        add(client.getCameraX());
+        add(client.getCameraY());
+        add(client.getCameraZ());
+        add(client.getCameraPitch());
+        add(client.getCameraYaw());
+        add(client.getScale());
+        add(client.getViewportWidth());
+        add(client.getViewportHeight());
+        add(client.getViewportXOffset());
+        add(client.getViewportYOffset());
+        add(client.getPlane());
+    }
+
+    public static void add(int value) {
+        key[keySize++] = value;
+    }
+
+    public boolean hasHull() {
+        return matches(hullKey);
+    }
+
+    public Shape getHull() {
+        return hull;
+    }
+
+    public Shape putHull(Shape hull) {
+        hullKey = store(hullKey);
+        this.hull = hull;
+        return hull;
+    }
+
+    public boolean hasTilePoly() {
+        return matches(tileKey);
+    }
+
+    public Polygon getTilePoly() {
+        return tile;
+    }
+
+    public Polygon putTilePoly(Polygon tile) {
+        tileKey = store(tileKey);
+        this.tile = tile;
+        return tile;
+    }
+
+    private static boolean matches(int[] stored) {
+        return stored != null && Arrays.equals(stored, 0, stored.length, key, 0, keySize);
+    }
+
+    private static int[] store(int[] stored) {
+        if (stored == null || stored.length != keySize)
+            return Arrays.copyOf(key, keySize);
+        System.arraycopy(key, 0, stored, 0, keySize);
+        return stored;
+    }
+}
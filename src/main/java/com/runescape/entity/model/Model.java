@@ -8,7 +8,7 @@ import com.runescape.draw.Rasterizer3D;
 import com.runescape.entity.Renderable;
 import com.runescape.io.Buffer;
 import net.runelite.api.Perspective;
-import net.runelite.api.model.Jarvis;
+import net.runelite.api.model.MonotoneChain;
 import net.runelite.api.model.Triangle;
 import net.runelite.api.model.Vertex;
 import net.runelite.rs.api.RSFrames;
@@ -2344,6 +2344,12 @@ public class Model extends Renderable implements RSModel {
                 }
             }
         }
+        // With the gpu the vertices are only projected here to find what the cursor is over
+        final boolean picking = highlighted && !(gpu && Math.sqrt(offsetX * offsetX + offsetZ * offsetZ) > 35 * Perspective.LOCAL_TILE_SIZE);
+        if (gpu && !picking) {
+            Client.instance.getDrawCallbacks().draw(this, orientation, pitchSine, pitchCos, yawSin, yawCos, offsetX, offsetY, offsetZ, uid);
+            return;
+        }
         int originViewX = Rasterizer3D.originViewX;
         int originViewY = Rasterizer3D.originViewY;
         int sine_x = 0;
@@ -2352,6 +2358,10 @@ public class Model extends Renderable implements RSModel {
             sine_x = SINE[orientation];
             cosine_x = COSINE[orientation];
         }
+        int pick_min_x = Integer.MAX_VALUE;
+        int pick_max_x = Integer.MIN_VALUE;
+        int pick_min_y = Integer.MAX_VALUE;
+        int pick_max_y = Integer.MIN_VALUE;
 
         for (int index = 0; index < numVertices; index++) {
 
@@ -2380,6 +2390,12 @@ public class Model extends Renderable implements RSModel {
             if (raster_z >= 50) {
                 projected_vertex_x[index] = originViewX + raster_x * Rasterizer3D.fieldOfView / raster_z;
                 projected_vertex_y[index] = originViewY + raster_y * Rasterizer3D.fieldOfView / raster_z;
+                if (picking) {
+                    pick_min_x = Math.min(pick_min_x, projected_vertex_x[index]);
+                    pick_max_x = Math.max(pick_max_x, projected_vertex_x[index]);
+                    pick_min_y = Math.min(pick_min_y, projected_vertex_y[index]);
+                    pick_max_y = Math.max(pick_max_y, projected_vertex_y[index]);
+                }
             } else {
                 projected_vertex_x[index] = -5000;
                 near_sight = true;
@@ -2392,8 +2408,13 @@ public class Model extends Renderable implements RSModel {
 
         }
 
+        // Faces are only tested when none of their vertices are clipped, so a cursor outside the
+        // projected vertices of the model can't be over any face
+        if (picking && (anInt1685 < pick_min_x || anInt1685 > pick_max_x || anInt1686 < pick_min_y || anInt1686 > pick_max_y))
+            highlighted = false;
+
         try {
-            if (!gpu || (highlighted && !(Math.sqrt(offsetX * offsetX + offsetZ * offsetZ) > 35 * Perspective.LOCAL_TILE_SIZE))) {
+            if (!gpu || highlighted) {
                 method483(near_sight, highlighted, uid);
             }
             if (gpu) {
@@ -3019,6 +3040,13 @@ public class Model extends Renderable implements RSModel {
         return triangles;
     }
 
+    /**
+     * Roughly the memory held by this model's vertex and face arrays.
+     */
+    @Override
+    public int estimateBytes() {
+        return (numVertices * 6 + trianglesCount * 8) * 4;
+    }
 
     @Override
     public int getVerticesCount() {
@@ -3303,14 +3331,21 @@ public class Model extends Renderable implements RSModel {
 
     @Override
     public Shape getConvexHull(int localX, int localY, int orientation, int tileHeight) {
-        int[] x2d = new int[getVerticesCount()];
-        int[] y2d = new int[getVerticesCount()];
+        final int count = getVerticesCount();
+        if (hull_x.length < count) {
+            hull_x = new int[count];
+            hull_y = new int[count];
+        }
 
-        Perspective.modelToCanvas(Client.instance, getVerticesCount(), localX, localY, tileHeight, orientation, getVerticesX(), getVerticesZ(), getVerticesY(), x2d, y2d);
+        Perspective.modelToCanvas(Client.instance, count, localX, localY, tileHeight, orientation, getVerticesX(), getVerticesZ(), getVerticesY(), hull_x, hull_y);
 
-        return Jarvis.convexHull(x2d, y2d);
+        return HULL.convexHull(hull_x, hull_y, count);
     }
 
+    private static final MonotoneChain HULL = new MonotoneChain();
+    private static int[] hull_x = new int[4700];
+    private static int[] hull_y = new int[4700];
+
 
     @Override
     public float[] getFaceTextureUVCoordinates() {
@@ -0,0 +1,198 @@
+package com.runescape.entity.model;
+
+import com.runescape.cache.anim.Frame;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Transformed vertex positions of animated player and npc models.
+ *
+ * Everyone standing around with the same appearance plays the same idle and walk frames,
+ * so the skinned pose of a base model for a frame pair is kept and copied back into the
+ * shared animation model instead of transforming every vertex group again. Poses are
+ * evicted least recently used first once the cache grows past its memory budget.
+ *
+ * Poses only hold their base model weakly, so a base evicted from the player or npc model
+ * caches is not kept alive by its poses. The poses of a collected base are dropped the
+ * next time a pose is stored.
+ */
+public final class PoseCache {
+
+    private static final long BUDGET_BYTES = 4L * 1024 * 1024;
+
+    private static final Map<Key, Pose> poses = new LinkedHashMap<>(256, 0.75f, true);
+    private static final Key probe = new Key();
+    private static final ReferenceQueue<Model> collected = new ReferenceQueue<>();
+
+    private static long lookups;
+    private static long hits;
+    private static long cachedBytes;
+
+    private PoseCache() {
+
+    }
+
+    /**
+     * Copies a cached pose of {@code base} into {@code target}, which must have just been
+     * {@link Model#replace replaced} with {@code base}.
+     *
+     * @param scale any scaling applied after the transform, or 0 if there is none
+     * @return {@code false} if the pose is not cached and has to be transformed
+     */
+    public static boolean restore(Model target, Model base, int frame, int nextFrame, int[] interleaveOrder, int scale) {
+        lookups++;
+        probe.set(base, frame, nextFrame, interleaveOrder, scale);
+        final Pose pose = poses.get(probe);
+        probe.model = null;
+        if (pose == null) {
+            return false;
+        }
+        hits++;
+        final int vertices = target.numVertices;
+        System.arraycopy(pose.vertexX, 0, target.vertexX, 0, vertices);
+        System.arraycopy(pose.vertexY, 0, target.vertexY, 0, vertices);
+        System.arraycopy(pose.vertexZ, 0, target.vertexZ, 0, vertices);
+        if (pose.faceAlpha != null) {
+            System.arraycopy(pose.faceAlpha, 0, target.face_alpha, 0, target.trianglesCount);
+        }
+        return true;
+    }
+
+    /**
+     * Keeps the pose {@code target} was just transformed into. Poses transformed while one
+     * of their frames was still loading are not kept, as they are missing that frame.
+     */
+    public static void store(Model target, Model base, int frame, int nextFrame, int[] interleaveOrder, int scale) {
+        if (!isLoaded(frame) || !isLoaded(nextFrame)) {
+            return;
+        }
+        purgeCollected();
+        final Key key = new Key();
+        key.set(base, frame, nextFrame, interleaveOrder, scale);
+        key.reference = new BaseReference(base, key);
+        key.model = null;
+        final Pose pose = new Pose(target);
+        final Pose previous = poses.put(key, pose);
+        if (previous != null) {
+            cachedBytes -= previous.bytes;
+        }
+        cachedBytes += pose.bytes;
+        final Iterator<Pose> iterator = poses.values().iterator();
+        while (cachedBytes > BUDGET_BYTES && iterator.hasNext()) {
+            cachedBytes -= iterator.next().bytes;
+            iterator.remove();
+        }
+    }
+
+    private static void purgeCollected() {
+        for (BaseReference reference = (BaseReference) collected.poll(); reference != null;
+             reference = (BaseReference) collected.poll()) {
+            final Pose pose = poses.remove(reference.key);
+            if (pose != null) {
+                cachedBytes -= pose.bytes;
+            }
+        }
+    }
+
+    private static boolean isLoaded(int frame) {
+        return Frame.noAnimationInProgress(frame) || Frame.method531(frame) != null;
+    }
+
+    public static void clear() {
+        poses.clear();
+        while (collected.poll() != null) {
+            // the poses they belonged to are already gone
+        }
+        cachedBytes = 0;
+    }
+
+    /**
+     * Returns how many poses were copied rather than transformed and the memory held by the cache.
+     */
+    public static String getStatistics() {
+        return "Poses reused: " + hits + "/" + lookups + ", cached " + poses.size() + " (~" + cachedBytes / 1024 + "KB)";
+    }
+
+    /**
+     * Identifies a pose by its base model, held strongly only by the lookup probe, and
+     * the frames, interleave order and scale it was transformed with.
+     */
+    private static final class Key {
+
+        private Model model;
+        private BaseReference reference;
+        private int frame;
+        private int nextFrame;
+        private int[] interleaveOrder;
+        private int scale;
+        private int hash;
+
+        private void set(Model base, int frame, int nextFrame, int[] interleaveOrder, int scale) {
+            this.model = base;
+            this.frame = frame;
+            this.nextFrame = nextFrame;
+            this.interleaveOrder = interleaveOrder;
+            this.scale = scale;
+            int hash = System.identityHashCode(base);
+            hash = hash * 31 + frame;
+            hash = hash * 31 + nextFrame;
+            hash = hash * 31 + System.identityHashCode(interleaveOrder);
+            this.hash = hash * 31 + scale;
+        }
+
+        private Model base() {
+            return model != null ? model : reference == null ? null : reference.get();
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (object == this) {
+                return true;
+            }
+            if (!(object instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) object;
+            final Model base = base();
+            return base != null && base == other.base() && frame == other.frame && nextFrame == other.nextFrame
+                    && interleaveOrder == other.interleaveOrder && scale == other.scale;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class BaseReference extends WeakReference<Model> {
+
+        private final Key key;
+
+        private BaseReference(Model base, Key key) {
+            super(base, collected);
+            this.key = key;
+        }
+    }
+
+    private static final class Pose {
+
+        private final int[] vertexX;
+        private final int[] vertexY;
+        private final int[] vertexZ;
+        private final byte[] faceAlpha;
+        private final long bytes;
+
+        private Pose(Model model) {
+            vertexX = Arrays.copyOf(model.vertexX, model.numVertices);
+            vertexY = Arrays.copyOf(model.vertexY, model.numVertices);
+            vertexZ = Arrays.copyOf(model.vertexZ, model.numVertices);
+            faceAlpha = model.face_alpha == null ? null : Arrays.copyOf(model.face_alpha, model.trianglesCount);
+            bytes = (long) model.numVertices * 12 + (faceAlpha == null ? 0 : faceAlpha.length) + 64;
+        }
+    }
+}
@@ -2,23 +2,40 @@ package com.runescape.scene;
 
 import com.runescape.cache.anim.Frame;
 import com.runescape.cache.anim.Graphic;
+import com.runescape.collection.NodePool;
 import com.runescape.entity.Renderable;
 import com.runescape.entity.model.Model;
 
 public final class AnimableObject extends Renderable {
 
-    public final int anInt1560;
-    public final int anInt1561;
-    public final int anInt1562;
-    public final int anInt1563;
-    public final int anInt1564;
-    private final Graphic graphic;
+    public static final NodePool<AnimableObject> POOL = new NodePool<>("Graphic", 512, AnimableObject::new);
+
+    public int anInt1560;
+    public int anInt1561;
+    public int anInt1562;
+    public int anInt1563;
+    public int anInt1564;
+    private Graphic graphic;
     public boolean aBoolean1567;
     private int anInt1569;
     private int anInt1570;
 
     public AnimableObject(int i, int j, int l, int i1, int j1, int k1, int l1) {
-        aBoolean1567 = false;
+        init(i, j, l, i1, j1, k1, l1);
+    }
+
+    AnimableObject() {
+
+    }
+
+    /**
+     * Sets up a new or pooled graphic as if it was just constructed.
+     */
+    public AnimableObject init(int i, int j, int l, int i1, int j1, int k1, int l1) {
+        modelBaseY = 1000;
+        normals = null;
+        anInt1569 = 0;
+        anInt1570 = 0;
         graphic = Graphic.cache[i1];
         anInt1560 = i;
         anInt1561 = l1;
@@ -26,6 +43,7 @@ public final class AnimableObject extends Renderable {
         anInt1563 = j1;
         anInt1564 = j + l;
         aBoolean1567 = false;
+        return this;
     }
 
     public Model getRotatedModel() {
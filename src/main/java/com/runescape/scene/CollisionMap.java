@@ -2,6 +2,8 @@ package com.runescape.scene;
 
 import net.runelite.rs.api.RSCollisionMap;
 
+import java.util.Arrays;
+
 public final class CollisionMap implements RSCollisionMap {
 
     private static final int BLOCKED_TILE = 0x200000;
@@ -12,12 +14,29 @@ public final class CollisionMap implements RSCollisionMap {
     private final int width;
     private final int height;
 
+    /**
+     * The number of tiles blocked since the regions were labelled after which they are
+     * labelled again, as blocking only ever splits regions and leaves them merely coarse.
+     */
+    private static final int RELABEL_AFTER_BLOCKS = 64;
+    private static final int[] DIRECTION_X = { -1, 1, 0, 0, -1, 1, -1, 1 };
+    private static final int[] DIRECTION_Y = { 0, 0, -1, 1, -1, -1, 1, 1 };
+
+    private final int[] regions;
+    private final int[] regionParents;
+    private final int[] fillQueue;
+    private boolean regionsLabelled;
+    private int blocksSinceLabelled;
+
     public CollisionMap() {
         xOffset = 0;
         yOffset = 0;
         width = 104;
         height = 104;
         clipData = new int[width][height];
+        regions = new int[width * height];
+        regionParents = new int[width * height + 1];
+        fillQueue = new int[width * height];
         setDefault();
     }
 
@@ -30,7 +49,7 @@ public final class CollisionMap implements RSCollisionMap {
                 else
                     clipData[x][y] = 0x1000000;
         }
-
+        regionsLabelled = false;
     }
 
     public void method211(int y, int orientation, int x, int group, boolean flag) {
@@ -180,10 +199,12 @@ public final class CollisionMap implements RSCollisionMap {
     public void block(int x, int y) {
         x -= xOffset;
         y -= yOffset;
-        clipData[x][y] |= BLOCKED_TILE;
+        flag(x, y, BLOCKED_TILE);
     }
 
     private void flag(int x, int y, int value) {
+        if ((clipData[x][y] & value) != value)
+            blocksSinceLabelled++;
         clipData[x][y] |= value;
     }
 
@@ -333,12 +354,143 @@ public final class CollisionMap implements RSCollisionMap {
 
     private void method217(int i, int j, int k) {
         clipData[j][k] &= 0xffffff - i;
+        reconnect(j, k);
     }
 
     public void removeFloorDecoration(int j, int k) {
         k -= xOffset;
         j -= yOffset;
         clipData[k][j] &= 0xdfffff;
+        reconnect(k, j);
+    }
+
+    /**
+     * Marks the regions as needing to be labelled again, for when {@link #clipData} has been
+     * written to directly.
+     */
+    public void invalidateRegions() {
+        regionsLabelled = false;
+    }
+
+    /**
+     * Returns whether the tile at {@code startX}, {@code startY} lies in the same region as any
+     * tile from {@code minX}, {@code minY} to {@code maxX}, {@code maxY}. Tiles in different
+     * regions can never be walked between; tiles in the same one usually can.
+     */
+    public boolean mayReach(int startX, int startY, int minX, int minY, int maxX, int maxY) {
+        labelRegions();
+        final int start = findRegion(regions[(startX - xOffset) * height + startY - yOffset]);
+        for (int x = Math.max(0, minX - xOffset); x <= Math.min(width - 1, maxX - xOffset); x++) {
+            for (int y = Math.max(0, minY - yOffset); y <= Math.min(height - 1, maxY - yOffset); y++)
+                if (findRegion(regions[x * height + y]) == start)
+                    return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the label of the region the tile at {@code x}, {@code y} lies in.
+     */
+    public int getRegion(int x, int y) {
+        labelRegions();
+        return findRegion(regions[(x - xOffset) * height + y - yOffset]);
+    }
+
+    /**
+     * Labels every tile with the region of tiles it is connected to, walking in any of the
+     * eight directions either way, unless the labels are current.
+     */
+    private void labelRegions() {
+        if (regionsLabelled && blocksSinceLabelled <= RELABEL_AFTER_BLOCKS)
+            return;
+        Arrays.fill(regions, 0);
+        int label = 0;
+        for (int seed = 0; seed < regions.length; seed++) {
+            if (regions[seed] != 0)
+                continue;
+            regionParents[++label] = label;
+            regions[seed] = label;
+            int head = 0;
+            int tail = 0;
+            fillQueue[tail++] = seed;
+            while (head < tail) {
+                final int tile = fillQueue[head++];
+                final int x = tile / height;
+                final int y = tile % height;
+                for (int direction = 0; direction < 8; direction++) {
+                    final int nextX = x + DIRECTION_X[direction];
+                    final int nextY = y + DIRECTION_Y[direction];
+                    if (nextX < 0 || nextY < 0 || nextX >= width || nextY >= height
+                            || regions[nextX * height + nextY] != 0 || !isConnected(x, y, direction))
+                        continue;
+                    regions[nextX * height + nextY] = label;
+                    fillQueue[tail++] = nextX * height + nextY;
+                }
+            }
+        }
+        regionsLabelled = true;
+        blocksSinceLabelled = 0;
+    }
+
+    /**
+     * Merges the regions that clearing flags on a tile may have joined. Only steps between
+     * tiles next to the cleared one depend on its flags, so only those are checked.
+     */
+    private void reconnect(int tileX, int tileY) {
+        if (!regionsLabelled)
+            return;
+        for (int x = Math.max(0, tileX - 1); x <= Math.min(width - 1, tileX + 1); x++) {
+            for (int y = Math.max(0, tileY - 1); y <= Math.min(height - 1, tileY + 1); y++) {
+                for (int direction = 0; direction < 8; direction++) {
+                    final int nextX = x + DIRECTION_X[direction];
+                    final int nextY = y + DIRECTION_Y[direction];
+                    if (nextX < 0 || nextY < 0 || nextX >= width || nextY >= height || !isConnected(x, y, direction))
+                        continue;
+                    final int region = findRegion(regions[x * height + y]);
+                    final int other = findRegion(regions[nextX * height + nextY]);
+                    if (region != other)
+                        regionParents[Math.max(region, other)] = Math.min(region, other);
+                }
+            }
+        }
+    }
+
+    private int findRegion(int region) {
+        while (regionParents[region] != region) {
+            regionParents[region] = regionParents[regionParents[region]];
+            region = regionParents[region];
+        }
+        return region;
+    }
+
+    /**
+     * Returns whether a step can be taken between the tile at {@code x}, {@code y} and its
+     * neighbour in {@code direction}, one way or the other.
+     */
+    private boolean isConnected(int x, int y, int direction) {
+        final int nextX = x + DIRECTION_X[direction];
+        final int nextY = y + DIRECTION_Y[direction];
+        return canStep(x, y, nextX, nextY) || canStep(nextX, nextY, x, y);
+    }
+
+    /**
+     * Returns whether a step can be taken from one tile onto a neighbouring one, checking the
+     * same flags as walking does.
+     */
+    private boolean canStep(int x, int y, int nextX, int nextY) {
+        final int dx = nextX - x;
+        final int dy = nextY - y;
+        final int west = 0x1280108;
+        final int east = 0x1280180;
+        final int south = 0x1280102;
+        final int north = 0x1280120;
+        if (dy == 0)
+            return (clipData[nextX][y] & (dx < 0 ? west : east)) == 0;
+        if (dx == 0)
+            return (clipData[x][nextY] & (dy < 0 ? south : north)) == 0;
+        final int diagonal = dx < 0 ? dy < 0 ? 0x128010e : 0x1280138 : dy < 0 ? 0x1280183 : 0x12801e0;
+        return (clipData[nextX][nextY] & diagonal) == 0 && (clipData[nextX][y] & (dx < 0 ? west : east)) == 0
+                && (clipData[x][nextY] & (dy < 0 ? south : north)) == 0;
     }
 
     public boolean method219(int i, int j, int k, int i1, int j1, int k1) {
@@ -0,0 +1,233 @@
+package com.runescape.scene;
+
+import com.runescape.Client;
+import com.runescape.Configuration;
+import com.runescape.cache.anim.Graphic;
+import com.runescape.collection.Deque;
+import com.runescape.collection.NodePool;
+import com.runescape.scene.object.SpawnedObject;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Replays the projectiles, graphics and object spawns the client has recently received,
+ * with and without {@link Configuration#pooledEffects pooling}, and reports how much each
+ * pass allocated, how fast and how many collections that caused.
+ *
+ * The last {@value #RECORDED_EFFECTS} effects are recorded as they arrive, while
+ * {@link Configuration#recordBenchmarkInputs} is on. When fewer have been seen, the capture
+ * is topped up with a crowded fight of the graphics in the cache. Each cycle goes through
+ * what the client does for its effects: the same init and update calls, and the animated
+ * model the scene would build to draw each live effect. Nodes come from pools of the
+ * benchmark's own so the client's pool statistics are left alone.
+ *
+ * Run from the developer console with {@code effectbench}.
+ */
+public final class EffectBenchmark {
+
+    private static final int RECORDED_EFFECTS = 4096;
+    private static final int PROJECTILE = 0;
+    private static final int GRAPHIC = 1;
+    private static final int SPAWN = 2;
+    private static final int REPLAYS = 50;
+    private static final int FIGHTERS = 60;
+    private static final int FIELDS = 4;
+    private static final int TARGET_X = 7232;
+    private static final int TARGET_Y = 6848;
+
+    /**
+     * The cycle, kind, graphic and duration of each recorded effect, oldest first from {@link #next}.
+     */
+    private static final int[] recorded = new int[RECORDED_EFFECTS * FIELDS];
+    private static int next;
+    private static int count;
+
+    private static final NodePool<Projectile> projectilePool = new NodePool<>("Projectile", 512, Projectile::new, false);
+    private static final NodePool<AnimableObject> graphicPool = new NodePool<>("Graphic", 512, AnimableObject::new, false);
+    private static final NodePool<SpawnedObject> spawnPool = new NodePool<>("Object spawn", 256, SpawnedObject::new, false);
+
+    private EffectBenchmark() {
+
+    }
+
+    public static void recordProjectile(int graphic, int startDelay, int speed) {
+        record(PROJECTILE, graphic, Math.max(1, speed - startDelay));
+    }
+
+    public static void recordGraphic(int graphic, int delay) {
+        record(GRAPHIC, graphic, delay);
+    }
+
+    public static void recordSpawn(int longevity) {
+        record(SPAWN, -1, longevity > 0 ? longevity : 50);
+    }
+
+    private static void record(int kind, int graphic, int duration) {
+        if (!Configuration.recordBenchmarkInputs)
+            return;
+        recorded[next * FIELDS] = Client.tick;
+        recorded[next * FIELDS + 1] = kind;
+        recorded[next * FIELDS + 2] = graphic;
+        recorded[next * FIELDS + 3] = duration;
+        next = (next + 1) % RECORDED_EFFECTS;
+        count = Math.min(count + 1, RECORDED_EFFECTS);
+    }
+
+    public static List<String> run() {
+        final List<String> results = new ArrayList<>();
+        final List<Integer> graphics = new ArrayList<>();
+        if (Graphic.cache != null) {
+            for (Graphic graphic : Graphic.cache) {
+                if (graphic != null && graphic.animationSequence != null)
+                    graphics.add(graphic.id);
+            }
+        }
+        if (graphics.isEmpty()) {
+            results.add("No animated graphics are loaded.");
+            return results;
+        }
+        final List<int[]> capture = capture(graphics);
+        final int cycles = capture.get(capture.size() - 1)[0] + 1;
+        results.add("Replaying " + capture.size() + " effects over " + cycles + " cycles (" + count + " recorded), "
+                + REPLAYS + " times");
+        final boolean saved = Configuration.pooledEffects;
+        try {
+            Configuration.pooledEffects = false;
+            replay(capture, cycles);
+            results.add(measure("Allocated", capture, cycles));
+            Configuration.pooledEffects = true;
+            replay(capture, cycles);
+            results.add(measure("Pooled", capture, cycles));
+        } finally {
+            Configuration.pooledEffects = saved;
+        }
+        return results;
+    }
+
+    /**
+     * Returns the recorded effects with cycles counted from the first, topped up with a fight.
+     */
+    private static List<int[]> capture(List<Integer> graphics) {
+        final List<int[]> capture = new ArrayList<>();
+        for (int index = 0; index < count; index++) {
+            final int from = (next - count + index + RECORDED_EFFECTS) % RECORDED_EFFECTS * FIELDS;
+            capture.add(Arrays.copyOfRange(recorded, from, from + FIELDS));
+        }
+        final Random random = new Random(RECORDED_EFFECTS);
+        final int start = capture.isEmpty() ? 0 : capture.get(capture.size() - 1)[0] + 1;
+        for (int cycle = start; capture.size() < RECORDED_EFFECTS; cycle += 30) {
+            for (int fighter = 0; fighter < FIGHTERS && capture.size() < RECORDED_EFFECTS; fighter++) {
+                if (random.nextInt(4) != 0)
+                    continue;
+                final int graphic = graphics.get(random.nextInt(graphics.size()));
+                capture.add(new int[] { cycle, PROJECTILE, graphic, 30 + random.nextInt(60) });
+                capture.add(new int[] { cycle + 30, GRAPHIC, graphic, 0 });
+                if (random.nextInt(8) == 0)
+                    capture.add(new int[] { cycle, SPAWN, -1, 50 });
+            }
+        }
+        final int first = capture.get(0)[0];
+        for (int[] effect : capture) {
+            effect[0] -= first;
+        }
+        capture.sort((a, b) -> Integer.compare(a[0], b[0]));
+        return capture;
+    }
+
+    private static String measure(String name, List<int[]> capture, int cycles) {
+        final long gcCount = gcCount();
+        final long gcTime = gcTime();
+        final long allocated = allocatedBytes();
+        final long start = System.nanoTime();
+        for (int pass = 0; pass < REPLAYS; pass++) {
+            replay(capture, cycles);
+        }
+        final long time = Math.max(1, System.nanoTime() - start);
+        final long bytes = allocatedBytes() - allocated;
+        return name + ": " + (allocated < 0 ? "?" : bytes / REPLAYS / 1024 + "KB per replay, "
+                + bytes * 1000 / time + "MB/s") + " allocated, "
+                + (gcCount() - gcCount) + " collections taking " + (gcTime() - gcTime) + "ms, "
+                + time / REPLAYS / 1000 + "us per replay";
+    }
+
+    private static void replay(List<int[]> capture, int cycles) {
+        final Deque projectiles = new Deque();
+        final Deque graphics = new Deque();
+        final Deque spawns = new Deque();
+        int effect = 0;
+        for (int cycle = 0; cycle < cycles || projectiles.reverseGetFirst() != null
+                || graphics.reverseGetFirst() != null || spawns.reverseGetFirst() != null; cycle++) {
+            for (; effect < capture.size() && capture.get(effect)[0] == cycle; effect++) {
+                final int[] e = capture.get(effect);
+                if (e[1] == PROJECTILE) {
+                    final Projectile projectile = projectilePool.acquire()
+                            .init(16, 0, cycle, cycle + e[3], 64, 0, -40, 6400, 6400, 0, e[2]);
+                    projectile.calculateIncrements(cycle, TARGET_Y, -40, TARGET_X);
+                    projectiles.insertHead(projectile);
+                } else if (e[1] == GRAPHIC) {
+                    graphics.insertHead(graphicPool.acquire().init(0, cycle, e[3], e[2], -40, 6400, 6400));
+                } else {
+                    final SpawnedObject spawn = spawnPool.acquire().reset();
+                    spawn.getLongetivity = e[3];
+                    spawns.insertHead(spawn);
+                }
+            }
+            for (Projectile projectile = (Projectile) projectiles.reverseGetFirst(); projectile != null;
+                 projectile = (Projectile) projectiles.reverseGetNext()) {
+                if (cycle > projectile.stopCycle) {
+                    projectilePool.release(projectile);
+                } else if (cycle >= projectile.startCycle) {
+                    projectile.calculateIncrements(cycle, TARGET_Y, -40, TARGET_X);
+                    projectile.progressCycles(1);
+                    projectile.getRotatedModel();
+                }
+            }
+            for (AnimableObject graphic = (AnimableObject) graphics.reverseGetFirst(); graphic != null;
+                 graphic = (AnimableObject) graphics.reverseGetNext()) {
+                if (graphic.aBoolean1567) {
+                    graphicPool.release(graphic);
+                } else if (cycle >= graphic.anInt1564) {
+                    graphic.method454(1);
+                    if (graphic.aBoolean1567)
+                        graphicPool.release(graphic);
+                    else
+                        graphic.getRotatedModel();
+                }
+            }
+            for (SpawnedObject spawn = (SpawnedObject) spawns.reverseGetFirst(); spawn != null;
+                 spawn = (SpawnedObject) spawns.reverseGetNext()) {
+                if (--spawn.getLongetivity <= 0)
+                    spawnPool.release(spawn);
+            }
+        }
+    }
+
+    private static long allocatedBytes() {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean)
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        return -1;
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, collector.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static long gcTime() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, collector.getCollectionTime());
+        }
+        return total;
+    }
+}
@@ -11,13 +11,12 @@ import com.runescape.io.Buffer;
 import com.runescape.util.ChunkUtil;
 import com.runescape.util.ObjectKeyUtil;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 public final class MapRegion {
 
-    private final int[] hues;
-    private final int[] saturations;
-    private final int[] luminances;
-    private final int[] chromas;
-    private final int[] anIntArray128;
     private final int[][][] tileHeights;
     public byte[][][] overlays;
     public static int anInt131;
@@ -25,7 +24,6 @@ public final class MapRegion {
     private final int[][][] anIntArrayArrayArray135;
     public byte[][][] overlayTypes;
     private static final int COSINE_VERTICES[] = { 1, 0, -1, 0 };
-    private final int[][] tileLighting;
     private static final int anIntArray140[] = { 16, 32, 64, 128 };
     public byte[][][] underlays;
     private static final int SINE_VERTICIES[] = { 0, -1, 0, 1 };
@@ -41,8 +39,37 @@ public final class MapRegion {
     public static final int BRIDGE_TILE = 2;
     private static final int FORCE_LOWEST_PLANE = 8;
 
+    private static final int LIGHT_X = -50;
+    private static final int LIGHT_Y = -10;
+    private static final int LIGHT_Z = -50;
+    private static final int LIGHT_DIFFUSION = '\u0300' * (int) Math.sqrt(LIGHT_X * LIGHT_X + LIGHT_Y * LIGHT_Y + LIGHT_Z * LIGHT_Z) >> 8;
+
+    /**
+     * The light of every slope whose height differences are multiples of 8 within
+     * {@link #SLOPE_RANGE}, which is how most terrain is built. Each entry is computed with
+     * {@link #slopeLight} itself, so looking one up gives exactly the same light.
+     */
+    private static final int SLOPE_RANGE = 512;
+    private static final int SLOPE_STEPS = SLOPE_RANGE * 2 / 8 + 1;
+    private static final int[] SLOPE_LIGHT = new int[SLOPE_STEPS * SLOPE_STEPS];
+
+    static {
+        for (int dx = 0; dx < SLOPE_STEPS; dx++) {
+            for (int dy = 0; dy < SLOPE_STEPS; dy++)
+                SLOPE_LIGHT[dx * SLOPE_STEPS + dy] = slopeLight(dx * 8 - SLOPE_RANGE, dy * 8 - SLOPE_RANGE);
+        }
+    }
+
+    /**
+     * The row bands each plane is lit in, so lighting spreads over more threads than there are planes.
+     */
+    private static final int LIGHTING_BANDS = 4;
+
+    /**
+     * Regions are decoded away from the game thread, so the {@link #maximumPlane} shared with
+     * the live scene is reset when the region is {@link RegionBuild#apply applied} instead.
+     */
     public MapRegion(byte fileFlags[][][], int tileHeights[][][]) {
-        maximumPlane = 99;
         regionSizeX = 104;
         regionSizeY = 104;
         this.tileHeights = tileHeights;
@@ -53,12 +80,6 @@ public final class MapRegion {
         overlayOrientations = new byte[4][regionSizeX][regionSizeY];
         anIntArrayArrayArray135 = new int[4][regionSizeX + 1][regionSizeY + 1];
         shading = new byte[4][regionSizeX + 1][regionSizeY + 1];
-        tileLighting = new int[regionSizeX + 1][regionSizeY + 1];
-        hues = new int[regionSizeY];
-        saturations = new int[regionSizeY];
-        luminances = new int[regionSizeY];
-        chromas = new int[regionSizeY];
-        anIntArray128 = new int[regionSizeY];
     }
 
     private static int calculateNoise(int x, int y) {
@@ -85,181 +106,42 @@ public final class MapRegion {
                 }
 
             }
-            int mapLight = Client.instance.isHdMinimapEnabled() ? 52 : 96;
+            final int mapLight = Client.instance.isHdMinimapEnabled() ? 52 : 96;
+            final int threads = RegionBuild.configuredThreads();
+            final int[][][] lighting = new int[4][regionSizeX + 1][regionSizeY + 1];
+            final TileBatch[] batches = new TileBatch[4];
+            final List<Runnable> tasks = new ArrayList<>();
             for (int z = 0; z < 4; z++) {
-                byte shading[][] = this.shading[z];
-
-                char diffusion = '\u0300';
-                byte lightX = -50;
-                byte lightY = -10;
-                byte lightZ = -50;
-                int light = (int) Math.sqrt(lightX * lightX + lightY * lightY + lightZ * lightZ);
-                int l3 = diffusion * light >> 8;
-                for (int j4 = 1; j4 < regionSizeY - 1; j4++) {
-                    for (int j5 = 1; j5 < regionSizeX - 1; j5++) {
-                        int k6 = tileHeights[z][j5 + 1][j4] - tileHeights[z][j5 - 1][j4];
-                        int l7 = tileHeights[z][j5][j4 + 1] - tileHeights[z][j5][j4 - 1];
-                        int j9 = (int) Math.sqrt(k6 * k6 + 0x10000 + l7 * l7);
-                        int k12 = (k6 << 8) / j9;
-                        int l13 = 0x10000 / j9;
-                        int j15 = (l7 << 8) / j9;
-                        int j16 = 96 + (lightX * k12 + lightY * l13 + lightZ * j15) / l3;
-                        int j17 = (shading[j5 - 1][j4] >> 2) + (shading[j5 + 1][j4] >> 3) + (shading[j5][j4 - 1] >> 2) + (shading[j5][j4 + 1] >> 3) + (shading[j5][j4] >> 1);
-                        tileLighting[j5][j4] = j16 - j17;
-                    }
-
-                }
-
-                for (int k5 = 0; k5 < regionSizeY; k5++) {
-                    hues[k5] = 0;
-                    saturations[k5] = 0;
-                    luminances[k5] = 0;
-                    chromas[k5] = 0;
-                    anIntArray128[k5] = 0;
+                final int plane = z;
+                for (int band = 0; band < LIGHTING_BANDS; band++) {
+                    final int startY = 1 + (regionSizeY - 2) * band / LIGHTING_BANDS;
+                    final int endY = 1 + (regionSizeY - 2) * (band + 1) / LIGHTING_BANDS;
+                    tasks.add(() -> lightTerrain(plane, lighting[plane], startY, endY));
                 }
-
-                for (int l6 = -5; l6 < regionSizeX + 5; l6++) {
-                    for (int i8 = 0; i8 < regionSizeY; i8++) {
-                        int k9 = l6 + 5;
-                        if (k9 >= 0 && k9 < regionSizeX) {
-                            int l12 = underlays[z][k9][i8] & 0xff;
-                            if (l12 > 0) {
-                                if (l12 > FloorDefinition.underlays.length) {
-                                    l12 = FloorDefinition.underlays.length;
-                                }
-                                FloorDefinition flo = FloorDefinition.underlays[l12 - 1];
-                                hues[i8] += flo.blendHue;
-                                saturations[i8] += flo.saturation;
-                                luminances[i8] += flo.luminance;
-                                chromas[i8] += flo.blendHueMultiplier;
-                                anIntArray128[i8]++;
-                            }
-                        }
-                        int i13 = l6 - 5;
-                        if (i13 >= 0 && i13 < regionSizeX) {
-                            int i14 = underlays[z][i13][i8] & 0xff;
-                            if (i14 > 0) {
-                                FloorDefinition flo_1 = FloorDefinition.underlays[i14 - 1];
-                                hues[i8] -= flo_1.blendHue;
-                                saturations[i8] -= flo_1.saturation;
-                                luminances[i8] -= flo_1.luminance;
-                                chromas[i8] -= flo_1.blendHueMultiplier;
-                                anIntArray128[i8]--;
-                            }
-                        }
+            }
+            RegionBuild.runAll(tasks, threads);
+            tasks.clear();
+            for (int z = 0; z < 4; z++) {
+                final int plane = z;
+                final TileBatch batch = batches[z] = new TileBatch();
+                tasks.add(() -> {
+                    try {
+                        shadeTerrain(plane, lighting[plane], mapLight, batch);
+                    } catch (RuntimeException ex) {
+                        batch.failure = ex;
                     }
+                });
+            }
+            RegionBuild.runAll(tasks, threads);
 
-                    if (l6 >= 1 && l6 < regionSizeX - 1) {
-                        int l9 = 0;
-                        int j13 = 0;
-                        int j14 = 0;
-                        int k15 = 0;
-                        int k16 = 0;
-                        for (int k17 = -5; k17 < regionSizeY + 5; k17++) {
-                            int j18 = k17 + 5;
-                            if (j18 >= 0 && j18 < regionSizeY) {
-                                l9 += hues[j18];
-                                j13 += saturations[j18];
-                                j14 += luminances[j18];
-                                k15 += chromas[j18];
-                                k16 += anIntArray128[j18];
-                            }
-                            int k18 = k17 - 5;
-                            if (k18 >= 0 && k18 < regionSizeY) {
-                                l9 -= hues[k18];
-                                j13 -= saturations[k18];
-                                j14 -= luminances[k18];
-                                k15 -= chromas[k18];
-                                k16 -= anIntArray128[k18];
-                            }
-                            if (k17 >= 1 && k17 < regionSizeY - 1 && (!lowMem || (tileFlags[0][l6][k17] & 2) != 0 || (tileFlags[z][l6][k17] & 0x10) == 0 && getCollisionPlane(k17, z, l6) == anInt131)) {
-                                if (z < maximumPlane)
-                                    maximumPlane = z;
-                                int l18 = underlays[z][l6][k17] & 0xff;
-                                int i19 = overlays[z][l6][k17] & 0xff;
-                                if (l18 > 0 || i19 > 0) {
-                                    int j19 = tileHeights[z][l6][k17];
-                                    int k19 = tileHeights[z][l6 + 1][k17];
-                                    int l19 = tileHeights[z][l6 + 1][k17 + 1];
-                                    int i20 = tileHeights[z][l6][k17 + 1];
-                                    int j20 = tileLighting[l6][k17];
-                                    int k20 = tileLighting[l6 + 1][k17];
-                                    int l20 = tileLighting[l6 + 1][k17 + 1];
-                                    int i21 = tileLighting[l6][k17 + 1];
-                                    int j21 = -1;
-                                    int k21 = -1;
-                                    if (l18 > 0) {
-                                        int l21 = (l9 * 256) / k15;
-                                        int j22 = j13 / k16;
-                                        int l22 = j14 / k16;
-                                        j21 = encode(l21, j22, l22);
-
-                                        if (l22 < 0)
-                                            l22 = 0;
-                                        else if (l22 > 255)
-                                            l22 = 255;
-
-                                        k21 = encode(l21, j22, l22);
-                                    }
-                                    if (z > 0) {
-                                        boolean flag = true;
-                                        if (l18 == 0 && overlayTypes[z][l6][k17] != 0)
-                                            flag = false;
-                                        if (i19 > 0 && !FloorDefinition.overlays[i19 - 1].occlude)
-                                            flag = false;
-                                        if (flag && j19 == k19 && j19 == l19 && j19 == i20)
-                                            anIntArrayArrayArray135[z][l6][k17] |= 0x924;
-                                    }
-                                    int i22 = 0;
-
-                                    if (j21 != -1)
-                                        i22 = Rasterizer3D.hslToRgb[method187(k21, mapLight)];
-                                    if (i19 == 0) {
-                                        scene.addTile(z, l6, k17, 0, 0, -1, j19, k19, l19, i20, method187(j21, j20), method187(j21, k20), method187(j21, l20), method187(j21, i21), 0, 0, 0, 0, i22, 0);
-                                    } else {
-
-                                        int k22 = overlayTypes[z][l6][k17] + 1;
-                                        byte byte4 = overlayOrientations[z][l6][k17];
-                                        if (i19 - 1 > FloorDefinition.overlays.length) {
-                                            i19 = FloorDefinition.overlays.length;
-                                        }
-                                        FloorDefinition overlay_flo = FloorDefinition.overlays[i19 - 1];
-                                        int textureId = overlay_flo.texture;
-                                        int j23;
-                                        int minimapColor;
-
-                                        if (textureId > 50) {
-                                            textureId = -1;
-                                        }
-                                        if (textureId >= 0) {
-                                            minimapColor = Rasterizer3D.getOverallColour(textureId);
-                                            j23 = -1;
-                                        } else if (overlay_flo.rgb == 0xff00ff) {
-                                            minimapColor = 0;
-                                            j23 = -2;
-                                            textureId = -1;
-                                        } else if(overlay_flo.rgb == 0x333333) {
-                                            minimapColor = Rasterizer3D.hslToRgb[checkedLight(overlay_flo.hsl16, mapLight)];
-                                            j23 = -2;
-                                            textureId = -1;
-                                        } else {
-                                            j23 = encode(overlay_flo.hue, overlay_flo.saturation, overlay_flo.luminance);
-                                            minimapColor = Rasterizer3D.hslToRgb[checkedLight(overlay_flo.hsl16, mapLight)];
-                                        }
-
-                                        if (minimapColor == 0x000000 && overlay_flo.anotherRgb != -1) {
-                                            int newMinimapColor = encode(overlay_flo.anotherHue, overlay_flo.anotherSaturation, overlay_flo.anotherLuminance);
-                                            minimapColor = Rasterizer3D.hslToRgb[checkedLight(newMinimapColor, mapLight)];
-                                        }
-
-                                        scene.addTile(z, l6, k17, k22, byte4, textureId, j19, k19, l19, i20, method187(j21, j20), method187(j21, k20), method187(j21, l20), method187(j21, i21), checkedLight(j23, j20), checkedLight(j23, k20), checkedLight(j23, l20), checkedLight(j23, i21), i22, minimapColor);
-                                    }
-                                }
-                            }
-                        }
-
-                    }
-                }
+            // Tiles go into the scene in the order they were shaded, plane by plane, as the scene is not thread safe
+            for (int z = 0; z < 4; z++) {
+                final TileBatch batch = batches[z];
+                if (batch.visible && z < maximumPlane)
+                    maximumPlane = z;
+                batch.addTo(scene, z);
+                if (batch.failure != null)
+                    throw batch.failure;
 
                 for (int j8 = 1; j8 < regionSizeY - 1; j8++) {
                     for (int i10 = 1; i10 < regionSizeX - 1; i10++)
@@ -408,6 +290,195 @@ public final class MapRegion {
         }
     }
 
+    /**
+     * Lights the rows {@code startY} to {@code endY} of a plane from the slope of its
+     * terrain, less the shading cast on it.
+     */
+    private void lightTerrain(int z, int[][] tileLighting, int startY, int endY) {
+        byte shading[][] = this.shading[z];
+        for (int j4 = startY; j4 < endY; j4++) {
+            for (int j5 = 1; j5 < regionSizeX - 1; j5++) {
+                int k6 = tileHeights[z][j5 + 1][j4] - tileHeights[z][j5 - 1][j4];
+                int l7 = tileHeights[z][j5][j4 + 1] - tileHeights[z][j5][j4 - 1];
+                int j16;
+                if ((k6 & 7) == 0 && (l7 & 7) == 0 && k6 >= -SLOPE_RANGE && k6 <= SLOPE_RANGE && l7 >= -SLOPE_RANGE && l7 <= SLOPE_RANGE)
+                    j16 = SLOPE_LIGHT[(k6 + SLOPE_RANGE >> 3) * SLOPE_STEPS + (l7 + SLOPE_RANGE >> 3)];
+                else
+                    j16 = slopeLight(k6, l7);
+                int j17 = (shading[j5 - 1][j4] >> 2) + (shading[j5 + 1][j4] >> 3) + (shading[j5][j4 - 1] >> 2) + (shading[j5][j4 + 1] >> 3) + (shading[j5][j4] >> 1);
+                tileLighting[j5][j4] = j16 - j17;
+            }
+
+        }
+    }
+
+    /**
+     * Returns the light falling on a tile whose neighbours differ in height by {@code dx}
+     * and {@code dy}.
+     */
+    private static int slopeLight(int dx, int dy) {
+        int length = (int) Math.sqrt(dx * dx + 0x10000 + dy * dy);
+        int normalX = (dx << 8) / length;
+        int normalY = 0x10000 / length;
+        int normalZ = (dy << 8) / length;
+        return 96 + (LIGHT_X * normalX + LIGHT_Y * normalY + LIGHT_Z * normalZ) / LIGHT_DIFFUSION;
+    }
+
+    /**
+     * Blends the underlays of a plane and shades its tiles, collecting them into
+     * {@code batch} rather than adding them to the scene.
+     */
+    private void shadeTerrain(int z, int[][] tileLighting, int mapLight, TileBatch batch) {
+        final int[] hues = new int[regionSizeY];
+        final int[] saturations = new int[regionSizeY];
+        final int[] luminances = new int[regionSizeY];
+        final int[] chromas = new int[regionSizeY];
+        final int[] anIntArray128 = new int[regionSizeY];
+
+        for (int l6 = -5; l6 < regionSizeX + 5; l6++) {
+            for (int i8 = 0; i8 < regionSizeY; i8++) {
+                int k9 = l6 + 5;
+                if (k9 >= 0 && k9 < regionSizeX) {
+                    int l12 = underlays[z][k9][i8] & 0xff;
+                    if (l12 > 0) {
+                        if (l12 > FloorDefinition.underlays.length) {
+                            l12 = FloorDefinition.underlays.length;
+                        }
+                        FloorDefinition flo = FloorDefinition.underlays[l12 - 1];
+                        hues[i8] += flo.blendHue;
+                        saturations[i8] += flo.saturation;
+                        luminances[i8] += flo.luminance;
+                        chromas[i8] += flo.blendHueMultiplier;
+                        anIntArray128[i8]++;
+                    }
+                }
+                int i13 = l6 - 5;
+                if (i13 >= 0 && i13 < regionSizeX) {
+                    int i14 = underlays[z][i13][i8] & 0xff;
+                    if (i14 > 0) {
+                        FloorDefinition flo_1 = FloorDefinition.underlays[i14 - 1];
+                        hues[i8] -= flo_1.blendHue;
+                        saturations[i8] -= flo_1.saturation;
+                        luminances[i8] -= flo_1.luminance;
+                        chromas[i8] -= flo_1.blendHueMultiplier;
+                        anIntArray128[i8]--;
+                    }
+                }
+            }
+
+            if (l6 >= 1 && l6 < regionSizeX - 1) {
+                int l9 = 0;
+                int j13 = 0;
+                int j14 = 0;
+                int k15 = 0;
+                int k16 = 0;
+                for (int k17 = -5; k17 < regionSizeY + 5; k17++) {
+                    int j18 = k17 + 5;
+                    if (j18 >= 0 && j18 < regionSizeY) {
+                        l9 += hues[j18];
+                        j13 += saturations[j18];
+                        j14 += luminances[j18];
+                        k15 += chromas[j18];
+                        k16 += anIntArray128[j18];
+                    }
+                    int k18 = k17 - 5;
+                    if (k18 >= 0 && k18 < regionSizeY) {
+                        l9 -= hues[k18];
+                        j13 -= saturations[k18];
+                        j14 -= luminances[k18];
+                        k15 -= chromas[k18];
+                        k16 -= anIntArray128[k18];
+                    }
+                    if (k17 >= 1 && k17 < regionSizeY - 1 && (!lowMem || (tileFlags[0][l6][k17] & 2) != 0 || (tileFlags[z][l6][k17] & 0x10) == 0 && getCollisionPlane(k17, z, l6) == anInt131)) {
+                        batch.visible = true;
+                        int l18 = underlays[z][l6][k17] & 0xff;
+                        int i19 = overlays[z][l6][k17] & 0xff;
+                        if (l18 > 0 || i19 > 0) {
+                            int j19 = tileHeights[z][l6][k17];
+                            int k19 = tileHeights[z][l6 + 1][k17];
+                            int l19 = tileHeights[z][l6 + 1][k17 + 1];
+                            int i20 = tileHeights[z][l6][k17 + 1];
+                            int j20 = tileLighting[l6][k17];
+                            int k20 = tileLighting[l6 + 1][k17];
+                            int l20 = tileLighting[l6 + 1][k17 + 1];
+                            int i21 = tileLighting[l6][k17 + 1];
+                            int j21 = -1;
+                            int k21 = -1;
+                            if (l18 > 0) {
+                                int l21 = (l9 * 256) / k15;
+                                int j22 = j13 / k16;
+                                int l22 = j14 / k16;
+                                j21 = encode(l21, j22, l22);
+
+                                if (l22 < 0)
+                                    l22 = 0;
+                                else if (l22 > 255)
+                                    l22 = 255;
+
+                                k21 = encode(l21, j22, l22);
+                            }
+                            if (z > 0) {
+                                boolean flag = true;
+                                if (l18 == 0 && overlayTypes[z][l6][k17] != 0)
+                                    flag = false;
+                                if (i19 > 0 && !FloorDefinition.overlays[i19 - 1].occlude)
+                                    flag = false;
+                                if (flag && j19 == k19 && j19 == l19 && j19 == i20)
+                                    anIntArrayArrayArray135[z][l6][k17] |= 0x924;
+                            }
+                            int i22 = 0;
+
+                            if (j21 != -1)
+                                i22 = Rasterizer3D.hslToRgb[method187(k21, mapLight)];
+                            if (i19 == 0) {
+                                batch.add(l6, k17, 0, 0, -1, j19, k19, l19, i20, method187(j21, j20), method187(j21, k20), method187(j21, l20), method187(j21, i21), 0, 0, 0, 0, i22, 0);
+                            } else {
+
+                                int k22 = overlayTypes[z][l6][k17] + 1;
+                                byte byte4 = overlayOrientations[z][l6][k17];
+                                if (i19 - 1 > FloorDefinition.overlays.length) {
+                                    i19 = FloorDefinition.overlays.length;
+                                }
+                                FloorDefinition overlay_flo = FloorDefinition.overlays[i19 - 1];
+                                int textureId = overlay_flo.texture;
+                                int j23;
+                                int minimapColor;
+
+                                if (textureId > 50) {
+                                    textureId = -1;
+                                }
+                                if (textureId >= 0) {
+                                    // Only ever caches the same average colour, so racing other planes to it is harmless
+                                    minimapColor = Rasterizer3D.getOverallColour(textureId);
+                                    j23 = -1;
+                                } else if (overlay_flo.rgb == 0xff00ff) {
+                                    minimapColor = 0;
+                                    j23 = -2;
+                                    textureId = -1;
+                                } else if(overlay_flo.rgb == 0x333333) {
+                                    minimapColor = Rasterizer3D.hslToRgb[checkedLight(overlay_flo.hsl16, mapLight)];
+                                    j23 = -2;
+                                    textureId = -1;
+                                } else {
+                                    j23 = encode(overlay_flo.hue, overlay_flo.saturation, overlay_flo.luminance);
+                                    minimapColor = Rasterizer3D.hslToRgb[checkedLight(overlay_flo.hsl16, mapLight)];
+                                }
+
+                                if (minimapColor == 0x000000 && overlay_flo.anotherRgb != -1) {
+                                    int newMinimapColor = encode(overlay_flo.anotherHue, overlay_flo.anotherSaturation, overlay_flo.anotherLuminance);
+                                    minimapColor = Rasterizer3D.hslToRgb[checkedLight(newMinimapColor, mapLight)];
+                                }
+
+                                batch.add(l6, k17, k22, byte4, textureId, j19, k19, l19, i20, method187(j21, j20), method187(j21, k20), method187(j21, l20), method187(j21, i21), checkedLight(j23, j20), checkedLight(j23, k20), checkedLight(j23, l20), checkedLight(j23, i21), i22, minimapColor);
+                            }
+                        }
+                    }
+                }
+
+            }
+        }
+    }
+
     private static int calculateVertexHeight(int i, int j) {
         int mapHeight = (interpolatedNoise(i + 45365, j + 0x16713, 4) - 128) + (interpolatedNoise(i + 10294, j + 37821, 2) - 128 >> 1) + (interpolatedNoise(i, j, 1) - 128 >> 2);
         mapHeight = (int) ((double) mapHeight * 0.29999999999999999D) + 35;
@@ -892,15 +963,7 @@ public final class MapRegion {
     }
 
     public final void method180(byte abyte0[], int i, int j, int k, int l, CollisionMap aclass11[]) {
-        for (int i1 = 0; i1 < 4; i1++) {
-            for (int j1 = 0; j1 < 64; j1++) {
-                for (int k1 = 0; k1 < 64; k1++)
-                    if (j + j1 > 0 && j + j1 < 103 && i + k1 > 0 && i + k1 < 103)
-                        aclass11[i1].clipData[j + j1][i + k1] &= 0xfeffffff;
-            }
-
-        }
-
+        unblockTerrain(i, j, aclass11);
         Buffer stream = new Buffer(abyte0);
         for (int l1 = 0; l1 < 4; l1++) {
             for (int i2 = 0; i2 < 64; i2++) {
@@ -912,6 +975,45 @@ public final class MapRegion {
         }
     }
 
+    /**
+     * Clears the collision flag marking tiles without terrain for the map square at the given offset.
+     */
+    public final void unblockTerrain(int yOffset, int xOffset, CollisionMap maps[]) {
+        for (int z = 0; z < 4; z++) {
+            for (int x = 0; x < 64; x++) {
+                for (int y = 0; y < 64; y++)
+                    if (xOffset + x > 0 && xOffset + x < 103 && yOffset + y > 0 && yOffset + y < 103)
+                        maps[z].clipData[xOffset + x][yOffset + y] &= 0xfeffffff;
+            }
+
+        }
+    }
+
+    /**
+     * Copies the decoded terrain of {@code source} into this region, where tile x, y of this
+     * region is tile x + shiftX, y + shiftY of the source. Tiles outside the source are left alone.
+     */
+    public final void shiftTerrain(MapRegion source, int shiftX, int shiftY) {
+        final int startX = Math.max(0, -shiftX);
+        final int endX = Math.min(regionSizeX, regionSizeX - shiftX);
+        final int startY = Math.max(0, -shiftY);
+        final int endY = Math.min(regionSizeY, regionSizeY - shiftY);
+        if (startY >= endY) {
+            return;
+        }
+        final int length = endY - startY;
+        for (int z = 0; z < 4; z++) {
+            for (int x = startX; x < endX; x++) {
+                System.arraycopy(source.underlays[z][x + shiftX], startY + shiftY, underlays[z][x], startY, length);
+                System.arraycopy(source.overlays[z][x + shiftX], startY + shiftY, overlays[z][x], startY, length);
+                System.arraycopy(source.overlayTypes[z][x + shiftX], startY + shiftY, overlayTypes[z][x], startY, length);
+                System.arraycopy(source.overlayOrientations[z][x + shiftX], startY + shiftY, overlayOrientations[z][x], startY, length);
+                System.arraycopy(source.tileFlags[z][x + shiftX], startY + shiftY, tileFlags[z][x], startY, length);
+                System.arraycopy(source.tileHeights[z][x + shiftX], startY + shiftY, tileHeights[z][x], startY, length);
+            }
+        }
+    }
+
     private void readTile(int i, int j, Buffer stream, int k, int l, int i1, int k1) {
         try {
             if (k >= 0 && k < 104 && i >= 0 && i < 104) {
@@ -984,42 +1086,37 @@ public final class MapRegion {
     }
 
     public final void readObjectMap(CollisionMap aclass11[], SceneGraph worldController, int i, int j, int k, int l, byte abyte0[], int i1, int j1, int k1) {
-        label0: {
-            Buffer stream = new Buffer(abyte0);
-            int l1 = -1;
-            do {
-                int i2 = stream.readUSmart2();
-                if (i2 == 0)
-                    break label0;
-                l1 += i2;
-                int j2 = 0;
-                do {
-                    int k2 = stream.readUSmart();
-                    if (k2 == 0)
-                        break;
-                    j2 += k2 - 1;
-                    int l2 = j2 & 0x3f;
-                    int i3 = j2 >> 6 & 0x3f;
-                    int j3 = j2 >> 12;
-                    int k3 = stream.readUnsignedByte();
-                    int l3 = k3 >> 2;
-                    int i4 = k3 & 3;
-                    if (j3 == i && i3 >= i1 && i3 < i1 + 8 && l2 >= k && l2 < k + 8) {
-                        ObjectDefinition class46 = ObjectDefinition.lookup(l1);
-                        int j4 = j + ChunkUtil.method157(j1, class46.sizeY, i3 & 7, l2 & 7, class46.sizeX);
-                        int k4 = k1 + ChunkUtil.method158(l2 & 7, class46.sizeY, j1, class46.sizeX, i3 & 7);
-                        if (j4 > 0 && k4 > 0 && j4 < 103 && k4 < 103) {
-                            int l4 = j3;
-                            if ((tileFlags[1][j4][k4] & 2) == 2)
-                                l4--;
-                            CollisionMap class11 = null;
-                            if (l4 >= 0)
-                                class11 = aclass11[l4];
-                            renderObject(k4, worldController, class11, l3, l, j4, l1, i4 + j1 & 3);
-                        }
-                    }
-                } while (true);
-            } while (true);
+        placeChunkObjects(ObjectMap.decode(abyte0, true), aclass11, worldController, i, j, k, l, i1, j1, k1);
+    }
+
+    /**
+     * Places the objects of a parsed object map that fall in one chunk of a constructed region,
+     * taking the same arguments as {@link #readObjectMap}.
+     */
+    public final void placeChunkObjects(ObjectMap objects, CollisionMap aclass11[], SceneGraph worldController, int i, int j, int k, int l, int i1, int j1, int k1) {
+        for (int index = 0; index < objects.size(); index++) {
+            int l1 = objects.getId(index);
+            int j2 = objects.getPosition(index);
+            int l2 = j2 & 0x3f;
+            int i3 = j2 >> 6 & 0x3f;
+            int j3 = j2 >> 12;
+            int k3 = objects.getAttributes(index);
+            int l3 = k3 >> 2;
+            int i4 = k3 & 3;
+            if (j3 == i && i3 >= i1 && i3 < i1 + 8 && l2 >= k && l2 < k + 8) {
+                ObjectDefinition class46 = ObjectDefinition.lookup(l1);
+                int j4 = j + ChunkUtil.method157(j1, class46.sizeY, i3 & 7, l2 & 7, class46.sizeX);
+                int k4 = k1 + ChunkUtil.method158(l2 & 7, class46.sizeY, j1, class46.sizeX, i3 & 7);
+                if (j4 > 0 && k4 > 0 && j4 < 103 && k4 < 103) {
+                    int l4 = j3;
+                    if ((tileFlags[1][j4][k4] & 2) == 2)
+                        l4--;
+                    CollisionMap class11 = null;
+                    if (l4 >= 0)
+                        class11 = aclass11[l4];
+                    renderObject(k4, worldController, class11, l3, l, j4, l1, i4 + j1 & 3);
+                }
+            }
         }
     }
 
@@ -1357,39 +1454,85 @@ public final class MapRegion {
     }
 
     public final void method190(int i, CollisionMap aclass11[], int j, SceneGraph worldController, byte abyte0[]) {
-        label0: {
-            Buffer stream = new Buffer(abyte0);
-            int l = -1;
-            do {
-                int i1 = stream.readUSmart();
-                if (i1 == 0)
-                    break label0;
-                l += i1;
-                int j1 = 0;
-                do {
-                    int k1 = stream.readUSmart();
-                    if (k1 == 0)
-                        break;
-                    j1 += k1 - 1;
-                    int l1 = j1 & 0x3f;
-                    int i2 = j1 >> 6 & 0x3f;
-                    int j2 = j1 >> 12;
-                    int k2 = stream.readUnsignedByte();
-                    int l2 = k2 >> 2;
-                    int i3 = k2 & 3;
-                    int j3 = i2 + i;
-                    int k3 = l1 + j;
-                    if (j3 > 0 && k3 > 0 && j3 < 103 && k3 < 103 && j2 >= 0 && j2 < 4) {
-                        int l3 = j2;
-                        if ((tileFlags[1][j3][k3] & 2) == 2)
-                            l3--;
-                        CollisionMap class11 = null;
-                        if (l3 >= 0)
-                            class11 = aclass11[l3];
-                        renderObject(k3, worldController, class11, l2, j2, j3, l, i3);
-                    }
-                } while (true);
-            } while (true);
+        placeObjects(ObjectMap.decode(abyte0, false), i, aclass11, j, worldController);
+    }
+
+    /**
+     * Places the objects of a parsed object map whose square starts at x {@code i}, y {@code j} of this region.
+     */
+    public final void placeObjects(ObjectMap objects, int i, CollisionMap aclass11[], int j, SceneGraph worldController) {
+        for (int index = 0; index < objects.size(); index++) {
+            int l = objects.getId(index);
+            int j1 = objects.getPosition(index);
+            int l1 = j1 & 0x3f;
+            int i2 = j1 >> 6 & 0x3f;
+            int j2 = j1 >> 12;
+            int k2 = objects.getAttributes(index);
+            int l2 = k2 >> 2;
+            int i3 = k2 & 3;
+            int j3 = i2 + i;
+            int k3 = l1 + j;
+            if (j3 > 0 && k3 > 0 && j3 < 103 && k3 < 103 && j2 >= 0 && j2 < 4) {
+                int l3 = j2;
+                if ((tileFlags[1][j3][k3] & 2) == 2)
+                    l3--;
+                CollisionMap class11 = null;
+                if (l3 >= 0)
+                    class11 = aclass11[l3];
+                renderObject(k3, worldController, class11, l2, j2, j3, l, i3);
+            }
+        }
+    }
+
+    /**
+     * The tiles of one plane, shaded off the game thread and kept in the order they were
+     * shaded until they can be added to the scene.
+     */
+    private static final class TileBatch {
+
+        private static final int FIELDS = 19;
+
+        private int[] tiles = new int[FIELDS * 1024];
+        private int size;
+        private boolean visible;
+        private RuntimeException failure;
+
+        private void add(int x, int y, int shape, int orientation, int texture, int height0, int height1, int height2, int height3,
+                         int colour0, int colour1, int colour2, int colour3, int overlay0, int overlay1, int overlay2, int overlay3,
+                         int minimapUnderlay, int minimapOverlay) {
+            if (size + FIELDS > tiles.length) {
+                tiles = Arrays.copyOf(tiles, tiles.length * 2);
+            }
+            final int[] tiles = this.tiles;
+            int offset = size;
+            tiles[offset++] = x;
+            tiles[offset++] = y;
+            tiles[offset++] = shape;
+            tiles[offset++] = orientation;
+            tiles[offset++] = texture;
+            tiles[offset++] = height0;
+            tiles[offset++] = height1;
+            tiles[offset++] = height2;
+            tiles[offset++] = height3;
+            tiles[offset++] = colour0;
+            tiles[offset++] = colour1;
+            tiles[offset++] = colour2;
+            tiles[offset++] = colour3;
+            tiles[offset++] = overlay0;
+            tiles[offset++] = overlay1;
+            tiles[offset++] = overlay2;
+            tiles[offset++] = overlay3;
+            tiles[offset++] = minimapUnderlay;
+            tiles[offset++] = minimapOverlay;
+            size = offset;
+        }
+
+        private void addTo(SceneGraph scene, int z) {
+            final int[] t = tiles;
+            for (int o = 0; o < size; o += FIELDS) {
+                scene.addTile(z, t[o], t[o + 1], t[o + 2], t[o + 3], t[o + 4], t[o + 5], t[o + 6], t[o + 7], t[o + 8], t[o + 9],
+                        t[o + 10], t[o + 11], t[o + 12], t[o + 13], t[o + 14], t[o + 15], t[o + 16], t[o + 17], t[o + 18]);
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,86 @@
+package com.runescape.scene;
+
+import com.runescape.io.Buffer;
+
+import java.util.Arrays;
+
+/**
+ * The object placements of one object map file, parsed ahead of placing them.
+ *
+ * Parsing only reads the file, so the files of a region can be parsed on any thread;
+ * placing the objects builds models and writes to the scene, and is left to the game
+ * thread. Placements are kept in file order so objects are placed exactly as they
+ * would be straight from the file.
+ */
+public final class ObjectMap {
+
+    private int[] ids = new int[64];
+    private int[] positions = new int[64];
+    private int[] attributes = new int[64];
+    private int size;
+
+    /**
+     * Parses an object map file.
+     *
+     * @param largeIds whether object ids are written as large smarts, as in the maps used by constructed regions
+     */
+    public static ObjectMap decode(byte[] data, boolean largeIds) {
+        final ObjectMap map = new ObjectMap();
+        final Buffer stream = new Buffer(data);
+        int id = -1;
+        while (true) {
+            int idOffset = largeIds ? stream.readUSmart2() : stream.readUSmart();
+            if (idOffset == 0)
+                return map;
+            id += idOffset;
+            int position = 0;
+            while (true) {
+                int positionOffset = stream.readUSmart();
+                if (positionOffset == 0)
+                    break;
+                position += positionOffset - 1;
+                map.add(id, position, stream.readUnsignedByte());
+            }
+        }
+    }
+
+    private void add(int id, int position, int attribute) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            positions = Arrays.copyOf(positions, size * 2);
+            attributes = Arrays.copyOf(attributes, size * 2);
+        }
+        ids[size] = id;
+        positions[size] = position;
+        attributes[size] = attribute;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Returns the packed position of a placement: y in the low 6 bits, then x, then the plane.
+     */
+    public int getPosition(int index) {
+        return positions[index];
+    }
+
+    /**
+     * Returns the type of a placement in the high 6 bits and its orientation in the low 2.
+     */
+    public int getAttributes(int index) {
+        return attributes[index];
+    }
+
+    boolean isSameAs(ObjectMap other) {
+        return other != null && size == other.size && Arrays.equals(ids, 0, size, other.ids, 0, size)
+                && Arrays.equals(positions, 0, size, other.positions, 0, size)
+                && Arrays.equals(attributes, 0, size, other.attributes, 0, size);
+    }
+}
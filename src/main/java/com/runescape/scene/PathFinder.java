@@ -0,0 +1,331 @@
+package com.runescape.scene;
+
+import com.runescape.Configuration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Finds walking paths over a {@link CollisionMap}.
+ *
+ * Searches are A* over the region's tiles, moving in all eight directions at a cost of one
+ * step each, with the chebyshev distance to the target as the heuristic. Instead of clearing
+ * its grids before every search, each search stamps the tiles it touches with a generation
+ * number, so a tile holding an older stamp reads as unvisited. Targets outside the start's
+ * {@link CollisionMap#mayReach region} are rejected without searching.
+ *
+ * A path is reported the way the walking packets want it: the tiles it turns on, from the
+ * destination back to the first step.
+ */
+public final class PathFinder {
+
+    public static final int SIZE = 104;
+
+    private static final int UNREACHABLE = -1;
+    private static final int NEAREST_RANGE = 1;
+    private static final int NEAREST_MAXIMUM_COST = 100;
+    private static final int RECORDED_QUERIES = 256;
+
+    private final int[] stamps = new int[SIZE * SIZE];
+    private final int[] closed = new int[SIZE * SIZE];
+    private final int[] costs = new int[SIZE * SIZE];
+    private final int[] via = new int[SIZE * SIZE];
+    private final int[] open = new int[SIZE * SIZE * 8];
+    private final int[] waypointX = new int[SIZE * SIZE];
+    private final int[] waypointY = new int[SIZE * SIZE];
+    private final List<int[]> recorded = new ArrayList<>();
+    private int generation;
+    private int openSize;
+    private int expanded;
+    private int rejected;
+    private boolean nearest;
+
+    /**
+     * Finds a path from {@code startX}, {@code startY} to a destination tile, or to a tile a
+     * wall or object there can be reached from.
+     *
+     * @param type        the wall or object type plus one, or 0 to walk onto the destination
+     * @param width       the width of an object to walk up to, or 0
+     * @param height      the length of an object to walk up to, or 0
+     * @param nearestTile whether to settle for the closest reachable tile next to an unreachable destination
+     * @return the number of waypoints, or -1 if there is no path
+     */
+    public int findPath(CollisionMap map, int startX, int startY, int destX, int destY, int type, int orientation,
+                        int width, int height, int rotation, boolean nearestTile) {
+        if (Configuration.recordBenchmarkInputs)
+            record(new int[] { startX, startY, destX, destY, type, orientation, width, height, rotation, nearestTile ? 1 : 0 });
+        return search(map, startX, startY, destX, destY, type, orientation, width, height, rotation, nearestTile, true, true);
+    }
+
+    /**
+     * Returns the number of steps needed to walk from one tile to another, or -1 if it cannot
+     * be walked to. Unlike {@link #findPath} this leaves the waypoints of the last path found
+     * and the recorded walk targets as they were.
+     */
+    public int distance(CollisionMap map, int startX, int startY, int destX, int destY) {
+        return search(map, startX, startY, destX, destY, 0, 0, 0, 0, 0, false, true, false);
+    }
+
+    /**
+     * Returns the x coordinate of a waypoint of the last path found, waypoint 0 being the destination.
+     */
+    public int getWaypointX(int index) {
+        return waypointX[index];
+    }
+
+    public int getWaypointY(int index) {
+        return waypointY[index];
+    }
+
+    /**
+     * Returns whether the last path found ends next to its destination rather than at it.
+     */
+    public boolean isNearest() {
+        return nearest;
+    }
+
+    private int search(CollisionMap map, int startX, int startY, int destX, int destY, int type, int orientation,
+                       int width, int height, int rotation, boolean nearestTile, boolean heuristic, boolean tracePath) {
+        final int[][] clipData = map.clipData;
+        nextGeneration();
+        openSize = 0;
+        expanded = 0;
+        if (tracePath)
+            nearest = false;
+        // Walls and objects are reached from next to them, so the heuristic allows for stopping one tile short
+        final boolean adjacent = type != 0 || width != 0 && height != 0;
+        final int size = Math.max(1, Math.max(width, height));
+        final int range = adjacent || nearestTile ? 1 : 0;
+        if (!map.mayReach(startX, startY, destX - range, destY - range, destX + size - 1 + range, destY + size - 1 + range)) {
+            if (tracePath)
+                rejected++;
+            return UNREACHABLE;
+        }
+        discover(startX * SIZE + startY, 0, 99, heuristic ? estimate(startX, startY, destX, destY, size, adjacent) : 0);
+        int currentX = startX;
+        int currentY = startY;
+        boolean found = false;
+        while (openSize > 0) {
+            final int tile = poll();
+            if (closed[tile] == generation)
+                continue;
+            closed[tile] = generation;
+            expanded++;
+            currentX = tile / SIZE;
+            currentY = tile % SIZE;
+            if (currentX == destX && currentY == destY) {
+                found = true;
+                break;
+            }
+            if (type != 0) {
+                if ((type < 5 || type == 10) && map.method219(destX, currentX, currentY, orientation, type - 1, destY)) {
+                    found = true;
+                    break;
+                }
+                if (type < 10 && map.method220(destX, destY, currentY, type - 1, orientation, currentX)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (width != 0 && height != 0 && map.atObject(destY, destX, currentX, height, rotation, width, currentY)) {
+                found = true;
+                break;
+            }
+            final int cost = costs[tile] + 1;
+            final boolean west = currentX > 0 && (clipData[currentX - 1][currentY] & 0x1280108) == 0;
+            final boolean east = currentX < SIZE - 1 && (clipData[currentX + 1][currentY] & 0x1280180) == 0;
+            final boolean south = currentY > 0 && (clipData[currentX][currentY - 1] & 0x1280102) == 0;
+            final boolean north = currentY < SIZE - 1 && (clipData[currentX][currentY + 1] & 0x1280120) == 0;
+            if (west)
+                step(currentX - 1, currentY, cost, 2, destX, destY, size, adjacent, heuristic);
+            if (east)
+                step(currentX + 1, currentY, cost, 8, destX, destY, size, adjacent, heuristic);
+            if (south)
+                step(currentX, currentY - 1, cost, 1, destX, destY, size, adjacent, heuristic);
+            if (north)
+                step(currentX, currentY + 1, cost, 4, destX, destY, size, adjacent, heuristic);
+            if (west && south && (clipData[currentX - 1][currentY - 1] & 0x128010e) == 0)
+                step(currentX - 1, currentY - 1, cost, 3, destX, destY, size, adjacent, heuristic);
+            if (east && south && (clipData[currentX + 1][currentY - 1] & 0x1280183) == 0)
+                step(currentX + 1, currentY - 1, cost, 9, destX, destY, size, adjacent, heuristic);
+            if (west && north && (clipData[currentX - 1][currentY + 1] & 0x1280138) == 0)
+                step(currentX - 1, currentY + 1, cost, 6, destX, destY, size, adjacent, heuristic);
+            if (east && north && (clipData[currentX + 1][currentY + 1] & 0x12801e0) == 0)
+                step(currentX + 1, currentY + 1, cost, 12, destX, destY, size, adjacent, heuristic);
+        }
+        if (!found) {
+            // Every reachable tile has been searched by now, so their costs are final
+            if (!nearestTile)
+                return UNREACHABLE;
+            int best = NEAREST_MAXIMUM_COST;
+            for (int x = destX - NEAREST_RANGE; x <= destX + NEAREST_RANGE; x++) {
+                for (int y = destY - NEAREST_RANGE; y <= destY + NEAREST_RANGE; y++) {
+                    if (x >= 0 && y >= 0 && x < SIZE && y < SIZE && closed[x * SIZE + y] == generation
+                            && costs[x * SIZE + y] < best) {
+                        best = costs[x * SIZE + y];
+                        currentX = x;
+                        currentY = y;
+                        found = true;
+                    }
+                }
+            }
+            if (!found)
+                return UNREACHABLE;
+            nearest = true;
+        }
+        return tracePath ? trace(startX, startY, currentX, currentY) : costs[currentX * SIZE + currentY];
+    }
+
+    /**
+     * Walks back from the end of the path, keeping the tiles the path changes direction on.
+     */
+    private int trace(int startX, int startY, int currentX, int currentY) {
+        int count = 0;
+        waypointX[count] = currentX;
+        waypointY[count++] = currentY;
+        int last;
+        for (int direction = last = via[currentX * SIZE + currentY]; currentX != startX || currentY != startY;
+             direction = via[currentX * SIZE + currentY]) {
+            if (direction != last) {
+                last = direction;
+                waypointX[count] = currentX;
+                waypointY[count++] = currentY;
+            }
+            if ((direction & 2) != 0)
+                currentX++;
+            else if ((direction & 8) != 0)
+                currentX--;
+            if ((direction & 1) != 0)
+                currentY++;
+            else if ((direction & 4) != 0)
+                currentY--;
+        }
+        return count;
+    }
+
+    private void step(int x, int y, int cost, int direction, int destX, int destY, int size, boolean adjacent, boolean heuristic) {
+        final int tile = x * SIZE + y;
+        if (stamps[tile] == generation && costs[tile] <= cost)
+            return;
+        discover(tile, cost, direction, heuristic ? cost + estimate(x, y, destX, destY, size, adjacent) : cost);
+    }
+
+    private void discover(int tile, int cost, int direction, int priority) {
+        stamps[tile] = generation;
+        costs[tile] = cost;
+        via[tile] = direction;
+        offer(priority << 14 | tile);
+    }
+
+    private static int estimate(int x, int y, int destX, int destY, int size, boolean adjacent) {
+        final int dx = x < destX ? destX - x : x > destX + size - 1 ? x - (destX + size - 1) : 0;
+        final int dy = y < destY ? destY - y : y > destY + size - 1 ? y - (destY + size - 1) : 0;
+        final int distance = Math.max(dx, dy);
+        return adjacent ? Math.max(0, distance - 1) : distance;
+    }
+
+    private void nextGeneration() {
+        if (++generation == 0) {
+            Arrays.fill(stamps, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+    }
+
+    /**
+     * Adds an entry to the open binary heap, ordered by its priority in the high bits.
+     */
+    private void offer(int entry) {
+        int index = openSize++;
+        while (index > 0) {
+            final int parent = index - 1 >> 1;
+            if (open[parent] <= entry)
+                break;
+            open[index] = open[parent];
+            index = parent;
+        }
+        open[index] = entry;
+    }
+
+    private int poll() {
+        final int head = open[0];
+        final int entry = open[--openSize];
+        int index = 0;
+        while (true) {
+            int child = index * 2 + 1;
+            if (child >= openSize)
+                break;
+            if (child + 1 < openSize && open[child + 1] < open[child])
+                child++;
+            if (entry <= open[child])
+                break;
+            open[index] = open[child];
+            index = child;
+        }
+        open[index] = entry;
+        return head & (1 << 14) - 1;
+    }
+
+    private void record(int[] query) {
+        if (recorded.size() == RECORDED_QUERIES)
+            recorded.remove(0);
+        recorded.add(query);
+    }
+
+    /**
+     * Replays on {@code map} the walk targets recorded while {@link Configuration#recordBenchmarkInputs}
+     * was on, topped up with random walkable tiles, once as a plain breadth-first search and
+     * once as A*. Reports the time
+     * and tiles searched per path, how many targets were rejected as lying in another region,
+     * and whether both searches found paths of the same length.
+     *
+     * Run from the developer console with {@code pathbench}.
+     */
+    public List<String> benchmark(CollisionMap map) {
+        final List<int[]> queries = new ArrayList<>(recorded);
+        final int[] origin = queries.isEmpty() ? new int[] { SIZE / 2, SIZE / 2 } : queries.get(queries.size() - 1);
+        final Random random = new Random(SIZE);
+        for (int attempts = 0; queries.size() < RECORDED_QUERIES && attempts < RECORDED_QUERIES * 16; attempts++) {
+            final int x = 1 + random.nextInt(SIZE - 2);
+            final int y = 1 + random.nextInt(SIZE - 2);
+            if ((map.clipData[x][y] & 0x1280100) == 0)
+                queries.add(new int[] { origin[0], origin[1], x, y, 0, 0, 0, 0, 0, 1 });
+        }
+        final List<String> results = new ArrayList<>();
+        results.add("Path search over " + queries.size() + " targets (" + recorded.size() + " recorded)");
+        final int[] breadthFirst = new int[queries.size()];
+        final int[] aStar = new int[queries.size()];
+        results.add(run("Breadth first", map, queries, false, breadthFirst));
+        results.add(run("A*", map, queries, true, aStar));
+        int same = 0;
+        for (int index = 0; index < queries.size(); index++) {
+            if (breadthFirst[index] == aStar[index])
+                same++;
+        }
+        results.add("Same path length: " + same + "/" + queries.size());
+        return results;
+    }
+
+    private String run(String name, CollisionMap map, List<int[]> queries, boolean heuristic, int[] lengths) {
+        long best = Long.MAX_VALUE;
+        long tiles = 0;
+        int unreachable = 0;
+        for (int pass = 0; pass < 5; pass++) {
+            tiles = 0;
+            unreachable = rejected;
+            final long start = System.nanoTime();
+            for (int index = 0; index < queries.size(); index++) {
+                final int[] q = queries.get(index);
+                final int count = search(map, q[0], q[1], q[2], q[3], q[4], q[5], q[6], q[7], q[8], q[9] != 0, heuristic, true);
+                lengths[index] = count == UNREACHABLE ? UNREACHABLE : costs[waypointX[0] * SIZE + waypointY[0]];
+                tiles += expanded;
+            }
+            best = Math.min(best, System.nanoTime() - start);
+            unreachable = rejected - unreachable;
+        }
+        return name + ": " + best / 1000 / Math.max(1, queries.size()) + "us per path, " + tiles / Math.max(1, queries.size())
+                + " tiles searched per path, " + unreachable + " rejected by region";
+    }
+}
@@ -3,6 +3,7 @@ package com.runescape.scene;
 import com.runescape.Client;
 import com.runescape.cache.anim.Frame;
 import com.runescape.cache.anim.Graphic;
+import com.runescape.collection.NodePool;
 import com.runescape.entity.Renderable;
 import com.runescape.entity.model.Model;
 import net.runelite.api.Actor;
@@ -12,30 +13,32 @@ import net.runelite.rs.api.RSProjectile;
 
 public final class Projectile extends Renderable implements RSProjectile {
 
-    public final int startCycle;
-    public final int stopCycle;
+    public static final NodePool<Projectile> POOL = new NodePool<>("Projectile", 512, Projectile::new);
+
+    public int startCycle;
+    public int stopCycle;
     private double xIncrement;
     private double yIncrement;
     private double diagonalIncrement;
     private double heightIncrement;
     private double aDouble1578;
     private boolean started;
-    private final int projectileX;
-    private final int projectileY;
-    private final int startHeight;
-    public final int endHeight;
+    private int projectileX;
+    private int projectileY;
+    private int startHeight;
+    public int endHeight;
     public double xPos;
     public double yPos;
     public double cnterHeight;
-    private final int initialSlope;
-    private final int initialDistance;
-    public final int target;
-    private final Graphic projectileGFX;
+    private int initialSlope;
+    private int initialDistance;
+    public int target;
+    private Graphic projectileGFX;
     private int gfxStage;
     private int gfxTickOfCurrentStage;
     public int turnValue;
     private int tiltAngle;
-    public final int projectileZ;
+    public int projectileZ;
 
     public void calculateIncrements(int currentCycle, int targetY, int targetCenterHeight, int targetX) {
         if(!started) {
@@ -81,6 +84,33 @@ public final class Projectile extends Renderable implements RSProjectile {
     }
 
     public Projectile(int initialSlope, int endHeight, int creationCycle, int destructionCycle, int initialDistance, int startZ,  int startHeight, int y, int x, int target, int gfxMoving) {
+        init(initialSlope, endHeight, creationCycle, destructionCycle, initialDistance, startZ, startHeight, y, x, target, gfxMoving);
+    }
+
+    Projectile() {
+
+    }
+
+    /**
+     * Sets up a new or pooled projectile as if it was just constructed.
+     */
+    public Projectile init(int initialSlope, int endHeight, int creationCycle, int destructionCycle, int initialDistance, int startZ,  int startHeight, int y, int x, int target, int gfxMoving) {
+        modelBaseY = 1000;
+        normals = null;
+        xIncrement = 0;
+        yIncrement = 0;
+        diagonalIncrement = 0;
+        heightIncrement = 0;
+        aDouble1578 = 0;
+        xPos = 0;
+        yPos = 0;
+        cnterHeight = 0;
+        gfxStage = 0;
+        gfxTickOfCurrentStage = 0;
+        turnValue = 0;
+        tiltAngle = 0;
+        endX = 0;
+        endY = 0;
         projectileGFX = Graphic.cache[gfxMoving];
         projectileZ = startZ;
         projectileX = x;
@@ -93,6 +123,7 @@ public final class Projectile extends Renderable implements RSProjectile {
         this.target = target;
         this.endHeight = endHeight;
         started = false;
+        return this;
     }
 
     public void progressCycles(int cyclesMissed) {
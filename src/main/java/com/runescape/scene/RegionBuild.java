@@ -0,0 +1,439 @@
+package com.runescape.scene;
+
+import com.runescape.Configuration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Decodes the terrain of a region away from the live scene.
+ *
+ * Tile heights, tile flags, underlays, overlays and the terrain collision flags are
+ * decoded into arrays of the build's own, so the game thread can carry on ticking with
+ * the current region while a background thread does the work. Once the build is done
+ * the game thread {@link #apply applies} it in one step and goes on to place objects
+ * and build the scene, which share model caches and scene state with the renderer and
+ * so stay on the game thread.
+ *
+ * Map squares, or the chunks of a constructed region, write to tiles no other square
+ * writes to, so they are decoded in parallel on a pool of decoder threads. Object maps
+ * are parsed in parallel too and placed in file order later, so the result is the same
+ * as decoding everything in order on one thread.
+ */
+public final class RegionBuild implements Runnable {
+
+    private static final Map<Integer, ExecutorService> pools = new HashMap<>();
+
+    private final byte[][] terrainData;
+    private final byte[][] objectData;
+    private final int[] mapCoordinates;
+    private final int[][][] constructRegionData;
+    private final int regionX;
+    private final int regionY;
+    private final boolean reconstruct;
+
+    private final byte[][][] tileFlags = new byte[4][104][104];
+    private final int[][][] tileHeights;
+    private final CollisionMap[] collisionMaps = new CollisionMap[4];
+    private final ObjectMap[] objectMaps;
+    private final int threads;
+    private MapRegion region;
+    private RegionBuild previous;
+    private boolean shiftable;
+
+    private volatile boolean done;
+    private volatile boolean superseded;
+    private volatile Exception failure;
+    private volatile long nanos;
+    private volatile int decodedSquares;
+    private volatile int reusedSquares;
+
+    /**
+     * Prepares a build of the region centred on {@code regionX}, {@code regionY}.
+     *
+     * @param tileHeights the current tile heights, which tiles without terrain keep
+     * @param constructRegionData the chunks of a constructed region, or {@code null} for a normal one
+     * @param previous the build of the current region to shift overlapping terrain from, or {@code null}
+     */
+    public RegionBuild(byte[][] terrainData, byte[][] objectData, int[] mapCoordinates, int[][][] constructRegionData,
+                       int regionX, int regionY, int[][][] tileHeights, RegionBuild previous) {
+        this(terrainData, objectData, mapCoordinates, constructRegionData, regionX, regionY, tileHeights, previous,
+                configuredThreads());
+    }
+
+    private RegionBuild(byte[][] terrainData, byte[][] objectData, int[] mapCoordinates, int[][][] constructRegionData,
+                        int regionX, int regionY, int[][][] tileHeights, RegionBuild previous, int threads) {
+        this.previous = previous;
+        this.terrainData = terrainData;
+        this.objectData = objectData;
+        this.mapCoordinates = mapCoordinates;
+        this.constructRegionData = constructRegionData == null ? null : copy(constructRegionData);
+        this.regionX = regionX;
+        this.regionY = regionY;
+        this.reconstruct = constructRegionData != null;
+        this.tileHeights = copy(tileHeights);
+        this.objectMaps = new ObjectMap[objectData.length];
+        this.threads = threads;
+    }
+
+    /**
+     * Starts decoding on a thread of its own.
+     */
+    public void start() {
+        final Thread thread = new Thread(this, "Region builder");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Returns whether this build was made from the given region data, as a new region
+     * packet replaces the data a build in progress was started from.
+     */
+    public boolean matches(byte[][] terrainData, int regionX, int regionY, boolean reconstruct) {
+        return this.terrainData == terrainData && this.regionX == regionX && this.regionY == regionY
+                && this.reconstruct == reconstruct;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Tells a build in progress that its region is no longer wanted, so it gives up at its
+     * next check rather than finishing. A superseded build fails and is never applied.
+     */
+    public void supersede() {
+        superseded = true;
+    }
+
+    /**
+     * Returns why the build failed, or {@code null} if it succeeded or is still running.
+     * A failed build must not be applied.
+     */
+    public Exception getFailure() {
+        return failure;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Returns the parsed object map of the map square at {@code index}, or {@code null} if it has none.
+     */
+    public ObjectMap getObjectMap(int index) {
+        return objectMaps[index];
+    }
+
+    /**
+     * Returns how long the build took and how many map squares it decoded and shifted over.
+     */
+    public String getStatistics() {
+        return "Region build: " + nanos / 1_000_000 + "ms, decoded " + decodedSquares + " map squares, shifted " + reusedSquares;
+    }
+
+    @Override
+    public void run() {
+        final long start = System.nanoTime();
+        try {
+            checkSuperseded();
+            for (int plane = 0; plane < 4; plane++) {
+                collisionMaps[plane] = new CollisionMap();
+            }
+            region = new MapRegion(tileFlags, tileHeights);
+            if (reconstruct) {
+                decodeChunks();
+            } else {
+                decodeRegions();
+            }
+            checkSuperseded();
+        } catch (Exception ex) {
+            failure = ex;
+        } finally {
+            previous = null;
+            nanos = System.nanoTime() - start;
+            done = true;
+        }
+    }
+
+    private void checkSuperseded() {
+        if (superseded) {
+            throw new IllegalStateException("Region build superseded");
+        }
+    }
+
+    /**
+     * Decodes the map squares of a normal region. Map squares whose tiles all lie where the
+     * previous region overlaps this one are not decoded again: their terrain is shifted over
+     * from the previous region instead, and only their collision is reset.
+     */
+    private void decodeRegions() {
+        final int baseX = (regionX - 6) * 8;
+        final int baseY = (regionY - 6) * 8;
+        boolean complete = true;
+        for (byte[] data : terrainData) {
+            complete &= data != null;
+        }
+        // Map squares without terrain have their edges smoothed into their neighbours, so they are always rebuilt in full
+        final boolean shift = complete && previous != null && previous.shiftable && previous.region != null;
+        final int shiftX = shift ? baseX - (previous.regionX - 6) * 8 : 0;
+        final int shiftY = shift ? baseY - (previous.regionY - 6) * 8 : 0;
+        if (shift) {
+            region.shiftTerrain(previous.region, shiftX, shiftY);
+        }
+        final List<Runnable> tasks = objectTasks();
+        int decoded = 0;
+        int reused = 0;
+        for (int index = 0; index < terrainData.length; index++) {
+            final int x = (mapCoordinates[index] >> 8) * 64 - baseX;
+            final int y = (mapCoordinates[index] & 0xff) * 64 - baseY;
+            final byte[] data = terrainData[index];
+            if (data == null)
+                continue;
+            if (shift && isCovered(x, shiftX) && isCovered(y, shiftY)) {
+                tasks.add(() -> region.unblockTerrain(y, x, collisionMaps));
+                reused++;
+            } else {
+                tasks.add(() -> region.method180(data, y, x, baseX, baseY, collisionMaps));
+                decoded++;
+            }
+        }
+        runAll(tasks, threads);
+        decodedSquares = decoded;
+        reusedSquares = reused;
+        shiftable = complete;
+        for (int index = 0; index < terrainData.length; index++) {
+            int x = (mapCoordinates[index] >> 8) * 64 - baseX;
+            int y = (mapCoordinates[index] & 0xff) * 64 - baseY;
+            if (terrainData[index] == null && regionY < 800)
+                region.initiateVertexHeights(y, 64, 64, x);
+        }
+    }
+
+    /**
+     * Returns whether the tiles of a map square starting at {@code offset} that lie in this
+     * region also lie in a region shifted by {@code shift}.
+     */
+    private static boolean isCovered(int offset, int shift) {
+        final int start = Math.max(0, offset);
+        final int end = Math.min(104, offset + 64);
+        return start >= end || start >= -shift && end <= 104 - shift;
+    }
+
+    /**
+     * Decodes the chunks of a constructed region. A chunk's heights are built on the plane
+     * below it, so the planes are decoded one after another and the chunks of each in parallel.
+     */
+    private void decodeChunks() {
+        List<Runnable> tasks = objectTasks();
+        int decoded = 0;
+        for (int plane = 0; plane < 4; plane++) {
+            for (int x = 0; x < 13; x++) {
+                for (int y = 0; y < 13; y++) {
+                    int chunkBits = constructRegionData[plane][x][y];
+                    if (chunkBits != -1) {
+                        final int z = chunkBits >> 24 & 3;
+                        final int rotation = chunkBits >> 1 & 3;
+                        final int xCoord = chunkBits >> 14 & 0x3ff;
+                        final int yCoord = chunkBits >> 3 & 0x7ff;
+                        int mapRegion = (xCoord / 8 << 8) + yCoord / 8;
+                        for (int idx = 0; idx < mapCoordinates.length; idx++) {
+                            if (mapCoordinates[idx] != mapRegion || terrainData[idx] == null)
+                                continue;
+                            final byte[] data = terrainData[idx];
+                            final int targetPlane = plane;
+                            final int chunkX = x;
+                            final int chunkY = y;
+                            tasks.add(() -> region.loadMapChunk(z, rotation, collisionMaps, chunkX * 8, (xCoord & 7) * 8,
+                                    data, (yCoord & 7) * 8, targetPlane, chunkY * 8));
+                            decoded++;
+                            break;
+                        }
+                    }
+                }
+            }
+            runAll(tasks, threads);
+            checkSuperseded();
+            tasks = new ArrayList<>();
+        }
+        decodedSquares = decoded;
+        for (int xChunk = 0; xChunk < 13; xChunk++) {
+            for (int yChunk = 0; yChunk < 13; yChunk++) {
+                if (constructRegionData[0][xChunk][yChunk] == -1)
+                    region.initiateVertexHeights(yChunk * 8, 8, 8, xChunk * 8);
+            }
+        }
+    }
+
+    private List<Runnable> objectTasks() {
+        final List<Runnable> tasks = new ArrayList<>();
+        for (int index = 0; index < objectData.length; index++) {
+            final int square = index;
+            if (objectData[square] != null)
+                tasks.add(() -> objectMaps[square] = ObjectMap.decode(objectData[square], reconstruct));
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the number of decoder threads to use, as configured or one per processor.
+     */
+    static int configuredThreads() {
+        return Configuration.regionDecodeThreads > 0 ? Configuration.regionDecodeThreads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Runs {@code tasks} on a pool of {@code threads} decoder threads and waits for all of them to finish.
+     *
+     * @throws IllegalStateException if a task failed or the wait was interrupted, as the region is then incomplete
+     */
+    static void runAll(List<Runnable> tasks, int threads) {
+        if (threads <= 1 || tasks.size() <= 1) {
+            for (Runnable task : tasks) {
+                task.run();
+            }
+            return;
+        }
+        final ExecutorService pool = pool(threads);
+        final List<Future<?>> futures = new ArrayList<>(tasks.size());
+        for (Runnable task : tasks) {
+            futures.add(pool.submit(task));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while decoding", ex);
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("Region decode task failed", ex.getCause());
+            }
+        }
+    }
+
+    /**
+     * Stops the pools of every thread count but the configured one, once a benchmark is done with them.
+     */
+    private static synchronized void shutdownUnusedPools() {
+        final int configured = configuredThreads();
+        pools.entrySet().removeIf(entry -> {
+            if (entry.getKey() == configured) {
+                return false;
+            }
+            entry.getValue().shutdown();
+            return true;
+        });
+    }
+
+    private static synchronized ExecutorService pool(int threads) {
+        return pools.computeIfAbsent(threads, size -> Executors.newFixedThreadPool(size, task -> {
+            final Thread thread = new Thread(task, "Region decoder");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * Rebuilds this region from scratch with 1, 2, 4, 8 and 16 decoder threads, reporting
+     * the best of three builds for each and whether each produced the same region as one thread.
+     *
+     * Run from the developer console with {@code regionbench}.
+     */
+    public List<String> benchmark() {
+        final List<String> results = new ArrayList<>();
+        results.add("Region decode on " + Runtime.getRuntime().availableProcessors() + " processors, " + terrainData.length
+                + " map squares" + (reconstruct ? " (constructed)" : ""));
+        RegionBuild serial = null;
+        long serialNanos = 0;
+        try {
+            for (int threads = 1; threads <= 16; threads *= 2) {
+                RegionBuild best = null;
+                for (int attempt = 0; attempt < 3; attempt++) {
+                    final RegionBuild build = new RegionBuild(terrainData, objectData, mapCoordinates, constructRegionData,
+                            regionX, regionY, tileHeights, null, threads);
+                    build.run();
+                    if (build.failure != null) {
+                        results.add(threads + " threads: failed, " + build.failure);
+                        return results;
+                    }
+                    if (best == null || build.nanos < best.nanos) {
+                        best = build;
+                    }
+                }
+                if (serial == null) {
+                    serial = best;
+                    serialNanos = best.nanos;
+                }
+                results.add(threads + " threads: " + best.nanos / 1000 + "us, speedup " + serialNanos * 100 / Math.max(1, best.nanos) / 100.0
+                        + "x, identical=" + best.isSameAs(serial));
+            }
+        } finally {
+            shutdownUnusedPools();
+        }
+        return results;
+    }
+
+    private boolean isSameAs(RegionBuild other) {
+        if (!Arrays.deepEquals(tileFlags, other.tileFlags) || !Arrays.deepEquals(tileHeights, other.tileHeights)
+                || !Arrays.deepEquals(region.underlays, other.region.underlays) || !Arrays.deepEquals(region.overlays, other.region.overlays)
+                || !Arrays.deepEquals(region.overlayTypes, other.region.overlayTypes)) {
+            return false;
+        }
+        for (int plane = 0; plane < 4; plane++) {
+            if (!Arrays.deepEquals(collisionMaps[plane].clipData, other.collisionMaps[plane].clipData)) {
+                return false;
+            }
+        }
+        for (int index = 0; index < objectMaps.length; index++) {
+            if (objectMaps[index] == null ? other.objectMaps[index] != null : !objectMaps[index].isSameAs(other.objectMaps[index])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies the decoded terrain into the live arrays and returns the region to place
+     * objects and build the scene with. Must be called on the game thread once the build is done.
+     *
+     * @throws IllegalStateException if the build failed
+     */
+    public MapRegion apply(byte[][][] tileFlags, int[][][] tileHeights, CollisionMap[] collisionMaps) {
+        if (failure != null) {
+            throw new IllegalStateException("Region build failed", failure);
+        }
+        MapRegion.maximumPlane = 99;
+        for (int plane = 0; plane < 4; plane++) {
+            for (int x = 0; x < this.tileFlags[plane].length; x++) {
+                System.arraycopy(this.tileFlags[plane][x], 0, tileFlags[plane][x], 0, this.tileFlags[plane][x].length);
+            }
+            for (int x = 0; x < this.tileHeights[plane].length; x++) {
+                System.arraycopy(this.tileHeights[plane][x], 0, tileHeights[plane][x], 0, this.tileHeights[plane][x].length);
+            }
+            final int[][] clipData = this.collisionMaps[plane].clipData;
+            for (int x = 0; x < clipData.length; x++) {
+                System.arraycopy(clipData[x], 0, collisionMaps[plane].clipData[x], 0, clipData[x].length);
+            }
+            collisionMaps[plane].invalidateRegions();
+        }
+        return region;
+    }
+
+    private static int[][][] copy(int[][][] source) {
+        final int[][][] copy = new int[source.length][][];
+        for (int z = 0; z < source.length; z++) {
+            copy[z] = new int[source[z].length][];
+            for (int x = 0; x < source[z].length; x++) {
+                copy[z][x] = source[z][x].clone();
+            }
+        }
+        return copy;
+    }
+}
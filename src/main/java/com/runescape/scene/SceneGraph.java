@@ -22,8 +22,10 @@ import net.runelite.api.events.ItemSpawned;
 import net.runelite.api.hooks.DrawCallbacks;
 import net.runelite.rs.api.*;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import static net.runelite.api.Constants.*;
 
@@ -40,6 +42,8 @@ public final class SceneGraph implements RSScene {
     public static int roofRemovalMode = 0;
     public static final Set<RSTile> tilesToRemove = new HashSet<RSTile>();
 
+    private final SceneIndex index = new SceneIndex();
+
 
     public SceneGraph(int heightMap[][][]) {
         int yLocSize = 104;// was parameter
@@ -85,7 +89,7 @@ public final class SceneGraph implements RSScene {
         interactableObjectCacheCurrPos = 0;
         for (int i = 0; i < interactableObjects.length; i++)
             interactableObjects[i] = null;
-
+        index.clear();
     }
 
     public void method275(int zLoc) {
@@ -114,6 +118,8 @@ public final class SceneGraph implements RSScene {
             tileArray[0][xLoc][yLoc] = new Tile(0, xLoc, yLoc);
         tileArray[0][xLoc][yLoc].firstFloorTile = tileFirstFloor;
         tileArray[3][xLoc][yLoc] = null;
+        for (int zLoc = 0; zLoc < 4; zLoc++)
+            index.update(tileArray[zLoc][xLoc][yLoc], zLoc, xLoc, yLoc);
     }
 
     public static void createNewSceneCluster(int z, int lowestX, int lowestZ, int highestX, int highestY, int highestZ, int lowestY, int searchMask) {
@@ -179,6 +185,7 @@ public final class SceneGraph implements RSScene {
         }
         tileArray[zLoc][xLoc][yLoc].groundDecoration = groundDecoration;
         tileArray[zLoc][xLoc][yLoc].groundObjectChanged();
+        index.update(tileArray[zLoc][xLoc][yLoc], zLoc, xLoc, yLoc);
     }
 
     public void addGroundItemTile(Object obj, int xLoc, long uid, Renderable firstNode, int zPos, Renderable secondNode, Renderable thirdNode, int zLoc, int yLoc) {
@@ -233,6 +240,7 @@ public final class SceneGraph implements RSScene {
 
         tileArray[zLoc][xLoc][yLoc].wallObject = wallObject;
         tileArray[zLoc][xLoc][yLoc].wallObjectChanged();
+        index.update(tileArray[zLoc][xLoc][yLoc], zLoc, xLoc, yLoc);
     }
 
     public void addWallDecoration(long uid, int yLoc, int orientation2, int zLoc, int xOffset, int zPos, Renderable renderable, int xLoc, byte objectRotationType, int yOffset, int orientation) {
@@ -259,6 +267,7 @@ public final class SceneGraph implements RSScene {
 
         tileArray[zLoc][xLoc][yLoc].wallDecoration = wallDecoration;
         tileArray[zLoc][xLoc][yLoc].decorativeObjectChanged();
+        index.update(tileArray[zLoc][xLoc][yLoc], zLoc, xLoc, yLoc);
     }
 
     public boolean addTiledObject(long uid, byte objectRotationType, int tileHeight, int sizeY, Renderable renderable, int sizeX, int zLoc, int turnValue, int yLoc, int xLoc) {
@@ -351,6 +360,8 @@ public final class SceneGraph implements RSScene {
                 tile.tiledObjectMasks[tile.gameObjectIndex] = mask;
                 tile.totalTiledObjectMask |= mask;
                 tile.gameObjectIndex++;
+                if (SceneIndex.isIndexed(gameObject))
+                    index.update(tile, zLoc, x, y);
             }
 
         }
@@ -394,6 +405,8 @@ public final class SceneGraph implements RSScene {
                     tile.totalTiledObjectMask = 0;
                     for (int i = 0; i < tile.gameObjectIndex; i++)
                         tile.totalTiledObjectMask |= tile.tiledObjectMasks[i];
+                    if (SceneIndex.isIndexed(gameObject))
+                        index.update(tile, gameObject.zLoc, x, y);
                 }
             }
         }
@@ -417,6 +430,7 @@ public final class SceneGraph implements RSScene {
         if (tile != null) {
             tile.wallObject = null;
             tile.wallObjectChanged();
+            index.update(tile, zLoc, xLoc, yLoc);
         }
     }
 
@@ -425,6 +439,7 @@ public final class SceneGraph implements RSScene {
         if (tile != null) {
             tile.wallDecoration = null;
             tile.decorativeObjectChanged();
+            index.update(tile, zLoc, xLoc, yLoc);
         }
     }
 
@@ -448,6 +463,7 @@ public final class SceneGraph implements RSScene {
             return;
         tile.groundDecoration = null;
         tile.groundObjectChanged();
+        index.update(tile, zLoc, xLoc, yLoc);
     }
 
     public void removeGroundItemTile(int zLoc, int xLoc, int yLoc) {
@@ -979,81 +995,14 @@ public final class SceneGraph implements RSScene {
         }
     }
 
-    public static void buildVisibilityMap(int i, int j, int viewportWidth, int viewportHeight, int ai[]) {
-        xMin = 0;
-        yMin = 0;
-        SceneGraph.xMax = viewportWidth;
-        SceneGraph.yMax = viewportHeight;
-        viewportHalfWidth = viewportWidth / 2;
-        viewportHalfHeight = viewportHeight / 2;
-        boolean aflag[][][][] = new boolean[9][32][53][53];
-        for (int zAngle = 128; zAngle <= 384; zAngle += 32) {
-            for (int xyAngle = 0; xyAngle < 2048; xyAngle += 64) {
-                camUpDownY = Model.SINE[zAngle];
-                camUpDownX = Model.COSINE[zAngle];
-                camLeftRightY = Model.SINE[xyAngle];
-                camLeftRightX = Model.COSINE[xyAngle];
-                int angularZSegment = (zAngle - 128) / 32;
-                int angularXYSegment = xyAngle / 64;
-                for (int xRelativeToCamera = -26; xRelativeToCamera <= 26; xRelativeToCamera++) {
-                    for (int yRelativeToCamera = -26; yRelativeToCamera <= 26; yRelativeToCamera++) {
-                        int xRelativeToCameraPos = xRelativeToCamera * 128;
-                        int yRelativeToCameraPos = yRelativeToCamera * 128;
-                        boolean flag2 = false;
-                        for (int k4 = -i; k4 <= j; k4 += 128) {
-                            if (!method311(ai[angularZSegment] + k4, yRelativeToCameraPos, xRelativeToCameraPos))
-                                continue;
-                            flag2 = true;
-                            break;
-                        }
-                        aflag[angularZSegment][angularXYSegment][xRelativeToCamera + 26][yRelativeToCamera + 26] = flag2;
-                    }
-                }
-            }
-        }
-
-        for (int angularZSegment = 0; angularZSegment < 8; angularZSegment++) {
-            for (int angularXYSegment = 0; angularXYSegment < 32; angularXYSegment++) {
-                for (int xRelativeToCamera = -25; xRelativeToCamera < 25; xRelativeToCamera++) {
-                    for (int yRelativeToCamera = -25; yRelativeToCamera < 25; yRelativeToCamera++) {
-                        boolean flag1 = false;
-                        label0:
-                        for (int l3 = -1; l3 <= 1; l3++) {
-                            for (int j4 = -1; j4 <= 1; j4++) {
-                                if (aflag[angularZSegment][angularXYSegment][xRelativeToCamera + l3 + 26][yRelativeToCamera + j4 + 26])
-                                    flag1 = true;
-                                else if (aflag[angularZSegment][(angularXYSegment + 1) % 31][xRelativeToCamera + l3 + 26][yRelativeToCamera + j4 + 26])
-                                    flag1 = true;
-                                else if (aflag[angularZSegment + 1][angularXYSegment][xRelativeToCamera + l3 + 26][yRelativeToCamera + j4 + 26]) {
-                                    flag1 = true;
-                                } else {
-                                    if (!aflag[angularZSegment + 1][(angularXYSegment + 1) % 31][xRelativeToCamera + l3 + 26][yRelativeToCamera + j4 + 26])
-                                        continue;
-                                    flag1 = true;
-                                }
-                                break label0;
-                            }
-                        }
-                        visibilityMap[angularZSegment][angularXYSegment][xRelativeToCamera + 25][yRelativeToCamera + 25] = flag1;
-                    }
-                }
-            }
-        }
-    }
-
-    private static boolean method311(int i, int j, int k) {
-        int l = j * camLeftRightY + k * camLeftRightX >> 16;
-        int i1 = j * camLeftRightX - k * camLeftRightY >> 16;
-        int j1 = i * camUpDownY + i1 * camUpDownX >> 16;
-        int k1 = i * camUpDownX - i1 * camUpDownY >> 16;
+    /**
+     * Requests the visibility map for the given viewport. Previously seen viewports are
+     * reused and new ones are computed off the game thread once a map is in place.
+     */
+    public static void buildVisibilityMap(int minHeight, int maxHeight, int viewportWidth, int viewportHeight, int[] heights) {
         final boolean gpu = Client.processGpuPlugin() && Rasterizer3D.world;
-        if (j1 < 50 || (j1 >= 3500 && !gpu)) {
-            return false;
-        }
-
-        int l1 = viewportHalfWidth + l * Rasterizer3D.fieldOfView / j1;
-        int i2 = viewportHalfHeight + k1 * Rasterizer3D.fieldOfView / j1;
-        return l1 >= xMin && l1 <= xMax && i2 >= yMin && i2 <= yMax;
+        VisibilityMapCache.request(new VisibilityMapKey(viewportWidth, viewportHeight, minHeight, maxHeight,
+                Rasterizer3D.fieldOfView, gpu, heights));
     }
 
     /**
@@ -1166,7 +1115,8 @@ public final class SceneGraph implements RSScene {
 
 
         final int[][][] tileHeights = Client.instance.getTileHeights();
-        boolean[][] renderArea = Client.instance.getVisibilityMaps()[(camAngleZ - 128) / 32][camAngleXY / 64];
+        VisibilityMapCache.publish();
+        boolean[][] renderArea = visibleTiles((camAngleZ - 128) / 32, camAngleXY / 64);
         Client.instance.setRenderArea(renderArea);
 
         Client.instance.setCameraX2(cameraXPos);
@@ -2767,20 +2717,36 @@ public final class SceneGraph implements RSScene {
             { 12, 8, 4, 0, 13, 9, 5, 1, 14, 10, 6, 2, 15, 11, 7, 3 },
             { 15, 14, 13, 12, 11, 10, 9, 8, 7, 6, 5, 4, 3, 2, 1, 0 },
             { 3, 7, 11, 15, 2, 6, 10, 14, 1, 5, 9, 13, 0, 4, 8, 12 } };
-    public static boolean[][][][] visibilityMap;
+    public static VisibilityMap visibilityMap;
     public static boolean[][] renderArea;
-    private static int viewportHalfWidth;
-    private static int viewportHalfHeight;
-    private static int xMin;
-    private static int yMin;
-    private static int xMax;
-    private static int yMax;
+    /**
+     * The tiles visible from the current camera angle, copied out of {@link #visibilityMap}
+     * only when the map or the angle changes.
+     */
+    private static final boolean[][] visibleTiles = new boolean[VisibilityMap.SIZE][VisibilityMap.SIZE];
+    private static VisibilityMap visibleTilesMap;
+    private static int visibleTilesSegment = -1;
 
     static {
         cullingClusterPlaneCount = 4;
         sceneClusterCounts = new int[cullingClusterPlaneCount];
         sceneClusters = new SceneCluster[cullingClusterPlaneCount][500];
-        visibilityMap = new boolean[8][32][51][51];
+    }
+
+    private static boolean[][] visibleTiles(int pitchSegment, int yawSegment) {
+        final int segment = pitchSegment * VisibilityMap.YAW_SEGMENTS + yawSegment;
+        if (visibleTilesMap != visibilityMap || visibleTilesSegment != segment) {
+            visibleTilesMap = visibilityMap;
+            visibleTilesSegment = segment;
+            if (visibilityMap != null) {
+                visibilityMap.copySlice(pitchSegment, yawSegment, visibleTiles);
+            } else {
+                for (boolean[] column : visibleTiles) {
+                    Arrays.fill(column, false);
+                }
+            }
+        }
+        return visibleTiles;
     }
 
     /**
@@ -2882,6 +2848,12 @@ public final class SceneGraph implements RSScene {
         return tileArray;
     }
 
+    @Override
+    public void forEachObjectTile(int type, int plane, int minX, int minY, int maxX, int maxY, int[] ids,
+                                  Consumer<net.runelite.api.Tile> consumer) {
+        index.forEach(tileArray, type, plane, minX, minY, maxX, maxY, ids, consumer);
+    }
+
     @Override
     public int[][] getTileShape2D() {
         return tileVertices;
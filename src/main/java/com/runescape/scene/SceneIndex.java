@@ -0,0 +1,304 @@
+package com.runescape.scene;
+
+import com.runescape.entity.GameObject;
+import com.runescape.scene.object.tile.Tile;
+import net.runelite.api.Scene;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Tracks which tiles of the scene hold objects, by object type and by object id, so scene
+ * queries visit only those tiles instead of every tile of a plane.
+ *
+ * Every plane keeps a grid of occupied tiles per type, one bit per tile in columns of two
+ * words, and a list of the tiles holding each object id. The scene updates a tile's entries
+ * whenever objects are added to or removed from it. Players, npcs and the other entities the
+ * scene holds as game objects for a frame are not scene objects, so they are left out.
+ */
+final class SceneIndex {
+
+    private static final int PLANES = 4;
+    private static final int SIZE = 104;
+    private static final int TILES = SIZE * SIZE;
+    private static final int TYPES = 4;
+    private static final int COLUMN_WORDS = 2;
+    private static final int EMPTY = Integer.MIN_VALUE;
+    /**
+     * The most objects of each type a tile holds.
+     */
+    private static final int[] SLOTS = { 5, 1, 1, 1 };
+
+    private final long[][] occupied = new long[TYPES * PLANES][SIZE * COLUMN_WORDS];
+    private final int[][] tileIds = new int[TYPES][];
+    private final IdTiles[] idTiles = new IdTiles[TYPES];
+    private final int[] largestSpan = new int[PLANES];
+    private final int[] updating = new int[5];
+    private int[] visiting = new int[64];
+
+    SceneIndex() {
+        for (int type = 0; type < TYPES; type++) {
+            tileIds[type] = new int[PLANES * TILES * SLOTS[type]];
+            idTiles[type] = new IdTiles();
+        }
+        clear();
+    }
+
+    void clear() {
+        for (long[] grid : occupied) {
+            Arrays.fill(grid, 0L);
+        }
+        for (int type = 0; type < TYPES; type++) {
+            Arrays.fill(tileIds[type], EMPTY);
+            idTiles[type].clear();
+        }
+        Arrays.fill(largestSpan, 0);
+    }
+
+    /**
+     * Whether {@code object} is a scene object the index lists, rather than an entity added for a frame.
+     */
+    static boolean isIndexed(GameObject object) {
+        return (object.uid >> 29 & 3) == 2;
+    }
+
+    /**
+     * Brings the entries of one tile up to date with the objects it now holds.
+     */
+    void update(Tile tile, int plane, int x, int y) {
+        int count = 0;
+        if (tile != null) {
+            for (int index = 0; index < tile.gameObjectIndex; index++) {
+                final GameObject object = tile.gameObjects[index];
+                if (!isIndexed(object))
+                    continue;
+                updating[count++] = object.getId();
+                largestSpan[plane] = Math.max(largestSpan[plane],
+                        Math.max(object.xLocHigh - object.xLocLow, object.yLocLow - object.yLocHigh));
+            }
+        }
+        setIds(Scene.GAME_OBJECT, plane, x, y, count);
+        setId(Scene.WALL_OBJECT, plane, x, y, tile != null && tile.wallObject != null ? tile.wallObject.getId() : EMPTY);
+        setId(Scene.DECORATIVE_OBJECT, plane, x, y, tile != null && tile.wallDecoration != null ? tile.wallDecoration.getId() : EMPTY);
+        setId(Scene.GROUND_OBJECT, plane, x, y, tile != null && tile.groundDecoration != null ? tile.groundDecoration.getId() : EMPTY);
+    }
+
+    private void setId(int type, int plane, int x, int y, int id) {
+        if (id == EMPTY) {
+            setIds(type, plane, x, y, 0);
+        } else {
+            updating[0] = id;
+            setIds(type, plane, x, y, 1);
+        }
+    }
+
+    /**
+     * Replaces the ids a tile is listed under for {@code type} with the first {@code count} of {@link #updating}.
+     */
+    private void setIds(int type, int plane, int x, int y, int count) {
+        final int slots = SLOTS[type];
+        final int tile = plane * TILES + x * SIZE + y;
+        final int[] stored = tileIds[type];
+        final int base = tile * slots;
+        boolean same = true;
+        for (int slot = 0; slot < slots; slot++) {
+            if (stored[base + slot] != (slot < count ? updating[slot] : EMPTY)) {
+                same = false;
+                break;
+            }
+        }
+        if (same)
+            return;
+        for (int slot = 0; slot < slots && stored[base + slot] != EMPTY; slot++) {
+            idTiles[type].remove(stored[base + slot], tile);
+        }
+        for (int slot = 0; slot < slots; slot++) {
+            stored[base + slot] = slot < count ? updating[slot] : EMPTY;
+            if (slot < count)
+                idTiles[type].add(updating[slot], tile);
+        }
+        final long[] grid = occupied[type * PLANES + plane];
+        final int word = x * COLUMN_WORDS + (y >> 6);
+        if (count > 0)
+            grid[word] |= 1L << y;
+        else
+            grid[word] &= ~(1L << y);
+    }
+
+    /**
+     * Visits the tiles holding an object of {@code type} in x then y order. Objects bigger than
+     * a tile are held by every tile they cover, so the area is widened by the largest object on
+     * the plane to reach the first tile of any object that lies in it.
+     */
+    void forEach(Tile[][][] tiles, int type, int plane, int minX, int minY, int maxX, int maxY, int[] ids,
+                 Consumer<net.runelite.api.Tile> consumer) {
+        if (type == Scene.GAME_OBJECT) {
+            minX -= largestSpan[plane];
+            minY -= largestSpan[plane];
+        }
+        minX = Math.max(0, minX);
+        minY = Math.max(0, minY);
+        maxX = Math.min(SIZE - 1, maxX);
+        maxY = Math.min(SIZE - 1, maxY);
+        if (minX > maxX || minY > maxY)
+            return;
+        if (ids != null) {
+            forEachWithIds(tiles[plane], type, plane, minX, minY, maxX, maxY, ids, consumer);
+            return;
+        }
+        final long[] grid = occupied[type * PLANES + plane];
+        for (int x = minX; x <= maxX; x++) {
+            for (int word = minY >> 6; word <= maxY >> 6; word++) {
+                long bits = grid[x * COLUMN_WORDS + word];
+                while (bits != 0) {
+                    final int y = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    if (y >= minY && y <= maxY && tiles[plane][x][y] != null)
+                        consumer.accept(tiles[plane][x][y]);
+                }
+            }
+        }
+    }
+
+    private void forEachWithIds(Tile[][] tiles, int type, int plane, int minX, int minY, int maxX, int maxY, int[] ids,
+                                Consumer<net.runelite.api.Tile> consumer) {
+        int count = 0;
+        for (int id : ids) {
+            final int[] list = idTiles[type].get(id);
+            if (list == null)
+                continue;
+            for (int index = 1; index <= list[0]; index++) {
+                final int tile = list[index] - plane * TILES;
+                if (tile < 0 || tile >= TILES)
+                    continue;
+                if (count == visiting.length)
+                    visiting = Arrays.copyOf(visiting, count * 2);
+                visiting[count++] = tile;
+            }
+        }
+        // Tiles are numbered in x then y order, so sorting them gives the order of a full scan
+        Arrays.sort(visiting, 0, count);
+        for (int index = 0; index < count; index++) {
+            final int tile = visiting[index];
+            if (index > 0 && tile == visiting[index - 1])
+                continue;
+            final int x = tile / SIZE;
+            final int y = tile % SIZE;
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY && tiles[x][y] != null)
+                consumer.accept(tiles[x][y]);
+        }
+    }
+
+    /**
+     * The tiles holding each object id, as lists of tile numbers with their size first, kept
+     * in an open addressing table so updates box nothing.
+     */
+    private static final class IdTiles {
+
+        private int[] keys = new int[1024];
+        private int[][] lists = new int[1024][];
+        private int size;
+
+        void clear() {
+            Arrays.fill(lists, null);
+            size = 0;
+        }
+
+        int[] get(int id) {
+            final int slot = slotOf(id);
+            return slot < 0 ? null : lists[slot];
+        }
+
+        private int slotOf(int id) {
+            final int mask = keys.length - 1;
+            for (int slot = hash(id) & mask; lists[slot] != null; slot = slot + 1 & mask) {
+                if (keys[slot] == id)
+                    return slot;
+            }
+            return -1;
+        }
+
+        void add(int id, int tile) {
+            int[] list = get(id);
+            if (list == null) {
+                if ((size + 1) * 2 > keys.length)
+                    resize(keys.length * 2);
+                list = new int[4];
+                final int mask = keys.length - 1;
+                int slot = hash(id) & mask;
+                while (lists[slot] != null)
+                    slot = slot + 1 & mask;
+                keys[slot] = id;
+                lists[slot] = list;
+                size++;
+            }
+            if (list[0] + 1 == list.length) {
+                final int[] grown = Arrays.copyOf(list, list.length * 2);
+                replace(id, grown);
+                list = grown;
+            }
+            list[++list[0]] = tile;
+        }
+
+        void remove(int id, int tile) {
+            final int slot = slotOf(id);
+            if (slot < 0)
+                return;
+            final int[] list = lists[slot];
+            for (int index = 1; index <= list[0]; index++) {
+                if (list[index] == tile) {
+                    list[index] = list[list[0]--];
+                    if (list[0] == 0)
+                        removeSlot(slot);
+                    return;
+                }
+            }
+        }
+
+        private void replace(int id, int[] list) {
+            final int slot = slotOf(id);
+            if (slot >= 0)
+                lists[slot] = list;
+        }
+
+        /**
+         * Empties a slot, moving later entries of its probe run back so none is left
+         * past a gap short of its id.
+         */
+        private void removeSlot(int slot) {
+            size--;
+            final int mask = keys.length - 1;
+            int gap = slot;
+            for (int next = gap + 1 & mask; lists[next] != null; next = next + 1 & mask) {
+                final int home = hash(keys[next]) & mask;
+                if ((next - home & mask) >= (next - gap & mask)) {
+                    keys[gap] = keys[next];
+                    lists[gap] = lists[next];
+                    gap = next;
+                }
+            }
+            lists[gap] = null;
+        }
+
+        private void resize(int capacity) {
+            final int[] oldKeys = keys;
+            final int[][] oldLists = lists;
+            keys = new int[capacity];
+            lists = new int[capacity][];
+            for (int index = 0; index < oldKeys.length; index++) {
+                if (oldLists[index] == null)
+                    continue;
+                int slot = hash(oldKeys[index]) & capacity - 1;
+                while (lists[slot] != null)
+                    slot = slot + 1 & capacity - 1;
+                keys[slot] = oldKeys[index];
+                lists[slot] = oldLists[index];
+            }
+        }
+
+        private static int hash(int id) {
+            final int hash = id * 0x9E3779B9;
+            return hash ^ hash >>> 16;
+        }
+    }
+}
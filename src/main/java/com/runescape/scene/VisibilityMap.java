@@ -0,0 +1,176 @@
+package com.runescape.scene;
+
+import com.runescape.entity.model.Model;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * A compact, bit-packed tile visibility map for every camera pitch and yaw segment.
+ *
+ * Each (pitch, yaw) slice is padded to a whole number of longs so slices can be
+ * written concurrently without sharing a word.
+ */
+public final class VisibilityMap {
+
+    public static final int PITCH_SEGMENTS = 8;
+    public static final int YAW_SEGMENTS = 32;
+    public static final int SIZE = 51;
+
+    private static final int SAMPLE_PITCH_SEGMENTS = PITCH_SEGMENTS + 1;
+    private static final int SAMPLE_SIZE = 53;
+    private static final int SLICE_BITS = SIZE * SIZE;
+    static final int SLICE_WORDS = (SLICE_BITS + 63) >>> 6;
+    static final int WORDS = PITCH_SEGMENTS * YAW_SEGMENTS * SLICE_WORDS;
+
+    private final long[] bits;
+    private boolean[][][][] expanded;
+
+    VisibilityMap(long[] bits) {
+        this.bits = bits;
+    }
+
+    long[] bits() {
+        return bits;
+    }
+
+    public boolean isVisible(int pitchSegment, int yawSegment, int x, int y) {
+        int bit = x * SIZE + y;
+        return (bits[(pitchSegment * YAW_SEGMENTS + yawSegment) * SLICE_WORDS + (bit >>> 6)] & 1L << bit) != 0;
+    }
+
+    /**
+     * Copies the tiles visible from one camera pitch and yaw into {@code tiles}, a
+     * {@link #SIZE} by {@link #SIZE} array.
+     */
+    public void copySlice(int pitchSegment, int yawSegment, boolean[][] tiles) {
+        int base = (pitchSegment * YAW_SEGMENTS + yawSegment) * SLICE_WORDS;
+        for (int x = 0; x < SIZE; x++) {
+            boolean[] column = tiles[x];
+            for (int y = 0; y < SIZE; y++) {
+                int bit = x * SIZE + y;
+                column[y] = (bits[base + (bit >>> 6)] & 1L << bit) != 0;
+            }
+        }
+    }
+
+    /**
+     * Returns this map in the boolean layout the RuneLite api reads, expanded the first
+     * time it is asked for. The renderer reads the compact form through {@link #copySlice}.
+     */
+    public boolean[][][][] toArray() {
+        if (expanded != null) {
+            return expanded;
+        }
+        boolean[][][][] map = new boolean[PITCH_SEGMENTS][YAW_SEGMENTS][SIZE][SIZE];
+        for (int pitch = 0; pitch < PITCH_SEGMENTS; pitch++) {
+            for (int yaw = 0; yaw < YAW_SEGMENTS; yaw++) {
+                int base = (pitch * YAW_SEGMENTS + yaw) * SLICE_WORDS;
+                for (int x = 0; x < SIZE; x++) {
+                    boolean[] column = map[pitch][yaw][x];
+                    for (int y = 0; y < SIZE; y++) {
+                        int bit = x * SIZE + y;
+                        column[y] = (bits[base + (bit >>> 6)] & 1L << bit) != 0;
+                    }
+                }
+            }
+        }
+        expanded = map;
+        return map;
+    }
+
+    /**
+     * Computes the visibility map for the given viewport, splitting the work per
+     * camera angle across {@code pool}. The output is identical to the original
+     * single threaded brute force.
+     */
+    static VisibilityMap compute(VisibilityMapKey key, ForkJoinPool pool) {
+        boolean[][] samples = new boolean[SAMPLE_PITCH_SEGMENTS * YAW_SEGMENTS][];
+        long[] bits = new long[WORDS];
+        pool.submit(() -> {
+            IntStream.range(0, SAMPLE_PITCH_SEGMENTS * YAW_SEGMENTS).parallel()
+                    .forEach(slice -> samples[slice] = sample(key, slice / YAW_SEGMENTS, slice % YAW_SEGMENTS));
+            IntStream.range(0, PITCH_SEGMENTS * YAW_SEGMENTS).parallel()
+                    .forEach(slice -> dilate(samples, bits, slice / YAW_SEGMENTS, slice % YAW_SEGMENTS));
+        }).join();
+        return new VisibilityMap(bits);
+    }
+
+    private static boolean[] sample(VisibilityMapKey key, int pitchSegment, int yawSegment) {
+        int pitch = 128 + pitchSegment * 32;
+        int yaw = yawSegment * 64;
+        int pitchSin = Model.SINE[pitch];
+        int pitchCos = Model.COSINE[pitch];
+        int yawSin = Model.SINE[yaw];
+        int yawCos = Model.COSINE[yaw];
+        int baseHeight = key.heights[pitchSegment];
+        boolean[] visible = new boolean[SAMPLE_SIZE * SAMPLE_SIZE];
+        for (int x = -26; x <= 26; x++) {
+            for (int y = -26; y <= 26; y++) {
+                int worldX = x * 128;
+                int worldY = y * 128;
+                for (int height = -key.minHeight; height <= key.maxHeight; height += 128) {
+                    if (projects(key, baseHeight + height, worldY, worldX, pitchSin, pitchCos, yawSin, yawCos)) {
+                        visible[(x + 26) * SAMPLE_SIZE + y + 26] = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return visible;
+    }
+
+    private static void dilate(boolean[][] samples, long[] bits, int pitchSegment, int yawSegment) {
+        // The yaw wrap uses % 31 rather than % 32; kept as-is so the culling matches the original client
+        int nextYaw = (yawSegment + 1) % 31;
+        boolean[] current = samples[pitchSegment * YAW_SEGMENTS + yawSegment];
+        boolean[] nextYawSlice = samples[pitchSegment * YAW_SEGMENTS + nextYaw];
+        boolean[] nextPitch = samples[(pitchSegment + 1) * YAW_SEGMENTS + yawSegment];
+        boolean[] nextBoth = samples[(pitchSegment + 1) * YAW_SEGMENTS + nextYaw];
+        int base = (pitchSegment * YAW_SEGMENTS + yawSegment) * SLICE_WORDS;
+        for (int x = -25; x < 25; x++) {
+            for (int y = -25; y < 25; y++) {
+                boolean visible = false;
+                search:
+                for (int dx = -1; dx <= 1; dx++) {
+                    for (int dy = -1; dy <= 1; dy++) {
+                        int sample = (x + dx + 26) * SAMPLE_SIZE + y + dy + 26;
+                        if (current[sample] || nextYawSlice[sample] || nextPitch[sample] || nextBoth[sample]) {
+                            visible = true;
+                            break search;
+                        }
+                    }
+                }
+                if (visible) {
+                    int bit = (x + 25) * SIZE + y + 25;
+                    bits[base + (bit >>> 6)] |= 1L << bit;
+                }
+            }
+        }
+    }
+
+    private static boolean projects(VisibilityMapKey key, int z, int y, int x, int pitchSin, int pitchCos, int yawSin, int yawCos) {
+        int rotatedX = y * yawSin + x * yawCos >> 16;
+        int rotatedY = y * yawCos - x * yawSin >> 16;
+        int depth = z * pitchSin + rotatedY * pitchCos >> 16;
+        int screenY = z * pitchCos - rotatedY * pitchSin >> 16;
+        if (depth < 50 || (depth >= 3500 && !key.gpu)) {
+            return false;
+        }
+
+        int projectedX = key.width / 2 + rotatedX * key.fieldOfView / depth;
+        int projectedY = key.height / 2 + screenY * key.fieldOfView / depth;
+        return projectedX >= 0 && projectedX <= key.width && projectedY >= 0 && projectedY <= key.height;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof VisibilityMap && Arrays.equals(bits, ((VisibilityMap) other).bits);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bits);
+    }
+}
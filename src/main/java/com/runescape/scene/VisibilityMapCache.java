@@ -0,0 +1,196 @@
+package com.runescape.scene;
+
+import com.runescape.Client;
+import com.runescape.Configuration;
+import com.runescape.sign.SignLink;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Memoises {@link VisibilityMap}s per viewport so resizing the client does not
+ * rebuild them on the game thread.
+ *
+ * A map already in memory is installed immediately. Otherwise it is loaded from
+ * disk or computed on a fork-join pool while the previously installed map keeps
+ * rendering; the result is handed to the game thread through {@link #publish()}.
+ * The very first map is resolved synchronously since there is nothing to render with.
+ */
+public final class VisibilityMapCache {
+
+    private static final int MAX_ENTRIES = 16;
+    private static final int FILE_VERSION = 1;
+    private static final String DIRECTORY = "visibility/";
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+
+    private static final Map<VisibilityMapKey, VisibilityMap> maps = new LinkedHashMap<VisibilityMapKey, VisibilityMap>(MAX_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<VisibilityMapKey, VisibilityMap> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private static final Map<VisibilityMapKey, CompletableFuture<VisibilityMap>> inFlight = new HashMap<>();
+
+    private static volatile VisibilityMapKey requested;
+    private static volatile Resolved pending;
+    private static boolean installed;
+
+    private VisibilityMapCache() {
+
+    }
+
+    /**
+     * Requests the map for {@code key} become the active visibility map.
+     */
+    static void request(VisibilityMapKey key) {
+        requested = key;
+        pending = null;
+        VisibilityMap map;
+        synchronized (maps) {
+            map = maps.get(key);
+        }
+        if (map != null || !installed) {
+            install(map != null ? map : resolve(key));
+            return;
+        }
+
+        CompletableFuture<VisibilityMap> future;
+        synchronized (inFlight) {
+            future = inFlight.get(key);
+            if (future == null) {
+                future = CompletableFuture.supplyAsync(() -> resolve(key), POOL);
+                inFlight.put(key, future);
+            }
+        }
+        future.thenAccept(resolved -> {
+            if (key.equals(requested)) {
+                pending = new Resolved(key, resolved);
+            }
+        });
+    }
+
+    /**
+     * Installs a map that finished computing in the background, if it is still the
+     * one wanted. Called from the game thread before the scene is rendered.
+     */
+    public static void publish() {
+        Resolved resolved = pending;
+        if (resolved == null) {
+            return;
+        }
+        pending = null;
+        if (resolved.key.equals(requested)) {
+            SceneGraph.visibilityMap = resolved.map;
+        }
+    }
+
+    private static void install(VisibilityMap map) {
+        SceneGraph.visibilityMap = map;
+        installed = true;
+    }
+
+    private static VisibilityMap resolve(VisibilityMapKey key) {
+        try {
+            VisibilityMap map = Configuration.visibilityMapDiskCache ? read(key) : null;
+            if (map == null) {
+                map = VisibilityMap.compute(key, POOL);
+                if (Configuration.visibilityMapDiskCache) {
+                    write(key, map);
+                }
+            }
+            synchronized (maps) {
+                maps.put(key, map);
+            }
+            return map;
+        } finally {
+            synchronized (inFlight) {
+                inFlight.remove(key);
+            }
+        }
+    }
+
+    private static VisibilityMap read(VisibilityMapKey key) {
+        File file = new File(SignLink.findcachedir() + DIRECTORY + key.fileName());
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+            if (in.readInt() != FILE_VERSION || in.readInt() != key.width || in.readInt() != key.height
+                    || in.readInt() != key.minHeight || in.readInt() != key.maxHeight
+                    || in.readInt() != key.fieldOfView || in.readBoolean() != key.gpu
+                    || in.readInt() != key.heights.length) {
+                return null;
+            }
+            for (int height : key.heights) {
+                if (in.readInt() != height) {
+                    return null;
+                }
+            }
+            long[] bits = new long[in.readInt()];
+            if (bits.length != VisibilityMap.WORDS) {
+                return null;
+            }
+            for (int i = 0; i < bits.length; i++) {
+                bits[i] = in.readLong();
+            }
+            return new VisibilityMap(bits);
+        } catch (IOException ex) {
+            file.delete();
+            return null;
+        }
+    }
+
+    private static void write(VisibilityMapKey key, VisibilityMap map) {
+        File directory = new File(SignLink.findcachedir() + DIRECTORY);
+        if (!directory.exists() && !directory.mkdirs()) {
+            return;
+        }
+        File file = new File(directory, key.fileName());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(file))))) {
+            out.writeInt(FILE_VERSION);
+            out.writeInt(key.width);
+            out.writeInt(key.height);
+            out.writeInt(key.minHeight);
+            out.writeInt(key.maxHeight);
+            out.writeInt(key.fieldOfView);
+            out.writeBoolean(key.gpu);
+            out.writeInt(key.heights.length);
+            for (int height : key.heights) {
+                out.writeInt(height);
+            }
+            long[] bits = map.bits();
+            out.writeInt(bits.length);
+            for (long word : bits) {
+                out.writeLong(word);
+            }
+        } catch (IOException ex) {
+            Client.instance.getLogger().warn("unable to write visibility map {}", file, ex);
+            file.delete();
+        }
+    }
+
+    private static final class Resolved {
+
+        private final VisibilityMapKey key;
+        private final VisibilityMap map;
+
+        private Resolved(VisibilityMapKey key, VisibilityMap map) {
+            this.key = key;
+            this.map = map;
+        }
+    }
+}
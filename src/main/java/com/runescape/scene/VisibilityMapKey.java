@@ -0,0 +1,59 @@
+package com.runescape.scene;
+
+import java.util.Arrays;
+
+/**
+ * The inputs a {@link VisibilityMap} is derived from: the viewport, the projection
+ * scale and the range of heights sampled for each pitch segment.
+ */
+final class VisibilityMapKey {
+
+    final int width;
+    final int height;
+    final int minHeight;
+    final int maxHeight;
+    final int fieldOfView;
+    final boolean gpu;
+    final int[] heights;
+
+    VisibilityMapKey(int width, int height, int minHeight, int maxHeight, int fieldOfView, boolean gpu, int[] heights) {
+        this.width = width;
+        this.height = height;
+        this.minHeight = minHeight;
+        this.maxHeight = maxHeight;
+        this.fieldOfView = fieldOfView;
+        this.gpu = gpu;
+        this.heights = heights.clone();
+    }
+
+    /**
+     * A file name unique to this key, used for the on-disk cache.
+     */
+    String fileName() {
+        return "vis_" + width + "x" + height + "_" + Integer.toHexString(hashCode()) + ".dat";
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof VisibilityMapKey)) {
+            return false;
+        }
+        VisibilityMapKey key = (VisibilityMapKey) other;
+        return width == key.width && height == key.height && minHeight == key.minHeight && maxHeight == key.maxHeight
+                && fieldOfView == key.fieldOfView && gpu == key.gpu && Arrays.equals(heights, key.heights);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = width;
+        hash = 31 * hash + height;
+        hash = 31 * hash + minHeight;
+        hash = 31 * hash + maxHeight;
+        hash = 31 * hash + fieldOfView;
+        hash = 31 * hash + (gpu ? 1 : 0);
+        return 31 * hash + Arrays.hashCode(heights);
+    }
+}
@@ -1,13 +1,37 @@
 package com.runescape.scene.object;
 import com.runescape.collection.Linkable;
+import com.runescape.collection.NodePool;
 
 public final class SpawnedObject extends Linkable {
 
+	public static final NodePool<SpawnedObject> POOL = new NodePool<>("Object spawn", 256, SpawnedObject::new);
+
 	public SpawnedObject()
 	{
 		getLongetivity = -1;
 	}
 
+	/**
+	 * Clears a new or pooled request as if it was just constructed.
+	 */
+	public SpawnedObject reset()
+	{
+		key = 0L;
+		id = 0;
+		orientation = 0;
+		type = 0;
+		getLongetivity = -1;
+		plane = 0;
+		group = 0;
+		x = 0;
+		y = 0;
+		getPreviousId = 0;
+		previousOrientation = 0;
+		previousType = 0;
+		delay = 0;
+		return this;
+	}
+
 	public int id;
 	public int orientation;
 	public int type;
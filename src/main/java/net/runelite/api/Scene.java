@@ -24,6 +24,7 @@
  */
 package net.runelite.api;
 
+import java.util.function.Consumer;
 import net.runelite.api.coords.WorldPoint;
 
 /**
@@ -31,6 +32,14 @@ import net.runelite.api.coords.WorldPoint;
  */
 public interface Scene
 {
+	/**
+	 * Object types for {@link #forEachObjectTile}.
+	 */
+	int GAME_OBJECT = 0;
+	int WALL_OBJECT = 1;
+	int DECORATIVE_OBJECT = 2;
+	int GROUND_OBJECT = 3;
+
 	/**
 	 * Gets the tiles in the scene
 	 *
@@ -142,4 +151,32 @@ public interface Scene
 	 * @return
 	 */
 	byte[][][] getTileShapes();
+
+	/**
+	 * Visits the tiles of a plane that hold an object of a type, in the same x then y order
+	 * as {@link #getTiles()}. Every tile holding an object that lies within the area, and has
+	 * one of {@code ids} when they are given, is visited; other tiles may be visited too.
+	 *
+	 * @param type  the object type, such as {@link #GAME_OBJECT}
+	 * @param minX  the lowest scene x of the area
+	 * @param minY  the lowest scene y of the area
+	 * @param maxX  the highest scene x of the area
+	 * @param maxY  the highest scene y of the area
+	 * @param ids   the object ids of interest, or null for any
+	 */
+	default void forEachObjectTile(int type, int plane, int minX, int minY, int maxX, int maxY, int[] ids, Consumer<Tile> consumer)
+	{
+		Tile[][] tiles = getTiles()[plane];
+		for (int x = 0; x < Constants.SCENE_SIZE; ++x)
+		{
+			for (int y = 0; y < Constants.SCENE_SIZE; ++y)
+			{
+				Tile tile = tiles[x][y];
+				if (tile != null)
+				{
+					consumer.accept(tile);
+				}
+			}
+		}
+	}
 }
@@ -0,0 +1,116 @@
+package net.runelite.api.model;
+
+import java.util.Arrays;
+import net.runelite.api.geometry.SimplePolygon;
+
+/**
+ * Computes convex hulls with Andrew's monotone chain algorithm in O(n log n) time.
+ * <p>
+ * The points are sorted and the hull built in buffers kept by the instance, so a
+ * hull allocates nothing but the polygon it returns. An instance must only be used
+ * by one thread at a time.
+ */
+public class MonotoneChain
+{
+	private long[] points = new long[64];
+	private long[] hull = new long[128];
+
+	/**
+	 * Computes and returns the convex hull of the first {@code length} passed points,
+	 * skipping any with an x of {@link Integer#MIN_VALUE}. The hull starts at the left
+	 * most point and winds the same way as {@link Jarvis#convexHull(int[], int[])}.
+	 * <p>
+	 * If fewer than 3 points are valid, this method will return null.
+	 *
+	 * @return a shape the points part of the convex hull
+	 */
+	public SimplePolygon convexHull(int[] xs, int[] ys, int length)
+	{
+		if (points.length < length)
+		{
+			points = new long[length];
+			hull = new long[length * 2];
+		}
+
+		// points sort by x, then by y
+		int count = 0;
+		for (int i = 0; i < length; i++)
+		{
+			if (xs[i] != Integer.MIN_VALUE)
+			{
+				points[count++] = (long) xs[i] << 32 | (ys[i] ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+			}
+		}
+
+		if (count < 3)
+		{
+			return null;
+		}
+
+		Arrays.sort(points, 0, count);
+
+		int unique = 1;
+		for (int i = 1; i < count; i++)
+		{
+			if (points[i] != points[unique - 1])
+			{
+				points[unique++] = points[i];
+			}
+		}
+
+		if (unique == 1)
+		{
+			return new SimplePolygon(new int[]{x(points[0])}, new int[]{y(points[0])}, 1);
+		}
+
+		int size = 0;
+		for (int i = 0; i < unique; i++)
+		{
+			while (size >= 2 && turn(hull[size - 2], hull[size - 1], points[i]) <= 0)
+			{
+				size--;
+			}
+			hull[size++] = points[i];
+		}
+		for (int i = unique - 2, lower = size + 1; i >= 0; i--)
+		{
+			while (size >= lower && turn(hull[size - 2], hull[size - 1], points[i]) <= 0)
+			{
+				size--;
+			}
+			hull[size++] = points[i];
+		}
+		// the last point closes the hull back on the first
+		size--;
+
+		// the chains wind the other way to a jarvis march, so walk them backwards
+		int[] hx = new int[size];
+		int[] hy = new int[size];
+		for (int i = 0; i < size; i++)
+		{
+			long point = hull[i == 0 ? 0 : size - i];
+			hx[i] = x(point);
+			hy[i] = y(point);
+		}
+		return new SimplePolygon(hx, hy, size);
+	}
+
+	private static int x(long point)
+	{
+		return (int) (point >> 32);
+	}
+
+	private static int y(long point)
+	{
+		return (int) point ^ Integer.MIN_VALUE;
+	}
+
+	/**
+	 * Returns how far {@code r} lies to the left of the line from {@code p} through {@code q},
+	 * with y pointing down the canvas.
+	 */
+	private static long turn(long p, long q, long r)
+	{
+		return (long) (x(q) - x(p)) * (y(r) - y(p)) - (long) (y(q) - y(p)) * (x(r) - x(p));
+	}
+}
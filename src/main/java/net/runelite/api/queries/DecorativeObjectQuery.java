@@ -25,33 +25,26 @@
 package net.runelite.api.queries;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.List;
 import net.runelite.api.Client;
 import net.runelite.api.DecorativeObject;
 import net.runelite.api.LocatableQueryResults;
-import net.runelite.api.Tile;
+import net.runelite.api.Scene;
 
 public class DecorativeObjectQuery extends TileObjectQuery<DecorativeObject, DecorativeObjectQuery>
 {
 	@Override
 	public LocatableQueryResults<DecorativeObject> result(Client client)
 	{
-		return new LocatableQueryResults<>(getDecorativeObjects(client).stream()
-			.filter(Objects::nonNull)
-			.filter(predicate)
-			.distinct()
-			.collect(Collectors.toList()));
-	}
-
-	private Collection<DecorativeObject> getDecorativeObjects(Client client)
-	{
-		Collection<DecorativeObject> objects = new ArrayList<>();
-		for (Tile tile : getTiles(client))
+		List<DecorativeObject> objects = new ArrayList<>();
+		forEachTile(client, Scene.DECORATIVE_OBJECT, tile ->
 		{
-			objects.add(tile.getDecorativeObject());
-		}
-		return objects;
+			DecorativeObject object = tile.getDecorativeObject();
+			if (object != null && predicate.test(object))
+			{
+				objects.add(object);
+			}
+		});
+		return new LocatableQueryResults<>(objects);
 	}
 }
@@ -25,38 +25,38 @@
 package net.runelite.api.queries;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 import net.runelite.api.Client;
 import net.runelite.api.GameObject;
 import net.runelite.api.LocatableQueryResults;
-import net.runelite.api.Tile;
+import net.runelite.api.Scene;
 
 public class GameObjectQuery extends TileObjectQuery<GameObject, GameObjectQuery>
 {
 	@Override
 	public LocatableQueryResults<GameObject> result(Client client)
 	{
-		return new LocatableQueryResults<>(getGameObjects(client).stream()
-			.filter(Objects::nonNull)
-			.filter(predicate)
-			.distinct()
-			.collect(Collectors.toList()));
-	}
-
-	private Collection<GameObject> getGameObjects(Client client)
-	{
-		Collection<GameObject> objects = new ArrayList<>();
-		for (Tile tile : getTiles(client))
+		List<GameObject> objects = new ArrayList<>();
+		// Objects bigger than a tile are held by every tile they cover
+		Set<GameObject> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+		forEachTile(client, Scene.GAME_OBJECT, tile ->
 		{
 			GameObject[] gameObjects = tile.getGameObjects();
-			if (gameObjects != null)
+			if (gameObjects == null)
+			{
+				return;
+			}
+			for (GameObject object : gameObjects)
 			{
-				objects.addAll(Arrays.asList(gameObjects));
+				if (object != null && seen.add(object) && predicate.test(object))
+				{
+					objects.add(object);
+				}
 			}
-		}
-		return objects;
+		});
+		return new LocatableQueryResults<>(objects);
 	}
 }
@@ -25,33 +25,26 @@
 package net.runelite.api.queries;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.List;
 import net.runelite.api.Client;
 import net.runelite.api.GroundObject;
 import net.runelite.api.LocatableQueryResults;
-import net.runelite.api.Tile;
+import net.runelite.api.Scene;
 
 public class GroundObjectQuery extends TileObjectQuery<GroundObject, GroundObjectQuery>
 {
 	@Override
 	public LocatableQueryResults<GroundObject> result(Client client)
 	{
-		return new LocatableQueryResults<>(getGroundObjects(client).stream()
-			.filter(Objects::nonNull)
-			.filter(predicate)
-			.distinct()
-			.collect(Collectors.toList()));
-	}
-
-	private Collection<GroundObject> getGroundObjects(Client client)
-	{
-		Collection<GroundObject> objects = new ArrayList<>();
-		for (Tile tile : getTiles(client))
+		List<GroundObject> objects = new ArrayList<>();
+		forEachTile(client, Scene.GROUND_OBJECT, tile ->
 		{
-			objects.add(tile.getGroundObject());
-		}
-		return objects;
+			GroundObject object = tile.getGroundObject();
+			if (object != null && predicate.test(object))
+			{
+				objects.add(object);
+			}
+		});
+		return new LocatableQueryResults<>(objects);
 	}
 }
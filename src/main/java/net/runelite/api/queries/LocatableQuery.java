@@ -26,18 +26,32 @@ package net.runelite.api.queries;
 
 import static java.lang.Math.abs;
 import java.util.function.Predicate;
+import net.runelite.api.Client;
+import net.runelite.api.Constants;
 import net.runelite.api.Locatable;
 import net.runelite.api.LocatableQueryResults;
+import static net.runelite.api.Perspective.LOCAL_COORD_BITS;
 import net.runelite.api.Query;
 import net.runelite.api.coords.LocalPoint;
 import net.runelite.api.coords.WorldPoint;
 
 public abstract class LocatableQuery<EntityType extends Locatable, QueryType> extends Query<EntityType, QueryType, LocatableQueryResults<EntityType>>
 {
+	/*
+	 * The scene tiles the location filters confine matches to, kept in scene and in world
+	 * coordinates until the scene base is known. Each is a tile wider than its filter, as
+	 * an object's location is its centre and need not lie on the tile holding it.
+	 */
+	private int sceneMinX = Integer.MIN_VALUE, sceneMinY = Integer.MIN_VALUE;
+	private int sceneMaxX = Integer.MAX_VALUE, sceneMaxY = Integer.MAX_VALUE;
+	private int worldMinX = Integer.MIN_VALUE, worldMinY = Integer.MIN_VALUE;
+	private int worldMaxX = Integer.MAX_VALUE, worldMaxY = Integer.MAX_VALUE;
+
 	@SuppressWarnings("unchecked")
 	public QueryType atWorldLocation(WorldPoint location)
 	{
 		predicate = and(object -> object.getWorldLocation().equals(location));
+		narrowWorld(location.getX(), location.getY(), 1);
 		return (QueryType) this;
 	}
 
@@ -45,6 +59,7 @@ public abstract class LocatableQuery<EntityType extends Locatable, QueryType> ex
 	public QueryType atLocalLocation(LocalPoint location)
 	{
 		predicate = and(object -> object.getLocalLocation().equals(location));
+		narrowScene(location, 1);
 		return (QueryType) this;
 	}
 
@@ -52,6 +67,7 @@ public abstract class LocatableQuery<EntityType extends Locatable, QueryType> ex
 	public QueryType isWithinDistance(LocalPoint to, int distance)
 	{
 		predicate = and(a -> a.getLocalLocation().distanceTo(to) <= distance);
+		narrowScene(to, (distance >> LOCAL_COORD_BITS) + 2);
 		return (QueryType) this;
 	}
 
@@ -59,12 +75,14 @@ public abstract class LocatableQuery<EntityType extends Locatable, QueryType> ex
 	public QueryType isWithinDistance(WorldPoint to, int distance)
 	{
 		predicate = and(a -> a.getWorldLocation().distanceTo(to) <= distance);
+		narrowWorld(to.getX(), to.getY(), Math.min(distance, Constants.SCENE_SIZE) + 1);
 		return (QueryType) this;
 	}
 
 	@SuppressWarnings("unchecked")
 	public QueryType isWithinArea(LocalPoint from, int area)
 	{
+		narrowScene(from, (area >> LOCAL_COORD_BITS) + 2);
 		predicate = and(a ->
 		{
 			LocalPoint localLocation = a.getLocalLocation();
@@ -80,4 +98,45 @@ public abstract class LocatableQuery<EntityType extends Locatable, QueryType> ex
 		predicate = and(other);
 		return (QueryType) this;
 	}
+
+	/**
+	 * Gets the scene tiles outside of which the location filters match nothing, clamped to the
+	 * scene. The area may be empty.
+	 *
+	 * @param client the game client
+	 * @return the lowest x, lowest y, highest x and highest y
+	 */
+	protected int[] getSceneArea(Client client)
+	{
+		int minX = Math.max(0, sceneMinX);
+		int minY = Math.max(0, sceneMinY);
+		int maxX = Math.min(Constants.SCENE_SIZE - 1, sceneMaxX);
+		int maxY = Math.min(Constants.SCENE_SIZE - 1, sceneMaxY);
+		if (worldMinX != Integer.MIN_VALUE)
+		{
+			minX = Math.max(minX, worldMinX - client.getBaseX());
+			minY = Math.max(minY, worldMinY - client.getBaseY());
+			maxX = Math.min(maxX, worldMaxX - client.getBaseX());
+			maxY = Math.min(maxY, worldMaxY - client.getBaseY());
+		}
+		return new int[]{minX, minY, maxX, maxY};
+	}
+
+	private void narrowScene(LocalPoint centre, int radius)
+	{
+		int x = centre.getX() >> LOCAL_COORD_BITS;
+		int y = centre.getY() >> LOCAL_COORD_BITS;
+		sceneMinX = Math.max(sceneMinX, x - radius);
+		sceneMinY = Math.max(sceneMinY, y - radius);
+		sceneMaxX = Math.min(sceneMaxX, x + radius);
+		sceneMaxY = Math.min(sceneMaxY, y + radius);
+	}
+
+	private void narrowWorld(int x, int y, int radius)
+	{
+		worldMinX = Math.max(worldMinX, x - radius);
+		worldMinY = Math.max(worldMinY, y - radius);
+		worldMaxX = Math.min(worldMaxX, x + radius);
+		worldMaxY = Math.min(worldMaxY, y + radius);
+	}
 }
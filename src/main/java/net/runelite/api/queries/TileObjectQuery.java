@@ -27,6 +27,8 @@ package net.runelite.api.queries;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import net.runelite.api.Client;
 import net.runelite.api.Constants;
@@ -36,6 +38,11 @@ import net.runelite.api.TileObject;
 
 public abstract class TileObjectQuery<EntityType extends TileObject, QueryType> extends LocatableQuery<EntityType, QueryType>
 {
+	/**
+	 * The ids of the first id filter, which matches must have one of.
+	 */
+	private int[] idHint;
+
 	protected List<Tile> getTiles(Client client)
 	{
 		List<Tile> tilesList = new ArrayList<>();
@@ -57,9 +64,27 @@ public abstract class TileObjectQuery<EntityType extends TileObject, QueryType>
 		return tilesList;
 	}
 
+	/**
+	 * Visits the tiles of the current plane which may hold a match of an object type, in the
+	 * order of {@link #getTiles(Client)}.
+	 *
+	 * @param client   the game client
+	 * @param type     the object type, such as {@link Scene#GAME_OBJECT}
+	 * @param consumer the tile visitor
+	 */
+	protected void forEachTile(Client client, int type, Consumer<Tile> consumer)
+	{
+		int[] area = getSceneArea(client);
+		client.getScene().forEachObjectTile(type, client.getPlane(), area[0], area[1], area[2], area[3], idHint, consumer);
+	}
+
 	@SuppressWarnings("unchecked")
 	public QueryType idEquals(int... ids)
 	{
+		if (idHint == null)
+		{
+			idHint = ids.clone();
+		}
 		predicate = and(object ->
 		{
 			for (int id : ids)
@@ -114,6 +139,10 @@ public abstract class TileObjectQuery<EntityType extends TileObject, QueryType>
 	@SuppressWarnings("unchecked")
 	public QueryType idEquals(Collection<Integer> ids)
 	{
+		if (idHint == null)
+		{
+			idHint = ids.stream().filter(Objects::nonNull).mapToInt(Integer::intValue).toArray();
+		}
 		predicate = and((object) -> ids.contains(object.getId()));
 		return (QueryType) this;
 	}
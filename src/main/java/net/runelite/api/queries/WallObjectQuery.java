@@ -25,12 +25,10 @@
 package net.runelite.api.queries;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.List;
 import net.runelite.api.Client;
 import net.runelite.api.LocatableQueryResults;
-import net.runelite.api.Tile;
+import net.runelite.api.Scene;
 import net.runelite.api.WallObject;
 
 public class WallObjectQuery extends TileObjectQuery<WallObject, WallObjectQuery>
@@ -38,20 +36,15 @@ public class WallObjectQuery extends TileObjectQuery<WallObject, WallObjectQuery
 	@Override
 	public LocatableQueryResults<WallObject> result(Client client)
 	{
-		return new LocatableQueryResults<>(getWallObjects(client).stream()
-			.filter(Objects::nonNull)
-			.filter(predicate)
-			.distinct()
-			.collect(Collectors.toList()));
-	}
-
-	private Collection<WallObject> getWallObjects(Client client)
-	{
-		Collection<WallObject> objects = new ArrayList<>();
-		for (Tile tile : getTiles(client))
+		List<WallObject> objects = new ArrayList<>();
+		forEachTile(client, Scene.WALL_OBJECT, tile ->
 		{
-			objects.add(tile.getWallObject());
-		}
-		return objects;
+			WallObject object = tile.getWallObject();
+			if (object != null && predicate.test(object))
+			{
+				objects.add(object);
+			}
+		});
+		return new LocatableQueryResults<>(objects);
 	}
 }
@@ -226,6 +226,11 @@ public class Notifier
 		return appName + " - " + name;
 	}
 
+	public boolean isFlashing()
+	{
+		return flashStart != null;
+	}
+
 	public void processFlash(final Graphics2D graphics)
 	{
 		FlashNotification flashNotification = runeLiteConfig.flashNotification();
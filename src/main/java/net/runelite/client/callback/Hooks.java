@@ -30,7 +30,9 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.GraphicsConfiguration;
 import java.awt.Image;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
+import java.awt.Shape;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
@@ -68,6 +70,7 @@ import net.runelite.client.ui.overlay.OverlayRenderer;
 import net.runelite.client.ui.overlay.infobox.InfoBoxManager;
 import net.runelite.client.util.DeferredEventBus;
 import net.runelite.client.util.RSTimeUnit;
+import net.runelite.rs.api.RSRasterProvider;
 
 /**
  * This class contains field required for mixins and runelite hooks to work.
@@ -101,6 +104,8 @@ public class Hooks implements Callbacks
 	private VolatileImage stretchedImage;
 	private Graphics2D stretchedGraphics;
 
+	private boolean overlaysPaintedLastFrame;
+
 	private long lastCheck;
 	private boolean ignoreNextNpcUpdate;
 	private boolean shouldProcessGameTick;
@@ -343,6 +348,14 @@ public class Hooks implements Callbacks
 			log.warn("Error during overlay rendering", ex);
 		}
 
+		// Overlays may paint anywhere, so only present the changed regions
+		// when none were painted over this frame or the last one
+		final Rectangle dirtyBounds = mainBufferProvider instanceof RSRasterProvider
+			? ((RSRasterProvider) mainBufferProvider).takeDirtyBounds() : null;
+		final boolean overlaysPainted = renderer.takeOverlaysRendered() || notifier.isFlashing();
+		final boolean presentDirty = dirtyBounds != null && !overlaysPainted && !overlaysPaintedLastFrame;
+		overlaysPaintedLastFrame = overlaysPainted;
+
 		notifier.processFlash(graphics2d);
 
 		// Draw clientUI overlays
@@ -355,6 +368,17 @@ public class Hooks implements Callbacks
 			return;
 		}
 
+		// The client may present from a thread of its own or an accelerated surface of its own
+		if (mainBufferProvider instanceof RSRasterProvider && ((RSRasterProvider) mainBufferProvider).present(
+			presentDirty ? dirtyBounds : null,
+			client.isStretchedEnabled() ? client.getStretchedDimensions() : null,
+			client.isStretchedFast()))
+		{
+			final Image image = mainBufferProvider.getImage();
+			drawManager.processDrawComplete(() -> copy(image));
+			return;
+		}
+
 		// Stretch the game image if the user has that enabled
 		Image image = mainBufferProvider.getImage();
 		final Image finalImage;
@@ -400,7 +424,17 @@ public class Hooks implements Callbacks
 		}
 
 		// Draw the image onto the game canvas
-		graphics.drawImage(finalImage, 0, 0, client.getCanvas());
+		if (presentDirty && finalImage == image)
+		{
+			final Shape clip = graphics.getClip();
+			graphics.clipRect(dirtyBounds.x, dirtyBounds.y, dirtyBounds.width, dirtyBounds.height);
+			graphics.drawImage(finalImage, 0, 0, client.getCanvas());
+			graphics.setClip(clip);
+		}
+		else
+		{
+			graphics.drawImage(finalImage, 0, 0, client.getCanvas());
+		}
 
 		// finalImage is backed by the client buffer which will change soon. make a copy
 		// so that callbacks can safely use it later from threads.
@@ -98,6 +98,7 @@ public class OverlayRenderer extends MouseAdapter implements KeyListener
 	private Overlay currentManagedOverlay;
 	private Overlay dragTargetOverlay;
 	private Rectangle currentManagedBounds;
+	private boolean overlaysRendered;
 	private boolean inOverlayManagingMode;
 	private boolean inOverlayResizingMode;
 	private boolean inOverlayDraggingMode;
@@ -198,6 +199,16 @@ public class OverlayRenderer extends MouseAdapter implements KeyListener
 		}
 	}
 
+	/**
+	 * Returns whether any overlays were rendered since the last call.
+	 */
+	public boolean takeOverlaysRendered()
+	{
+		final boolean rendered = overlaysRendered;
+		overlaysRendered = false;
+		return rendered;
+	}
+
 	public void renderOverlayLayer(Graphics2D graphics, final OverlayLayer layer)
 	{
 		final Collection<Overlay> overlays = overlayManager.getLayer(layer);
@@ -229,6 +240,7 @@ public class OverlayRenderer extends MouseAdapter implements KeyListener
 			return;
 		}
 
+		overlaysRendered = true;
 		OverlayUtil.setGraphicProperties(graphics);
 
 		// Draw snap corners
@@ -30,7 +30,9 @@ package net.runelite.rs.api;
 
 import net.runelite.api.MainBufferProvider;
 import java.awt.Component;
+import java.awt.Dimension;
 import java.awt.Image;
+import java.awt.Rectangle;
 import net.runelite.mapping.Import;
 
 public interface RSRasterProvider extends RSAbstractRasterProvider, MainBufferProvider
@@ -44,4 +46,18 @@ public interface RSRasterProvider extends RSAbstractRasterProvider, MainBufferPr
 
 	@Import("component")
 	Component getCanvas();
+
+	/**
+	 * Returns the bounds of the regions changed since the last call, or null if the
+	 * whole buffer has to be presented.
+	 */
+	Rectangle takeDirtyBounds();
+
+	/**
+	 * Presents the finished frame through the client's own presentation path, either
+	 * from a presenter thread or through an accelerated surface, if one is enabled.
+	 *
+	 * @return false if the caller has to present the frame itself
+	 */
+	boolean present(Rectangle dirty, Dimension stretched, boolean fastScaling);
 }